@@ -0,0 +1,81 @@
+package com.nokoriware.corkboard.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nokoriware.corkboard.CorkboardJSONImporter;
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.Node;
+import com.nokoriware.corkboard.test.SyntheticBoardGenerator;
+
+/**
+ * A generated board shared by every benchmark, along with a random sample of its Nodes to look up. The board's size can be changed with JMH's <code>-p</code> option (such as
+ * <code>-p nodes=100000</code>); the same sizes always generate the same board.
+ */
+@State(Scope.Benchmark)
+public class BoardState {
+	
+	public static final int SAMPLE_SIZE = 1024;
+	
+	@Param("20000")
+	public int nodes;
+	
+	@Param("40000")
+	public int edges;
+	
+	@Param("1000")
+	public int components;
+	
+	@Param("500")
+	public int jumpers;
+	
+	@Param("30")
+	public int bodyWords;
+	
+	public byte[] json;
+	public CorkboardProject project;
+	
+	public Node[] sample;
+	public String[] IDs;
+	public String[] labels;
+	
+	//One Node body's worth of HTML
+	public String html;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		SyntheticBoardGenerator generator = new SyntheticBoardGenerator();
+		
+		generator.setNodeCount(nodes);
+		generator.setEdgeCount(edges);
+		generator.setComponentCount(components);
+		generator.setJumperCount(jumpers);
+		generator.setBodyWords(bodyWords);
+		
+		json = generator.generate();
+		project = CorkboardJSONImporter.read("benchmark", new ByteArrayInputStream(json));
+		
+		ArrayList<Node> nodeList = project.getNodes();
+		Random random = new Random(7);
+		
+		sample = new Node[SAMPLE_SIZE];
+		IDs = new String[SAMPLE_SIZE];
+		labels = new String[SAMPLE_SIZE];
+		
+		for (int i = 0; i < SAMPLE_SIZE; i++) {
+			sample[i] = nodeList.get(random.nextInt(nodeList.size()));
+			IDs[i] = sample[i].getID();
+			labels[i] = sample[i].getLabel();
+		}
+		
+		html = generator.body(random);
+	}
+	
+}
@@ -0,0 +1,47 @@
+package com.nokoriware.corkboard.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nokoriware.corkboard.CorkboardJSONExporter;
+import com.nokoriware.corkboard.CorkboardJSONImporter;
+import com.nokoriware.corkboard.CorkboardProject;
+
+/**
+ * Reading and writing whole boards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ImportBenchmark {
+	
+	@Benchmark
+	public CorkboardProject read(BoardState board) {
+		return CorkboardJSONImporter.read("benchmark", new ByteArrayInputStream(board.json));
+	}
+	
+	@Benchmark
+	public CorkboardProject readStreaming(BoardState board) {
+		return CorkboardJSONImporter.readStreaming("benchmark", new ByteArrayInputStream(board.json));
+	}
+	
+	@Benchmark
+	public ByteArrayOutputStream write(BoardState board) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream(board.json.length);
+		CorkboardJSONExporter.write(board.project, outputStream);
+		return outputStream;
+	}
+	
+}
@@ -0,0 +1,59 @@
+package com.nokoriware.corkboard.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.nokoriware.corkboard.Node;
+
+/**
+ * Finding Nodes in a project. Each invocation looks up every Node in the sample, and the time is given per lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+	
+	private static final int ATTRIBUTE_QUERIES = 20;
+	
+	@Benchmark
+	@OperationsPerInvocation(BoardState.SAMPLE_SIZE)
+	public void getNodeByID(BoardState board, Blackhole blackhole) {
+		for (String ID : board.IDs) {
+			blackhole.consume(board.project.getNodeByID(ID));
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BoardState.SAMPLE_SIZE)
+	public void getNodeByLabel(BoardState board, Blackhole blackhole) {
+		for (String label : board.labels) {
+			blackhole.consume(board.project.getNodeByLabel(label));
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ATTRIBUTE_QUERIES)
+	public void getNodesWithAttribute(BoardState board, Blackhole blackhole) {
+		for (int i = 0; i < ATTRIBUTE_QUERIES; i++) {
+			blackhole.consume(board.project.getNodesWithAttribute("quest:" + i));
+		}
+	}
+	
+	@Benchmark
+	public List<Node> getNodesWithAttributeStartsWith(BoardState board) {
+		return board.project.getNodesWithAttributeStartsWith("speaker:");
+	}
+	
+}
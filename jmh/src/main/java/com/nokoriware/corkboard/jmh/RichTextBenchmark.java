@@ -0,0 +1,67 @@
+package com.nokoriware.corkboard.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nokoriware.corkboard.Content;
+import com.nokoriware.corkboard.util.RichText;
+import com.nokoriware.corkboard.util.RichTextCache;
+
+/**
+ * Parsing one Node body's worth of HTML, the way a game would when it displays a line of dialogue.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RichTextBenchmark {
+	
+	@State(Scope.Benchmark)
+	public static class CacheState {
+		
+		public final RichTextCache cache = new RichTextCache();
+		
+		@Setup(Level.Trial)
+		public void setup(BoardState board) {
+			cache.get(board.html);
+		}
+		
+	}
+	
+	/**
+	 * The first call to <code>getText()</code> on a new Content, which has to parse the HTML.
+	 */
+	@Benchmark
+	public String contentGetText(BoardState board) {
+		return new Content(board.html).getText();
+	}
+	
+	@Benchmark
+	public RichText richText(BoardState board) {
+		return new RichText(board.html);
+	}
+	
+	@Benchmark
+	public RichText tokenize(BoardState board) {
+		return RichText.tokenize(board.html);
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public RichText cacheHit(BoardState board, CacheState cacheState) {
+		return cacheState.cache.get(board.html);
+	}
+	
+}
@@ -0,0 +1,80 @@
+package com.nokoriware.corkboard.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.nokoriware.corkboard.Connection;
+import com.nokoriware.corkboard.GraphStore;
+import com.nokoriware.corkboard.Node;
+import com.nokoriware.corkboard.Node.LabelType;
+import com.nokoriware.corkboard.analysis.BoardAnalysis;
+
+/**
+ * Walking a project's Connections, through the Node objects and through its GraphStore.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TraversalBenchmark {
+	
+	@Benchmark
+	@OperationsPerInvocation(BoardState.SAMPLE_SIZE)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void getTargetConnectionsByLabel(BoardState board, Blackhole blackhole) {
+		for (Node node : board.sample) {
+			blackhole.consume(node.getTargetConnectionsByLabel(LabelType.LABELLED));
+		}
+	}
+	
+	/**
+	 * Every out-bound Connection in the project, through the Node objects.
+	 */
+	@Benchmark
+	public int walkOutgoingConnections(BoardState board) {
+		int sum = 0;
+		
+		for (Node node : board.project.getNodes()) {
+			for (Connection connection : node.getOutgoingConnections()) {
+				sum += (connection.getTarget() != null ? connection.getTarget().getLabel().length() : 0);
+			}
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * The same walk as {@link #walkOutgoingConnections(BoardState)}, through the GraphStore. Loops are included here, but boards rarely have more than a few.
+	 */
+	@Benchmark
+	public int walkGraphStore(BoardState board) {
+		GraphStore graph = board.project.getGraphStore();
+		int sum = 0;
+		
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			for (int i = 0; i < graph.getOutDegree(node); i++) {
+				int target = graph.getTarget(graph.getOutConnection(node, i));
+				sum += (target >= 0 ? graph.getNodeLabel(target).length() : 0);
+			}
+		}
+		
+		return sum;
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public BoardAnalysis analyze(BoardState board) {
+		return BoardAnalysis.analyze(board.project);
+	}
+	
+}
@@ -0,0 +1,174 @@
+package com.nokoriware.corkboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index from attributes to the Nodes that have them, built from a whole project at once. See {@link CorkboardProject#getNodesWithAttribute(String)}.
+ * <br><br>
+ * Each attribute maps to the positions of its Nodes in the project's Node list, so results come back in project order. The attributes are also kept in a sorted array, so
+ * every attribute starting with a prefix sits in one run that's found with a binary search.
+ */
+class AttributeIndex {
+	
+	private final Node[] nodes;
+	
+	//Positions in nodes, in ascending order
+	private final HashMap<String, int[]> positionsByAttribute;
+	
+	private final String[] sortedAttributes;
+	
+	AttributeIndex(List<Node> nodeList) {
+		nodes = nodeList.toArray(new Node[0]);
+		
+		HashMap<String, Positions> positions = new HashMap<>();
+		
+		for (int i = 0; i < nodes.length; i++) {
+			if (nodes[i] == null) {
+				continue;
+			}
+			
+			for (String attribute : nodes[i].getAttributes()) {
+				if (attribute != null) {
+					positions.computeIfAbsent(attribute, a -> new Positions()).add(i);
+				}
+			}
+		}
+		
+		positionsByAttribute = new HashMap<>((int) (positions.size() / 0.75f) + 1);
+		
+		for (Map.Entry<String, Positions> entry : positions.entrySet()) {
+			positionsByAttribute.put(entry.getKey(), entry.getValue().toArray());
+		}
+		
+		sortedAttributes = positionsByAttribute.keySet().toArray(new String[0]);
+		Arrays.sort(sortedAttributes);
+	}
+	
+	/*
+	 * 
+	 * Queries
+	 * 
+	 */
+	
+	List<Node> getNodes(String attribute) {
+		int[] positions = positionsByAttribute.get(attribute);
+		
+		if (positions == null) {
+			return Collections.emptyList();
+		}
+		
+		return toNodes(positions);
+	}
+	
+	List<Node> getNodesStartsWith(String prefix) {
+		int start = findFirst(prefix);
+		int end = findEnd(prefix, start);
+		
+		if (start == end) {
+			return Collections.emptyList();
+		}
+		
+		if (end - start == 1) {
+			return toNodes(positionsByAttribute.get(sortedAttributes[start]));
+		}
+		
+		//Several attributes can share a Node, so the positions are merged
+		BitSet merged = new BitSet(nodes.length);
+		
+		for (int i = start; i < end; i++) {
+			for (int position : positionsByAttribute.get(sortedAttributes[i])) {
+				merged.set(position);
+			}
+		}
+		
+		ArrayList<Node> found = new ArrayList<>(merged.cardinality());
+		
+		for (int position = merged.nextSetBit(0); position >= 0; position = merged.nextSetBit(position + 1)) {
+			found.add(nodes[position]);
+		}
+		
+		return Collections.unmodifiableList(found);
+	}
+	
+	/**
+	 * @return the distinct attributes starting with <code>prefix</code>, in sorted order, with the prefix removed.
+	 */
+	String[] getAttributesStartsWith(String prefix) {
+		int start = findFirst(prefix);
+		int end = findEnd(prefix, start);
+		
+		String[] attributes = new String[end - start];
+		
+		for (int i = start; i < end; i++) {
+			attributes[i - start] = sortedAttributes[i].substring(prefix.length());
+		}
+		
+		return attributes;
+	}
+	
+	/*
+	 * 
+	 * Utilities
+	 * 
+	 */
+	
+	/**
+	 * @return the index of the first attribute that's greater than or equal to <code>prefix</code>, which is the first one starting with it, if any do.
+	 */
+	private int findFirst(String prefix) {
+		int index = Arrays.binarySearch(sortedAttributes, prefix);
+		return (index >= 0 ? index : -(index + 1));
+	}
+	
+	private int findEnd(String prefix, int start) {
+		int end = start;
+		
+		while (end < sortedAttributes.length && sortedAttributes[end].startsWith(prefix)) {
+			end++;
+		}
+		
+		return end;
+	}
+	
+	private List<Node> toNodes(int[] positions) {
+		Node[] found = new Node[positions.length];
+		
+		for (int i = 0; i < positions.length; i++) {
+			found[i] = nodes[positions[i]];
+		}
+		
+		return Collections.unmodifiableList(Arrays.asList(found));
+	}
+	
+	private static class Positions {
+		
+		int[] positions = new int[4];
+		int size;
+		
+		void add(int position) {
+			
+			//Nodes are visited in order, so a Node with the same attribute twice is only listed once
+			if (size > 0 && positions[size - 1] == position) {
+				return;
+			}
+			
+			if (size == positions.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+			}
+			
+			positions[size++] = position;
+		}
+		
+		int[] toArray() {
+			return Arrays.copyOf(positions, size);
+		}
+		
+	}
+	
+}
@@ -1,5 +1,7 @@
 package com.nokoriware.corkboard;
 
+import com.nokoriware.corkboard.util.StringPool;
+
 public class Connection extends Element {
 	
 	private Node source, target;
@@ -9,13 +11,61 @@ public class Connection extends Element {
 	 */
 	public Connection(String ID, String label, Node source, Node target) {
 		super(ID, label);
-		this.source = source != null ? source.connect(this) : null;
-		this.target = target != null ? target.connect(this) : null;
+		
+		if (source != null && source.isFrozen() || target != null && target.isFrozen()) {
+			throw new UnsupportedOperationException("Connections can't be added to the Nodes of a frozen CorkboardProject");
+		}
+		
+		this.source = source;
+		this.target = target;
+		
+		if (source != null) {
+			source.connect(this);
+		}
+		
+		if (target != null) {
+			target.connect(this);
+		}
+	}
+	
+	@Override
+	public void setLabel(String label) {
+		super.setLabel(label);
+		
+		if (source != null) {
+			source.relabel(this);
+		}
+		
+		if (target != null && target != source) {
+			target.relabel(this);
+		}
 	}
 	
+	/**
+	 * Removes this Connection from both of its Nodes, and from its CorkboardProject if it belongs to one.
+	 */
 	public void disconnect() {
-		source.disconnect(this);
-		target.disconnect(this);
+		checkFrozen();
+		
+		if (source != null) {
+			source.disconnect(this);
+		}
+		
+		if (target != null) {
+			target.disconnect(this);
+		}
+		
+		if (owner != null) {
+			owner.remove(this);
+		}
+	}
+	
+	void freeze(StringPool stringPool) {
+		if (stringPool != null) {
+			label = stringPool.intern(label);
+		}
+		
+		frozen = true;
 	}
 	
 	public Node getSource() {
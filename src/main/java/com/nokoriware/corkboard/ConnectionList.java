@@ -0,0 +1,108 @@
+package com.nokoriware.corkboard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of a Node's Connections (all of them, in-bound, out-bound, or loops), split into labelled and unlabelled lists as Connections are added and removed.
+ * <br><br>
+ * Each list is handed out as a read-only view that's created once, so reading them never allocates. Lists are only created once they have something in them. Frozen Nodes don't
+ * keep these at all; see {@link ConnectionPool}.
+ */
+class ConnectionList {
+	
+	private ArrayList<Connection> connections;
+	private ArrayList<Connection> labelled;
+	private ArrayList<Connection> unlabelled;
+	
+	private List<Connection> connectionsView = Collections.emptyList();
+	private List<Connection> labelledView = Collections.emptyList();
+	private List<Connection> unlabelledView = Collections.emptyList();
+	
+	static boolean isLabelled(Connection connection) {
+		return (connection.getLabel() != null && !connection.getLabel().isBlank());
+	}
+	
+	public List<Connection> get() {
+		return connectionsView;
+	}
+	
+	public List<Connection> get(Node.LabelType labelType) {
+		return (labelType == Node.LabelType.LABELLED ? labelledView : unlabelledView);
+	}
+	
+	public boolean isEmpty() {
+		return connectionsView.isEmpty();
+	}
+	
+	public boolean contains(Connection connection) {
+		return connectionsView.contains(connection);
+	}
+	
+	public void add(Connection connection) {
+		if (connections == null) {
+			connections = new ArrayList<>(2);
+			connectionsView = Collections.unmodifiableList(connections);
+		}
+		
+		connections.add(connection);
+		addByLabel(connection);
+	}
+	
+	private void addByLabel(Connection connection) {
+		if (isLabelled(connection)) {
+			if (labelled == null) {
+				labelled = new ArrayList<>(2);
+				labelledView = Collections.unmodifiableList(labelled);
+			}
+			
+			labelled.add(connection);
+		} else {
+			if (unlabelled == null) {
+				unlabelled = new ArrayList<>(2);
+				unlabelledView = Collections.unmodifiableList(unlabelled);
+			}
+			
+			unlabelled.add(connection);
+		}
+	}
+	
+	public boolean remove(Connection connection) {
+		if (connections == null || !connections.remove(connection)) {
+			return false;
+		}
+		
+		if (labelled != null) {
+			labelled.remove(connection);
+		}
+		
+		if (unlabelled != null) {
+			unlabelled.remove(connection);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Re-sorts the labelled and unlabelled lists after a Connection's label has changed, keeping them in the same order as the full list.
+	 */
+	public void relabel(Connection connection) {
+		if (connections == null || !connections.contains(connection)) {
+			return;
+		}
+		
+		if (labelled != null) {
+			labelled.clear();
+		}
+		
+		if (unlabelled != null) {
+			unlabelled.clear();
+		}
+		
+		for (Connection c : connections) {
+			addByLabel(c);
+		}
+	}
+	
+}
@@ -0,0 +1,257 @@
+package com.nokoriware.corkboard;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The Connections of every Node in a frozen project, kept in one array rather than each Node having lists of its own (see {@link CorkboardProject#freeze()}).
+ * <br><br>
+ * Each Node's Connections are one run of the array, grouped by direction: out-bound, then in-bound, then loops, each in the same order as {@link Node#getConnections()}, so
+ * the direction lists are simply parts of the run. Alongside the run is a byte for each Connection, in the order of <code>getConnections()</code>, holding its direction and
+ * whether it's labelled. The full list and the label lists are views that use these to pick their Connections out of the run as they're read, so nothing but the run and its
+ * bytes is stored for them.
+ */
+final class ConnectionPool {
+	
+	//The groups of a run, in order. Loops are listed twice in a Node's Connections but only once in its self Connections, so the second listing goes in a group of its own.
+	static final int OUTGOING = 0;
+	static final int INCOMING = 1;
+	static final int SELF = 2;
+	static final int REPEAT = 3;
+	
+	//Not a group; asks for every Connection in the run
+	static final int ALL = -1;
+	
+	private static final int GROUP = 3;
+	private static final int LABELLED = 4;
+	
+	private final Connection[] connections;
+	private final byte[] flags;
+	private int size;
+	
+	ConnectionPool(int capacity) {
+		connections = new Connection[capacity];
+		flags = new byte[capacity];
+	}
+	
+	/**
+	 * Adds a Node's Connections to the end of the pool. The direction lists are each in the same order as <code>all</code>, so they're matched up with it in a single pass.
+	 *
+	 * @return where the Node's run starts
+	 */
+	int add(List<Connection> all, List<Connection> outgoing, List<Connection> incoming, List<Connection> self) {
+		int offset = size;
+		int o = 0, i = 0, s = 0;
+		
+		for (int k = 0; k < all.size(); k++) {
+			Connection connection = all.get(k);
+			int flag;
+			
+			if (o < outgoing.size() && outgoing.get(o) == connection) {
+				flag = OUTGOING;
+				o++;
+			} else if (i < incoming.size() && incoming.get(i) == connection) {
+				flag = INCOMING;
+				i++;
+			} else if (s < self.size() && self.get(s) == connection) {
+				flag = SELF;
+				s++;
+			} else {
+				flag = REPEAT;
+			}
+			
+			if (ConnectionList.isLabelled(connection)) {
+				flag |= LABELLED;
+			}
+			
+			flags[offset + k] = (byte) flag;
+		}
+		
+		//Each group goes after the ones before it, in the same order as the full list
+		int[] next = {offset, offset + o, offset + o + i, offset + o + i + s};
+		
+		for (int k = 0; k < all.size(); k++) {
+			connections[next[flags[offset + k] & GROUP]++] = all.get(k);
+		}
+		
+		size += all.size();
+		return offset;
+	}
+	
+	/**
+	 * @return a read-only view of part of the pool, such as one of a run's groups
+	 */
+	List<Connection> get(int start, int end) {
+		return new Run(start, end - start);
+	}
+	
+	/**
+	 * @param incoming, self, repeat - where those groups start in the run (see {@link #getGroupStart(int, int, int)})
+	 * @param group - {@link #OUTGOING}, {@link #INCOMING}, {@link #SELF}, or {@link #ALL}
+	 * @param labelType - the kind of label, or null for either
+	 * @return a read-only view of the Connections in the run that are in the group and have the given kind of label, in the order of the full list
+	 */
+	List<Connection> get(int offset, int length, int incoming, int self, int repeat, int group, Node.LabelType labelType) {
+		return new Filter(offset, length, new int[] {offset, incoming, self, repeat}, group, labelType);
+	}
+	
+	/**
+	 * The same as <code>get(...).isEmpty()</code>, without making a view.
+	 */
+	boolean isEmpty(int offset, int length, int group, Node.LabelType labelType) {
+		return find(offset, offset + length, group, labelType) < 0;
+	}
+	
+	/**
+	 * @return where <code>group</code> starts in the run. Nodes keep these, so their direction lists can be had without working them out each time.
+	 */
+	int getGroupStart(int offset, int length, int group) {
+		int start = offset;
+		
+		for (int k = offset; k < offset + length; k++) {
+			if ((flags[k] & GROUP) < group) {
+				start++;
+			}
+		}
+		
+		return start;
+	}
+	
+	/**
+	 * @return the first position from <code>from</code> up to <code>end</code> (in the order of the full list) that matches, or -1 if none do
+	 */
+	private int find(int from, int end, int group, Node.LabelType labelType) {
+		for (int k = from; k < end; k++) {
+			if (matches(flags[k], group, labelType)) {
+				return k;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private static boolean matches(int flag, int group, Node.LabelType labelType) {
+		return (group == ALL || (flag & GROUP) == group) && (labelType == null || ((flag & LABELLED) != 0) == (labelType == Node.LabelType.LABELLED));
+	}
+	
+	/**
+	 * A direction group of a run.
+	 */
+	private class Run extends AbstractList<Connection> implements RandomAccess {
+		
+		private final int start, length;
+		
+		public Run(int start, int length) {
+			this.start = start;
+			this.length = length;
+		}
+		
+		@Override
+		public Connection get(int index) {
+			return connections[start + Objects.checkIndex(index, length)];
+		}
+		
+		@Override
+		public int size() {
+			return length;
+		}
+		
+	}
+	
+	/**
+	 * The Connections of a run that are in a group and have a kind of label, in the order of the full list. Runs are a single Node's Connections, so they're short enough to
+	 * walk through on each read.
+	 */
+	private class Filter extends AbstractList<Connection> {
+		
+		private final int offset, end;
+		private final int[] groupStarts;
+		private final int group;
+		private final Node.LabelType labelType;
+		
+		public Filter(int offset, int length, int[] groupStarts, int group, Node.LabelType labelType) {
+			this.offset = offset;
+			this.end = offset + length;
+			this.groupStarts = groupStarts;
+			this.group = group;
+			this.labelType = labelType;
+		}
+		
+		@Override
+		public Connection get(int index) {
+			if (index >= 0) {
+				Iterator<Connection> iterator = iterator();
+				
+				for (int i = 0; i < index && iterator.hasNext(); i++) {
+					iterator.next();
+				}
+				
+				if (iterator.hasNext()) {
+					return iterator.next();
+				}
+			}
+			
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+		}
+		
+		@Override
+		public int size() {
+			if (group == ALL && labelType == null) {
+				return end - offset;
+			}
+			
+			int size = 0;
+			
+			for (int k = offset; k < end; k++) {
+				if (matches(flags[k], group, labelType)) {
+					size++;
+				}
+			}
+			
+			return size;
+		}
+		
+		@Override
+		public boolean isEmpty() {
+			return find(offset, end, group, labelType) < 0;
+		}
+		
+		/**
+		 * Walks the run's bytes in the order of the full list, keeping track of where it's up to in each group.
+		 */
+		@Override
+		public Iterator<Connection> iterator() {
+			return new Iterator<Connection>() {
+				
+				private int k = offset;
+				private final int[] next = groupStarts.clone();
+				
+				@Override
+				public boolean hasNext() {
+					return find(k, end, group, labelType) >= 0;
+				}
+				
+				@Override
+				public Connection next() {
+					while (k < end) {
+						int flag = flags[k++];
+						int slot = next[flag & GROUP]++;
+						
+						if (matches(flag, group, labelType)) {
+							return connections[slot];
+						}
+					}
+					
+					throw new NoSuchElementException();
+				}
+				
+			};
+		}
+		
+	}
+	
+}
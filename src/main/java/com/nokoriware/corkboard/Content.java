@@ -4,31 +4,126 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.select.Elements;
 
+import com.nokoriware.corkboard.util.StringPool;
+
+/**
+ * Holds the HTML body of a Node. The HTML is only parsed with JSoup the first time the document, text, or paragraphs are asked for, so Nodes that are never displayed never pay for a parse.
+ */
 public class Content {
 	
-	private Document document;
+	private String html;
+	private volatile Document document;
 	
-	private Content(Document document) {
-		this.document = document;
-		document.outputSettings().prettyPrint(false);
-	}
+	//Cached results. They're volatile and only ever set once complete, so a Content shared between threads can be read from all of them at once; at worst, two threads both parse
+	//it the first time.
+	private volatile String text;
+	private volatile String[] paragraphHTML;
+	private volatile Boolean blank;
+	
+	//Set once the document has been handed out, since it could be edited at any time afterwards. From then on nothing is cached, and everything is read from the document.
+	private volatile boolean documentShared;
+	
+	//Compact Content doesn't hold on to its parsed document, only to the strings derived from it
+	private volatile boolean compact;
 	
 	public Content(String string) {
-		this(Jsoup.parse(string));
+		this.html = string;
+	}
+	
+	/**
+	 * @return the HTML of this object. Once the document has been handed out by {@link #getDocument()}, this is the HTML of the document's body, edits included;
+	 * before that, it's the raw HTML string this object was created from.
+	 */
+	public String getHTML() {
+		if (documentShared) {
+			return parse().body().html();
+		}
+		
+		return html;
 	}
 	
 	/**
-	 * @return the HTML document underlying this object, parsed with JSoup.
+	 * @return true if the HTML has already been parsed into a JSoup document.
+	 */
+	public boolean isParsed() {
+		return document != null;
+	}
+	
+	/**
+	 * @return the HTML document underlying this object, parsed with JSoup. Edits to it show up in {@link #getText()} and the other methods, the same as always; once it's been
+	 * handed out, they just aren't cached anymore.
 	 */
 	public Document getDocument() {
+		Document document = parse();
+		
+		if (!compact) {
+			documentShared = true;
+			
+			text = null;
+			paragraphHTML = null;
+			blank = null;
+		}
+		
+		return document;
+	}
+	
+	Document parse() {
+		Document document = this.document;
+		
+		if (document == null) {
+			document = Jsoup.parse(html);
+			document.outputSettings().prettyPrint(false);
+			
+			if (!compact) {
+				this.document = document;
+			}
+		}
+		
 		return document;
 	}
 	
+	/**
+	 * @return true if this Content has been compacted, and so doesn't keep its parsed document.
+	 */
+	public boolean isCompact() {
+		return compact;
+	}
+	
+	/**
+	 * Drops the parsed document and interns the HTML, keeping only the strings. Afterwards, the text and paragraphs are still cached once they've been worked out, but each call
+	 * to {@link #getDocument()} parses a new document, so edits to it don't affect this Content. Used by {@link CorkboardProject#freeze()}.
+	 */
+	void compact(StringPool stringPool) {
+		//Keep any edits made to the document before it's dropped
+		if (documentShared) {
+			html = parse().body().html();
+		}
+		
+		if (stringPool != null) {
+			html = stringPool.intern(html);
+		}
+		
+		compact = true;
+		document = null;
+		documentShared = false;
+	}
+	
 	/**
 	 * @return the document housed in this object as a parsed, combined, normalized string.
 	 */
 	public String getText() {
-		return document.text();
+		if (documentShared) {
+			return parse().text();
+		}
+		
+		String text = this.text;
+		
+		if (text == null) {
+			text = parse().text();
+			this.text = text;
+		}
+		
+		return text;
 	}
 	
 	/**
@@ -37,30 +132,56 @@ public class Content {
 	 * @return the processed paragraphs array; each index containing a separate paragraph
 	 */
 	public String[] getParagraphHTML() {
-
-	    Elements paragraphs = document.select("p");
-	    String[] processed = new String[paragraphs.size()];
-	    
-	    for (int i = 0; i < paragraphs.size(); i++) {
-	    	processed[i] = paragraphs.get(i).html();
-	    }
-	    
-	    return processed;
+		if (documentShared) {
+			return processParagraphHTML();
+		}
+		
+		String[] paragraphHTML = this.paragraphHTML;
+		
+		if (paragraphHTML == null) {
+			paragraphHTML = processParagraphHTML();
+			this.paragraphHTML = paragraphHTML;
+		}
+		
+		return paragraphHTML.clone();
+	}
+	
+	private String[] processParagraphHTML() {
+		Elements paragraphs = parse().select("p");
+		String[] processed = new String[paragraphs.size()];
+		
+		for (int i = 0; i < paragraphs.size(); i++) {
+			processed[i] = paragraphs.get(i).html();
+		}
+		
+		return processed;
 	}
 	
 	/**
 	 * @return true if the text of this element is blank. (<code>getText().isBlank()</code>)
 	 */
 	public boolean isBlank() {
-		return getText().isBlank();
+		if (documentShared) {
+			return getText().isBlank();
+		}
+		
+		//Blank HTML can't produce any text, so there's no need to parse it
+		Boolean blank = this.blank;
+		
+		if (blank == null) {
+			blank = (html.isBlank() || getText().isBlank());
+			this.blank = blank;
+		}
+		
+		return blank;
 	}
-
+	
 	/**
 	 * Overriding toString() allows Content to functionally work as a String when it comes to being presented in text-boxes.
 	 */
 	@Override
 	public String toString() {
-		return document.text();
+		return getText();
 	}
-
+	
 }
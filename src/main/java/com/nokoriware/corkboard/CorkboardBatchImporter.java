@@ -0,0 +1,261 @@
+package com.nokoriware.corkboard;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.nokoriware.corkboard.util.StringPool;
+
+/**
+ * Imports many Corkboard files at once, for games that load all of their boards up front.
+ * <br><br>
+ * The files are shared out between a fixed number of workers (see {@link #setParallelism(int)}), each importing one file at a time with
+ * {@link CorkboardJSONImporter#read(Path, CorkboardImportSettings)}. Every import uses the same settings, which come with a shared StringPool, so IDs, labels, and attributes
+ * repeated across boards are only stored once. A board that fails to import is reported in its own result, and the rest of the batch carries on.
+ * <br><br>
+ * Example:
+ * <pre>
+ * CorkboardBatchImporter importer = new CorkboardBatchImporter();
+ * 
+ * importer.importAll(paths, result -> {
+ *     if (result.isSuccessful()) {
+ *         boards.put(result.getProject().getName(), result.getProject());
+ *     } else {
+ *         System.err.println("Couldn't import " + result.getPath() + ": " + result.getError());
+ *     }
+ * });
+ * </pre>
+ */
+public class CorkboardBatchImporter {
+	
+	private CorkboardImportSettings settings;
+	
+	private Executor executor;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	
+	private boolean streaming;
+	
+	/**
+	 * Creates an importer with default settings and a new StringPool.
+	 */
+	public CorkboardBatchImporter() {
+		settings = new CorkboardImportSettings();
+		settings.setStringPool(new StringPool());
+	}
+	
+	/*
+	 * 
+	 * Settings
+	 * 
+	 */
+	
+	public CorkboardImportSettings getSettings() {
+		return settings;
+	}
+	
+	/**
+	 * Sets the settings every board is imported with. The batch shares strings through the settings' StringPool, so give them one (or keep the default settings' pool).
+	 */
+	public void setSettings(CorkboardImportSettings settings) {
+		this.settings = settings;
+	}
+	
+	public Executor getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * Sets the Executor the workers run on, such as a shared thread pool or <code>Executors.newVirtualThreadPerTaskExecutor()</code>. No more than
+	 * {@link #getParallelism()} tasks are given to it at once, however many threads it has. Leave this null (the default) to start a thread pool for each batch, shut down
+	 * once the batch is done.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * Sets how many files are imported at the same time. Defaults to the number of processors.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+	
+	public boolean isStreaming() {
+		return streaming;
+	}
+	
+	/**
+	 * Sets whether files are imported with {@link CorkboardJSONImporter#readStreaming(Path, CorkboardImportSettings)} instead, which keeps less of each file in memory at once.
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+	
+	/*
+	 * 
+	 * Importing
+	 * 
+	 */
+	
+	/**
+	 * Imports every file, waiting until they're all done.
+	 * 
+	 * @return a result for each file, in the same order as <code>paths</code>
+	 */
+	public List<Result> importAll(Collection<Path> paths) throws InterruptedException {
+		return importAll(paths, null);
+	}
+	
+	/**
+	 * Imports every file, waiting until they're all done. <code>listener</code> is given each result as soon as its file is done, on the worker that imported it, so it has to
+	 * be thread-safe; boards can be put to use from there without waiting for the rest of the batch.
+	 * 
+	 * @param listener - told about each result as it completes; can be null
+	 * @return a result for each file, in the same order as <code>paths</code>
+	 */
+	public List<Result> importAll(Collection<Path> paths, Consumer<Result> listener) throws InterruptedException {
+		Path[] files = paths.toArray(new Path[0]);
+		Result[] results = new Result[files.length];
+		
+		if (files.length == 0) {
+			return new ArrayList<>();
+		}
+		
+		int workers = Math.min(parallelism, files.length);
+		
+		Executor executor = this.executor;
+		ExecutorService ownExecutor = null;
+		
+		if (executor == null) {
+			ownExecutor = Executors.newFixedThreadPool(workers, runnable -> {
+				Thread thread = new Thread(runnable, "Corkboard Batch Importer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			
+			executor = ownExecutor;
+		}
+		
+		//Each worker takes the next file that nobody has started on, until there are none left
+		AtomicInteger next = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(workers);
+		
+		try {
+			for (int w = 0; w < workers; w++) {
+				executor.execute(() -> {
+					try {
+						int i;
+						
+						while ((i = next.getAndIncrement()) < files.length) {
+							results[i] = importFile(files[i]);
+							
+							if (listener != null) {
+								notify(listener, results[i]);
+							}
+						}
+					} finally {
+						done.countDown();
+					}
+				});
+			}
+			
+			done.await();
+		} finally {
+			if (ownExecutor != null) {
+				ownExecutor.shutdown();
+			}
+		}
+		
+		return new ArrayList<>(Arrays.asList(results));
+	}
+	
+	/**
+	 * Keeps a listener that throws from stopping the worker, which would leave the rest of its files unimported.
+	 */
+	private static void notify(Consumer<Result> listener, Result result) {
+		try {
+			listener.accept(result);
+		} catch (Throwable e) {
+			System.err.println("Corkboard Import Warning: Batch listener failed on " + result.getPath() + ": " + e);
+		}
+	}
+	
+	private Result importFile(Path path) {
+		long start = System.nanoTime();
+		
+		try {
+			CorkboardProject project = (streaming ? CorkboardJSONImporter.readStreaming(path, settings) : CorkboardJSONImporter.read(path, settings));
+			return new Result(path, project, null, System.nanoTime() - start);
+		} catch (Throwable e) {
+			//Errors too (such as running out of memory on one huge board), so that every file still gets a result and the worker carries on
+			return new Result(path, null, e, System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * The outcome of importing one file in a batch: either a project, or the exception (or error) that stopped it from being imported.
+	 */
+	public static class Result {
+		
+		private final Path path;
+		private final CorkboardProject project;
+		private final Throwable error;
+		private final long time;
+		
+		Result(Path path, CorkboardProject project, Throwable error, long time) {
+			this.path = path;
+			this.project = project;
+			this.error = error;
+			this.time = time;
+		}
+		
+		public Path getPath() {
+			return path;
+		}
+		
+		/**
+		 * @return the imported project, or null if the import failed.
+		 */
+		public CorkboardProject getProject() {
+			return project;
+		}
+		
+		/**
+		 * @return what stopped the file from being imported (such as an <code>IOException</code>, a <code>JsonException</code>, or an <code>OutOfMemoryError</code>), or null
+		 * if it was imported.
+		 */
+		public Throwable getError() {
+			return error;
+		}
+		
+		public boolean isSuccessful() {
+			return error == null;
+		}
+		
+		/**
+		 * @return how long the file took to import, in nanoseconds.
+		 */
+		public long getTime() {
+			return time;
+		}
+		
+		@Override
+		public String toString() {
+			return "Corkboard Batch Result: [" + path + "] " + (error == null ? "Imported" : "Failed: " + error) + " in " + String.format("%.2fms", time / 1_000_000.0);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,138 @@
+package com.nokoriware.corkboard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lists what changed when a CorkboardProject was patched to match a newer export (see {@link CorkboardProject#patch(CorkboardProject)}).
+ * <br><br>
+ * Added elements are new objects, and removed elements are no longer part of the project. Updated elements are the same objects as before, changed in place, so any references to
+ * them are still good. An element that had to be rebuilt (a Node whose type changed, or a Connection whose source or target changed) is listed as both removed and added.
+ */
+public class CorkboardChangeSet {
+	
+	private final ArrayList<Node> addedNodes = new ArrayList<>();
+	private final ArrayList<Node> removedNodes = new ArrayList<>();
+	private final ArrayList<Node> updatedNodes = new ArrayList<>();
+	
+	private final ArrayList<Connection> addedConnections = new ArrayList<>();
+	private final ArrayList<Connection> removedConnections = new ArrayList<>();
+	private final ArrayList<Connection> updatedConnections = new ArrayList<>();
+	
+	private boolean viewportChanged;
+	private boolean startingNodeChanged;
+	
+	CorkboardChangeSet() {}
+	
+	/*
+	 * 
+	 * Nodes
+	 * 
+	 */
+	
+	public List<Node> getAddedNodes() {
+		return Collections.unmodifiableList(addedNodes);
+	}
+	
+	public List<Node> getRemovedNodes() {
+		return Collections.unmodifiableList(removedNodes);
+	}
+	
+	/**
+	 * @return the Nodes whose label, geometry, body, attributes, components, or jumper target changed.
+	 */
+	public List<Node> getUpdatedNodes() {
+		return Collections.unmodifiableList(updatedNodes);
+	}
+	
+	/*
+	 * 
+	 * Connections
+	 * 
+	 */
+	
+	public List<Connection> getAddedConnections() {
+		return Collections.unmodifiableList(addedConnections);
+	}
+	
+	public List<Connection> getRemovedConnections() {
+		return Collections.unmodifiableList(removedConnections);
+	}
+	
+	/**
+	 * @return the Connections whose label changed.
+	 */
+	public List<Connection> getUpdatedConnections() {
+		return Collections.unmodifiableList(updatedConnections);
+	}
+	
+	/*
+	 * 
+	 * Project
+	 * 
+	 */
+	
+	public boolean isViewportChanged() {
+		return viewportChanged;
+	}
+	
+	public boolean isStartingNodeChanged() {
+		return startingNodeChanged;
+	}
+	
+	/**
+	 * @return true if the patch didn't change anything.
+	 */
+	public boolean isEmpty() {
+		return addedNodes.isEmpty() && removedNodes.isEmpty() && updatedNodes.isEmpty()
+				&& addedConnections.isEmpty() && removedConnections.isEmpty() && updatedConnections.isEmpty()
+				&& !viewportChanged && !startingNodeChanged;
+	}
+	
+	@Override
+	public String toString() {
+		return "Corkboard Change Set: [Nodes: " + addedNodes.size() + " added, " + removedNodes.size() + " removed, " + updatedNodes.size() + " updated] [Connections: "
+				+ addedConnections.size() + " added, " + removedConnections.size() + " removed, " + updatedConnections.size() + " updated] [Viewport Changed = " + viewportChanged
+				+ ", Starting Node Changed = " + startingNodeChanged + "]";
+	}
+	
+	/*
+	 * 
+	 * Recording (used by ProjectPatcher)
+	 * 
+	 */
+	
+	void added(Node node) {
+		addedNodes.add(node);
+	}
+	
+	void removed(Node node) {
+		removedNodes.add(node);
+	}
+	
+	void updated(Node node) {
+		updatedNodes.add(node);
+	}
+	
+	void added(Connection connection) {
+		addedConnections.add(connection);
+	}
+	
+	void removed(Connection connection) {
+		removedConnections.add(connection);
+	}
+	
+	void updated(Connection connection) {
+		updatedConnections.add(connection);
+	}
+	
+	void setViewportChanged(boolean viewportChanged) {
+		this.viewportChanged = viewportChanged;
+	}
+	
+	void setStartingNodeChanged(boolean startingNodeChanged) {
+		this.startingNodeChanged = startingNodeChanged;
+	}
+	
+}
@@ -0,0 +1,231 @@
+package com.nokoriware.corkboard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens Corkboard exports on disk for <code>CorkboardJSONImporter</code>. Files are read from a <code>FileChannel</code> in large chunks, and gzip or zstd
+ * compressed exports are recognized by their first bytes and decompressed on the fly, whatever the file is called.
+ * <br><br>
+ * zstd support needs zstd-jni (<code>com.github.luben:zstd-jni</code>) on the classpath. It's looked up when a zstd file is opened, so it isn't needed otherwise.
+ */
+class CorkboardFileInput {
+	
+	//Large enough to keep the number of reads down. The buffer is on the heap, and the JDK copies through a direct buffer of the same size that it keeps for each thread,
+	//so this is also how much direct memory each importing thread holds on to; a direct buffer for each import could run out when hundreds of boards are read at once.
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	private static final int GZIP_BUFFER_SIZE = 1 << 16;
+	
+	private static final byte[] GZIP_MAGIC = { (byte) 0x1F, (byte) 0x8B };
+	private static final byte[] ZSTD_MAGIC = { (byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD };
+	
+	private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+	
+	private static final String[] COMPRESSED_EXTENSIONS = { ".gz", ".gzip", ".zst", ".zstd" };
+	
+	/**
+	 * @return the uncompressed JSON in the file, with any UTF-8 byte order mark skipped. Closing it closes the file.
+	 */
+	static InputStream open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		
+		try {
+			byte[] magic = readMagic(channel);
+			InputStream inputStream = new ChannelInputStream(channel);
+			
+			if (startsWith(magic, GZIP_MAGIC)) {
+				inputStream = new GZIPInputStream(inputStream, GZIP_BUFFER_SIZE);
+			} else if (startsWith(magic, ZSTD_MAGIC)) {
+				inputStream = openZstd(inputStream);
+			}
+			
+			return skipBOM(inputStream);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * @return true if the file is gzip or zstd compressed. The channel's position isn't moved.
+	 */
+	static boolean isCompressed(FileChannel channel) throws IOException {
+		byte[] magic = readMagic(channel);
+		return startsWith(magic, GZIP_MAGIC) || startsWith(magic, ZSTD_MAGIC);
+	}
+	
+	/**
+	 * @return the file's name without its extension (or extensions, for compressed exports like <code>board.json.gz</code>).
+	 */
+	static String getProjectName(String fileName) {
+		String lowerCase = fileName.toLowerCase();
+		
+		for (String extension : COMPRESSED_EXTENSIONS) {
+			if (lowerCase.endsWith(extension)) {
+				fileName = fileName.substring(0, fileName.length() - extension.length());
+				break;
+			}
+		}
+		
+		int dot = fileName.lastIndexOf('.');
+		return (dot > 0 ? fileName.substring(0, dot) : fileName);
+	}
+	
+	/*
+	 * 
+	 * Utilities
+	 * 
+	 */
+	
+	private static byte[] readMagic(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(ZSTD_MAGIC.length);
+		
+		//Read without moving the channel's position, so the stream still starts at the beginning
+		while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0);
+		
+		byte[] magic = new byte[buffer.position()];
+		buffer.flip();
+		buffer.get(magic);
+		
+		return magic;
+	}
+	
+	private static boolean startsWith(byte[] bytes, byte[] prefix) {
+		if (bytes.length < prefix.length) {
+			return false;
+		}
+		
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes[i] != prefix[i]) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static InputStream openZstd(InputStream inputStream) throws IOException {
+		try {
+			Class<?> zstdInputStream = Class.forName("com.github.luben.zstd.ZstdInputStream");
+			return (InputStream) zstdInputStream.getConstructor(InputStream.class).newInstance(inputStream);
+		} catch (ClassNotFoundException e) {
+			throw new IOException("This board is zstd compressed, but zstd-jni (com.github.luben:zstd-jni) isn't on the classpath.", e);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			
+			throw new IOException(e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IOException(e);
+		}
+	}
+	
+	private static InputStream skipBOM(InputStream inputStream) throws IOException {
+		PushbackInputStream pushback = new PushbackInputStream(inputStream, UTF8_BOM.length);
+		
+		byte[] start = new byte[UTF8_BOM.length];
+		int length = 0;
+		int count;
+		
+		while (length < start.length && (count = pushback.read(start, length, start.length - length)) > 0) {
+			length += count;
+		}
+		
+		if (length < start.length || !startsWith(start, UTF8_BOM)) {
+			pushback.unread(start, 0, length);
+		}
+		
+		return pushback;
+	}
+	
+	/**
+	 * Reads a FileChannel through one buffer.
+	 */
+	private static class ChannelInputStream extends InputStream {
+		
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+		
+		private boolean end;
+		
+		public ChannelInputStream(FileChannel channel) throws IOException {
+			this.channel = channel;
+			
+			//Small files don't need the whole buffer
+			int size = (int) Math.max(1, Math.min(BUFFER_SIZE, channel.size()));
+			
+			buffer = ByteBuffer.allocate(size);
+			buffer.flip();
+		}
+		
+		@Override
+		public int read() throws IOException {
+			if (!fill()) {
+				return -1;
+			}
+			
+			return buffer.get() & 0xFF;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			
+			if (!fill()) {
+				return -1;
+			}
+			
+			int count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			
+			return count;
+		}
+		
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+		
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+		
+		/**
+		 * @return false once the whole file has been read.
+		 */
+		private boolean fill() throws IOException {
+			if (buffer.hasRemaining()) {
+				return true;
+			}
+			
+			if (end) {
+				return false;
+			}
+			
+			buffer.clear();
+			int count = channel.read(buffer);
+			buffer.flip();
+			
+			if (count <= 0) {
+				end = true;
+				return false;
+			}
+			
+			return true;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,82 @@
+package com.nokoriware.corkboard;
+
+/**
+ * Told what <code>CorkboardJSONImporter</code> is doing during an import: how long each phase takes, which IDs couldn't be resolved, and a summary once it's done (see
+ * {@link CorkboardImportStats}). Set one with {@link CorkboardImportSettings#setListener(CorkboardImportListener)}; it's used for every import made with those settings.
+ * <br><br>
+ * Every method does nothing by default, so only the ones needed have to be implemented. The methods are called on the importing thread, so a listener shared between imports
+ * running at the same time has to be thread-safe. See {@link CorkboardJFRListener} for a listener that records imports with Java Flight Recorder.
+ */
+public interface CorkboardImportListener {
+	
+	/**
+	 * A listener that ignores everything, used when none is set.
+	 */
+	public static final CorkboardImportListener NONE = new CorkboardImportListener() {};
+	
+	/**
+	 * The steps of an import, in the order they run.
+	 */
+	public enum Phase {
+		
+		/**
+		 * Reading the JSON. For streaming imports, this includes building the Nodes, since they're built as they're read.
+		 */
+		READ_JSON,
+		
+		/**
+		 * Building Nodes from the JSON tree (including parsing their bodies, if the settings ask for that). Not used by streaming imports.
+		 */
+		BUILD_NODES,
+		
+		/**
+		 * Parsing every body ahead of time, for streaming imports whose settings ask for it.
+		 */
+		PARSE_BODIES,
+		
+		/**
+		 * Creating Connections and looking up their source and target Nodes.
+		 */
+		RESOLVE_EDGES,
+		
+		/**
+		 * Adding the Nodes to the project, and connecting components, jumpers, and the starting Node.
+		 */
+		LINK;
+	}
+	
+	/**
+	 * The kinds of reference between elements that can fail to resolve.
+	 */
+	public enum Reference {
+		EDGE_SOURCE,
+		EDGE_TARGET,
+		COMPONENT,
+		
+		/**
+		 * Jumpers are resolved by label rather than by ID, so the missing "ID" is the jumper's label.
+		 */
+		JUMPER_TARGET;
+	}
+	
+	public default void phaseStarted(CorkboardImportStats stats, Phase phase) {}
+	
+	/**
+	 * @param nanos - how long the phase took, in nanoseconds of wall time
+	 */
+	public default void phaseFinished(CorkboardImportStats stats, Phase phase, long nanos) {}
+	
+	/**
+	 * Called when one element refers to another that isn't in the board.
+	 * 
+	 * @param elementID - the ID of the Connection or Node making the reference
+	 * @param missingID - the ID (or for jumpers, the label) that couldn't be found
+	 */
+	public default void unresolved(CorkboardImportStats stats, Reference reference, String elementID, String missingID) {}
+	
+	/**
+	 * Called once the project is complete, with the final numbers.
+	 */
+	public default void importFinished(CorkboardImportStats stats) {}
+	
+}
@@ -0,0 +1,103 @@
+package com.nokoriware.corkboard;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.nokoriware.corkboard.util.StringPool;
+
+/**
+ * Optional settings for <code>CorkboardJSONImporter</code>. A default <code>CorkboardImportSettings</code> imports the same way the plain <code>read()</code> functions do.
+ */
+public class CorkboardImportSettings {
+	
+	private ForkJoinPool pool;
+	private int parallelThreshold = 256;
+	
+	private boolean parseBodies;
+	
+	private StringPool stringPool;
+	
+	private CorkboardImportListener listener = CorkboardImportListener.NONE;
+	
+	/*
+	 * 
+	 * Parallel import
+	 * 
+	 */
+	
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+	
+	/**
+	 * Sets the pool used to build Nodes in parallel. Node entries don't depend on each other, so they're split across the pool's workers, then put back in file order before
+	 * they're linked. Leave this null (the default) to build Nodes on the calling thread.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+	
+	/**
+	 * Sets how many Node entries a single worker builds before the rest are split off to other workers. Boards with fewer entries than this are built on the calling thread.
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = Math.max(1, parallelThreshold);
+	}
+	
+	/*
+	 * 
+	 * Bodies
+	 * 
+	 */
+	
+	public boolean isParseBodies() {
+		return parseBodies;
+	}
+	
+	/**
+	 * Node bodies are normally parsed by JSoup the first time they're used. Setting this to true parses every body during the import instead (in parallel, if a pool is set),
+	 * which moves the cost to loading time for programs that will end up displaying most of the board anyway.
+	 */
+	public void setParseBodies(boolean parseBodies) {
+		this.parseBodies = parseBodies;
+	}
+	
+	/*
+	 * 
+	 * Strings
+	 * 
+	 */
+	
+	public StringPool getStringPool() {
+		return stringPool;
+	}
+	
+	/**
+	 * Sets a pool that every ID, label, and attribute read is interned through, so equal strings are only stored once. Share one pool between the imports of related boards
+	 * (such as every board in a game) to share their strings as well. Leave this null (the default) to keep every string as read.
+	 */
+	public void setStringPool(StringPool stringPool) {
+		this.stringPool = stringPool;
+	}
+	
+	/*
+	 * 
+	 * Instrumentation
+	 * 
+	 */
+	
+	public CorkboardImportListener getListener() {
+		return listener;
+	}
+	
+	/**
+	 * Sets the listener told about each import's phase timings, unresolved IDs, and final numbers. Setting null goes back to the default, {@link CorkboardImportListener#NONE}.
+	 */
+	public void setListener(CorkboardImportListener listener) {
+		this.listener = (listener != null ? listener : CorkboardImportListener.NONE);
+	}
+	
+}
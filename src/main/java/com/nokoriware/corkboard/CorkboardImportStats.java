@@ -0,0 +1,173 @@
+package com.nokoriware.corkboard;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.nokoriware.corkboard.CorkboardImportListener.Phase;
+
+/**
+ * The numbers measured during one import: how long each phase took, how much was read, and how much was built. Handed to every {@link CorkboardImportListener} call, and filled
+ * in as the import goes, so it's only complete once {@link CorkboardImportListener#importFinished(CorkboardImportStats)} is called.
+ */
+public class CorkboardImportStats {
+	
+	private final String projectName;
+	private final boolean streaming;
+	
+	private final long[] phaseTimes = new long[Phase.values().length];
+	private long totalTime;
+	
+	private long bytesRead;
+	
+	private int nodeCount;
+	private int edgeCount;
+	private int componentCount;
+	private int unresolvedCount;
+	
+	//Bodies can be parsed by several workers at once
+	private final LongAdder bodiesParsed = new LongAdder();
+	private final LongAdder bodyParseTime = new LongAdder();
+	
+	CorkboardImportStats(String projectName, boolean streaming) {
+		this.projectName = projectName;
+		this.streaming = streaming;
+	}
+	
+	public String getProjectName() {
+		return projectName;
+	}
+	
+	/**
+	 * @return true if the import was made with <code>readStreaming()</code>.
+	 */
+	public boolean isStreaming() {
+		return streaming;
+	}
+	
+	/*
+	 * 
+	 * Timings
+	 * 
+	 */
+	
+	/**
+	 * @return how long the phase took in nanoseconds, or 0 if it didn't run.
+	 */
+	public long getPhaseTime(Phase phase) {
+		return phaseTimes[phase.ordinal()];
+	}
+	
+	/**
+	 * @return how long the whole import took in nanoseconds.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+	
+	/**
+	 * @return the total time spent parsing bodies with JSoup in nanoseconds, added up across every worker. Bodies are only parsed during the import if the settings ask for it.
+	 */
+	public long getBodyParseTime() {
+		return bodyParseTime.sum();
+	}
+	
+	/*
+	 * 
+	 * Counts
+	 * 
+	 */
+	
+	/**
+	 * @return how many bytes were read from the input stream.
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+	
+	public int getNodeCount() {
+		return nodeCount;
+	}
+	
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+	
+	/**
+	 * @return how many component links were made between Nodes.
+	 */
+	public int getComponentCount() {
+		return componentCount;
+	}
+	
+	/**
+	 * @return how many references couldn't be resolved. See {@link CorkboardImportListener#unresolved(CorkboardImportStats, CorkboardImportListener.Reference, String, String)}.
+	 */
+	public int getUnresolvedCount() {
+		return unresolvedCount;
+	}
+	
+	public long getBodiesParsed() {
+		return bodiesParsed.sum();
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("Corkboard Import Stats: [" + projectName + "] [" + nodeCount + " nodes, " + edgeCount + " edges, " + componentCount
+				+ " components, " + unresolvedCount + " unresolved, " + bytesRead + " bytes] [Total: " + millis(totalTime));
+		
+		for (Phase phase : Phase.values()) {
+			if (phaseTimes[phase.ordinal()] != 0) {
+				builder.append(", " + phase + ": " + millis(phaseTimes[phase.ordinal()]));
+			}
+		}
+		
+		if (getBodiesParsed() > 0) {
+			builder.append(", Bodies: " + millis(getBodyParseTime()));
+		}
+		
+		return builder.append("]").toString();
+	}
+	
+	private static String millis(long nanos) {
+		return String.format("%.2fms", nanos / 1_000_000.0);
+	}
+	
+	/*
+	 * 
+	 * Recording (used by CorkboardJSONImporter)
+	 * 
+	 */
+	
+	void setPhaseTime(Phase phase, long nanos) {
+		phaseTimes[phase.ordinal()] = nanos;
+	}
+	
+	void setTotalTime(long totalTime) {
+		this.totalTime = totalTime;
+	}
+	
+	void addBytesRead(long bytes) {
+		bytesRead += bytes;
+	}
+	
+	void setNodeCount(int nodeCount) {
+		this.nodeCount = nodeCount;
+	}
+	
+	void setEdgeCount(int edgeCount) {
+		this.edgeCount = edgeCount;
+	}
+	
+	void addComponent() {
+		componentCount++;
+	}
+	
+	void addUnresolved() {
+		unresolvedCount++;
+	}
+	
+	void bodyParsed(long nanos) {
+		bodiesParsed.increment();
+		bodyParseTime.add(nanos);
+	}
+	
+}
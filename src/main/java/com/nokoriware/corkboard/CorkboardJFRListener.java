@@ -0,0 +1,164 @@
+package com.nokoriware.corkboard;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Records imports as Java Flight Recorder events, so they show up alongside everything else in a recording (<code>-XX:StartFlightRecording</code>, JDK Mission Control, or
+ * <code>jfr print --events com.nokoriware.corkboard.*</code>).
+ * <br><br>
+ * Each import gets one <code>com.nokoriware.corkboard.Import</code> event covering the whole import with its final numbers, one <code>ImportPhase</code> event per phase, and
+ * one <code>UnresolvedReference</code> event per reference that couldn't be resolved. The events cost next to nothing while no recording is running.
+ * <br><br>
+ * Example:
+ * <pre>
+ * CorkboardImportSettings settings = new CorkboardImportSettings();
+ * settings.setListener(new CorkboardJFRListener());
+ * </pre>
+ */
+public class CorkboardJFRListener implements CorkboardImportListener {
+	
+	//Phases run one after another on the importing thread, so each thread only has one of each in progress
+	private final ThreadLocal<ImportEvent> importEvents = new ThreadLocal<>();
+	private final ThreadLocal<PhaseEvent> phaseEvents = new ThreadLocal<>();
+	
+	@Override
+	public void phaseStarted(CorkboardImportStats stats, Phase phase) {
+		if (phase == Phase.READ_JSON) {
+			ImportEvent importEvent = new ImportEvent();
+			importEvent.begin();
+			
+			importEvents.set(importEvent);
+		}
+		
+		PhaseEvent phaseEvent = new PhaseEvent();
+		phaseEvent.projectName = stats.getProjectName();
+		phaseEvent.phase = phase.toString();
+		phaseEvent.begin();
+		
+		phaseEvents.set(phaseEvent);
+	}
+	
+	@Override
+	public void phaseFinished(CorkboardImportStats stats, Phase phase, long nanos) {
+		PhaseEvent phaseEvent = phaseEvents.get();
+		phaseEvents.remove();
+		
+		if (phaseEvent != null) {
+			phaseEvent.commit();
+		}
+	}
+	
+	@Override
+	public void unresolved(CorkboardImportStats stats, Reference reference, String elementID, String missingID) {
+		UnresolvedEvent event = new UnresolvedEvent();
+		
+		if (event.isEnabled()) {
+			event.projectName = stats.getProjectName();
+			event.reference = reference.toString();
+			event.elementID = elementID;
+			event.missingID = missingID;
+			event.commit();
+		}
+	}
+	
+	@Override
+	public void importFinished(CorkboardImportStats stats) {
+		ImportEvent event = importEvents.get();
+		importEvents.remove();
+		
+		if (event == null) {
+			event = new ImportEvent();
+		}
+		
+		event.projectName = stats.getProjectName();
+		event.streaming = stats.isStreaming();
+		event.bytesRead = stats.getBytesRead();
+		event.nodeCount = stats.getNodeCount();
+		event.edgeCount = stats.getEdgeCount();
+		event.componentCount = stats.getComponentCount();
+		event.unresolvedCount = stats.getUnresolvedCount();
+		event.bodiesParsed = stats.getBodiesParsed();
+		event.bodyParseTime = stats.getBodyParseTime();
+		event.commit();
+	}
+	
+	/*
+	 * 
+	 * Events
+	 * 
+	 */
+	
+	@Name("com.nokoriware.corkboard.Import")
+	@Label("Corkboard Import")
+	@Category("Corkboard")
+	static class ImportEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("Streaming")
+		boolean streaming;
+		
+		@Label("Bytes Read")
+		@DataAmount
+		long bytesRead;
+		
+		@Label("Nodes")
+		int nodeCount;
+		
+		@Label("Edges")
+		int edgeCount;
+		
+		@Label("Components")
+		int componentCount;
+		
+		@Label("Unresolved References")
+		int unresolvedCount;
+		
+		@Label("Bodies Parsed")
+		long bodiesParsed;
+		
+		@Label("Body Parse Time")
+		@Timespan
+		long bodyParseTime;
+		
+	}
+	
+	@Name("com.nokoriware.corkboard.ImportPhase")
+	@Label("Corkboard Import Phase")
+	@Category("Corkboard")
+	static class PhaseEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("Phase")
+		String phase;
+		
+	}
+	
+	@Name("com.nokoriware.corkboard.UnresolvedReference")
+	@Label("Corkboard Unresolved Reference")
+	@Category("Corkboard")
+	static class UnresolvedEvent extends Event {
+		
+		@Label("Project")
+		String projectName;
+		
+		@Label("Reference")
+		String reference;
+		
+		@Label("Element ID")
+		String elementID;
+		
+		@Label("Missing ID")
+		String missingID;
+		
+	}
+	
+}
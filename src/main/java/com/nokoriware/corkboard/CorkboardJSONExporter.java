@@ -0,0 +1,260 @@
+package com.nokoriware.corkboard;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+
+/**
+ * Writes CorkboardProjects back out in Corkboard's JSON format, so boards built or edited in code can be opened in Corkboard or read again with
+ * <code>CorkboardJSONImporter</code>.
+ * <br><br>
+ * Projects are streamed through a <code>JsonGenerator</code> one value at a time, so no JSON tree is built in memory however large the board is. Every field the importer
+ * reads is written: the viewport, and each Node's type, position, size, label, body, attributes, components, and whether it's the starting node, followed by the edges.
+ * <br><br>
+ * Example:
+ * <pre>
+ * Node node = project.getNodeByID("node-1");
+ * node.setBody(new Content("&lt;p&gt;Hello again.&lt;/p&gt;"));
+ * 
+ * CorkboardJSONExporter.write(project, Paths.get("board.json"));
+ * </pre>
+ */
+public class CorkboardJSONExporter {
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	//Looking up the JSON provider is slow, so it's only done once
+	private static final JsonGeneratorFactory GENERATOR_FACTORY = Json.createGeneratorFactory(null);
+	
+	/**
+	 * A utility function that allows you to simply pass in a <code>File</code> to write the project to. See {@link #write(CorkboardProject, Path)}.
+	 */
+	public static void write(CorkboardProject project, File f) throws IOException {
+		write(project, f.toPath());
+	}
+	
+	/**
+	 * Writes the project to the given file, replacing anything already in it. Files ending in <code>.gz</code> or <code>.gzip</code> are gzip compressed, which
+	 * <code>CorkboardJSONImporter</code> reads back transparently.
+	 * 
+	 * @throws IOException - if the file can't be written
+	 */
+	public static void write(CorkboardProject project, Path path) throws IOException {
+		String fileName = path.getFileName().toString().toLowerCase();
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			OutputStream outputStream = Channels.newOutputStream(channel);
+			
+			if (fileName.endsWith(".gz") || fileName.endsWith(".gzip")) {
+				GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+				write(project, gzipOutputStream);
+				gzipOutputStream.finish();
+			} else {
+				write(project, outputStream);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the project to the given channel as UTF-8 JSON. The channel is left open.
+	 */
+	public static void write(CorkboardProject project, WritableByteChannel channel) throws IOException {
+		write(project, Channels.newOutputStream(channel));
+	}
+	
+	/**
+	 * Writes the project to the given output stream as UTF-8 JSON. The output is buffered, and flushed once the project has been written; the stream itself is left open.
+	 */
+	public static void write(CorkboardProject project, OutputStream outputStream) throws IOException {
+		BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new UnclosableOutputStream(outputStream), BUFFER_SIZE);
+		
+		try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(bufferedOutputStream)) {
+			write(project, generator);
+		}
+		
+		//The generator reports write failures as unchecked JsonExceptions, so make sure anything left is written (and fails) here instead
+		bufferedOutputStream.flush();
+	}
+	
+	/**
+	 * Writes the project as a JSON object to a generator that's already been set up, such as one with pretty printing turned on, or one writing the project into a larger
+	 * document. The generator is neither flushed nor closed.
+	 */
+	public static void write(CorkboardProject project, JsonGenerator generator) {
+		generator.writeStartObject();
+		
+		/*
+		 * Nodes
+		 */
+		
+		generator.writeStartArray("nodes");
+		
+		Node startingNode = project.getStartingNode();
+		
+		for (Node node : project.getNodes()) {
+			writeNode(generator, node, node == startingNode);
+		}
+		
+		generator.writeEnd();
+		
+		/*
+		 * Edges
+		 */
+		
+		generator.writeStartArray("edges");
+		
+		for (Connection connection : project.getConnections()) {
+			writeEdge(generator, connection);
+		}
+		
+		generator.writeEnd();
+		
+		/*
+		 * Viewport
+		 */
+		
+		generator.writeStartObject("viewport");
+		writeNumber(generator, "x", project.getViewportX());
+		writeNumber(generator, "y", project.getViewportY());
+		writeNumber(generator, "zoom", project.getViewportZoom());
+		generator.writeEnd();
+		
+		generator.writeEnd();
+	}
+	
+	private static void writeNode(JsonGenerator generator, Node node, boolean isStartingNode) {
+		generator.writeStartObject();
+		
+		writeString(generator, "id", node.getID());
+		
+		//Types the importer didn't recognize were read as null, and an empty name reads back the same way
+		writeString(generator, "type", (node.getType() != null ? node.getType().getName() : null));
+		
+		generator.writeStartObject("position");
+		writeNumber(generator, "x", node.getX());
+		writeNumber(generator, "y", node.getY());
+		generator.writeEnd();
+		
+		generator.writeStartObject("style");
+		generator.write("width", formatNumber(node.getWidth()) + "px");
+		generator.write("height", formatNumber(node.getHeight()) + "px");
+		generator.writeEnd();
+		
+		/*
+		 * Data
+		 */
+		
+		generator.writeStartObject("data");
+		
+		writeString(generator, "label", node.getLabel());
+		
+		if (node.hasBody()) {
+			//getHTML() is written from the document once it's been handed out, so edits made through getDocument() are kept
+			writeString(generator, "body", node.getBody().getHTML());
+		}
+		
+		if (node.hasAttributes()) {
+			generator.writeStartArray("attributes");
+			
+			for (String attribute : node.getAttributes()) {
+				generator.write(attribute != null ? attribute : "");
+			}
+			
+			generator.writeEnd();
+		}
+		
+		if (node.hasComponents()) {
+			generator.writeStartArray("components");
+			
+			for (Node component : node.getComponents()) {
+				generator.write(component.getID() != null ? component.getID() : "");
+			}
+			
+			generator.writeEnd();
+		}
+		
+		if (isStartingNode) {
+			generator.write("isStartingNode", true);
+		}
+		
+		generator.writeEnd();
+		
+		generator.writeEnd();
+	}
+	
+	private static void writeEdge(JsonGenerator generator, Connection connection) {
+		generator.writeStartObject();
+		
+		writeString(generator, "id", connection.getID());
+		
+		//Connections whose Nodes couldn't be found on import have null ends, which are written as empty IDs that (still) can't be found
+		writeString(generator, "source", (connection.getSource() != null ? connection.getSource().getID() : null));
+		writeString(generator, "target", (connection.getTarget() != null ? connection.getTarget().getID() : null));
+		writeString(generator, "label", connection.getLabel());
+		
+		generator.writeEnd();
+	}
+	
+	/*
+	 * 
+	 * Utilities
+	 * 
+	 */
+	
+	private static void writeString(JsonGenerator generator, String name, String value) {
+		generator.write(name, (value != null ? value : ""));
+	}
+	
+	/**
+	 * Writes whole numbers without a decimal point, the way Corkboard does.
+	 */
+	private static void writeNumber(JsonGenerator generator, String name, double value) {
+		if (isWhole(value)) {
+			generator.write(name, (long) value);
+		} else {
+			generator.write(name, value);
+		}
+	}
+	
+	private static String formatNumber(double value) {
+		return (isWhole(value) ? Long.toString((long) value) : Double.toString(value));
+	}
+	
+	private static boolean isWhole(double value) {
+		return value == Math.rint(value) && Math.abs(value) < 1e15;
+	}
+	
+	/**
+	 * Stops the generator from closing the caller's stream when it's closed.
+	 */
+	private static class UnclosableOutputStream extends FilterOutputStream {
+		
+		public UnclosableOutputStream(OutputStream outputStream) {
+			super(outputStream);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+		
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+		
+	}
+	
+}
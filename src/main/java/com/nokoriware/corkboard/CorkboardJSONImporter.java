@@ -1,29 +1,117 @@
 package com.nokoriware.corkboard;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
 import javax.json.JsonValue.ValueType;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParsingException;
 
-import com.nokoriware.corkboard.Element.ElementSearch;
+import com.nokoriware.corkboard.CorkboardImportListener.Phase;
+import com.nokoriware.corkboard.CorkboardImportListener.Reference;
+import com.nokoriware.corkboard.util.StringPool;
 
 public class CorkboardJSONImporter {
 	
 	/**
-	 * A utility function that allows you to simply pass in a <code>File</code> containing the location of the Corkboard Project you wish to parse.
+	 * A utility function that allows you to simply pass in a <code>File</code> containing the location of the Corkboard Project you wish to parse. Reads the file the same way as
+	 * {@link #read(Path)}; errors other than the file not being found or readable are thrown as an <code>UncheckedIOException</code>.
 	 * 
 	 * @throws Exception - any exceptions encountered during parsing will be reported.
 	 */
 	public static CorkboardProject read(File f) throws FileNotFoundException {
-		FileInputStream inputStream = new FileInputStream(f);
-		return read(f.getName().substring(0, f.getName().lastIndexOf(".")), inputStream);
+		try {
+			return read(f.toPath());
+		} catch (IOException e) {
+			throw asFileNotFound(f, e);
+		}
+	}
+	
+	/**
+	 * Reads the Corkboard Project in the given file, naming it after the file. The file is read through a <code>FileChannel</code>, decoded as UTF-8
+	 * (as JSON always is), and closed once it's been read. Exports compressed with gzip or zstd are decompressed transparently (zstd needs zstd-jni on the classpath).
+	 * 
+	 * @throws IOException - if the file can't be read
+	 */
+	public static CorkboardProject read(Path path) throws IOException {
+		return read(path, new CorkboardImportSettings());
+	}
+	
+	/**
+	 * Reads the given file the same way as {@link #read(Path)}, using the given settings.
+	 */
+	public static CorkboardProject read(Path path, CorkboardImportSettings settings) throws IOException {
+		try (InputStream inputStream = CorkboardFileInput.open(path)) {
+			return read(getProjectName(path), inputStream, StandardCharsets.UTF_8, settings);
+		}
+	}
+	
+	/**
+	 * Opens the Corkboard Project in the given file without reading its Nodes, which are read one at a time as they're used instead. See {@link LazyCorkboardProject}.
+	 * <br><br>
+	 * Only an index of where each Node and edge is in the file is read up front, with one scan over the file. The file can't be compressed, and has to stay open (and
+	 * unchanged) until the project is closed.
+	 * 
+	 * @throws IOException - if the file can't be read
+	 */
+	public static LazyCorkboardProject readLazy(Path path) throws IOException {
+		return readLazy(path, null, new CorkboardImportSettings());
+	}
+	
+	/**
+	 * Opens the given file the same way as {@link #readLazy(Path)}, but saves the index of the file to <code>indexPath</code> (such as <code>board.json.index</code>) the
+	 * first time, and reads it from there afterwards instead of scanning the file again. The saved index is replaced whenever the file has changed since it was saved.
+	 * 
+	 * @throws IOException - if the file can't be read, or the index can't be saved
+	 */
+	public static LazyCorkboardProject readLazy(Path path, Path indexPath) throws IOException {
+		return readLazy(path, indexPath, new CorkboardImportSettings());
+	}
+	
+	/**
+	 * Opens the given file the same way as {@link #readLazy(Path, Path)} (<code>indexPath</code> may be null to always scan the file), using the given settings. Nodes are
+	 * built as they're loaded rather than up front, so only the settings' listener applies: it's told about each component and jumper target that isn't on the board, every
+	 * time a Node referring to one is loaded.
+	 * 
+	 * @throws IOException - if the file can't be read, or the index can't be saved
+	 */
+	public static LazyCorkboardProject readLazy(Path path, Path indexPath, CorkboardImportSettings settings) throws IOException {
+		return LazyCorkboardProject.open(getProjectName(path), path, indexPath, settings);
+	}
+	
+	/**
+	 * Reads the given file again and patches <code>project</code> to match it, keeping every unchanged Node and Connection. See {@link CorkboardProject#patch(CorkboardProject)}.
+	 */
+	public static CorkboardChangeSet reload(CorkboardProject project, File f) throws FileNotFoundException {
+		return project.patch(read(f));
+	}
+	
+	/**
+	 * Reads the given input stream and patches <code>project</code> to match it, keeping every unchanged Node and Connection. See {@link CorkboardProject#patch(CorkboardProject)}.
+	 */
+	public static CorkboardChangeSet reload(CorkboardProject project, InputStream inputStream) {
+		return project.patch(read(project.getName(), inputStream));
 	}
 	
 	/**
@@ -32,13 +120,36 @@ public class CorkboardJSONImporter {
 	 * @throws Exception - any exceptions encountered during parsing will be reported.
 	 */
 	public static CorkboardProject read(String projectName, InputStream inputStream) {
+		return read(projectName, inputStream, new CorkboardImportSettings());
+	}
+	
+	/**
+	 * Read the given input stream containing the JSON data for the given Corkboard Project, using the given settings. See <code>CorkboardImportSettings</code> for the options available.
+	 * 
+	 * @throws Exception - any exceptions encountered during parsing will be reported.
+	 */
+	public static CorkboardProject read(String projectName, InputStream inputStream, CorkboardImportSettings settings) {
+		return read(projectName, inputStream, null, settings);
+	}
+	
+	/**
+	 * @param charset - the charset the JSON is encoded in, or null to let javax.json work it out
+	 */
+	private static CorkboardProject read(String projectName, InputStream inputStream, Charset charset, CorkboardImportSettings settings) {
+		
+		CorkboardImportStats stats = new CorkboardImportStats(projectName, false);
+		long start = System.nanoTime();
 
 		/*
 		 * Load JSON file and prepare it for reading
 		 */
 
-		JsonReader jsonReader = Json.createReader(inputStream);
+		long phase = startPhase(settings, stats, Phase.READ_JSON);
+		
+		JsonReader jsonReader = createReader(new CountingInputStream(inputStream, stats), charset);
 		JsonObject projectObject = jsonReader.readObject();
+		
+		finishPhase(settings, stats, Phase.READ_JSON, phase);
 
 		/*
 		 * Create new CorkboardProject
@@ -51,10 +162,177 @@ public class CorkboardJSONImporter {
 		 */
 
 		//Load nodes and put them in containers with component IDs
-		ArrayList<NodeContainer> nodeContainers = readNodes(projectObject);
+		phase = startPhase(settings, stats, Phase.BUILD_NODES);
+		
+		ArrayList<NodeContainer> nodeContainers = readNodes(projectObject, settings, stats);
+		NodeIndex nodeIndex = new NodeIndex(nodeContainers);
+		
+		finishPhase(settings, stats, Phase.BUILD_NODES, phase);
 		
 		//Load connections
-		project.getConnections().addAll(readEdges(projectObject, nodeContainers));
+		phase = startPhase(settings, stats, Phase.RESOLVE_EDGES);
+		project.getConnections().addAll(readEdges(projectObject, nodeIndex, settings, stats));
+		finishPhase(settings, stats, Phase.RESOLVE_EDGES, phase);
+		
+		//Connect components, jumpers, and the starting node, now that every node is loaded
+		phase = startPhase(settings, stats, Phase.LINK);
+		link(project, nodeContainers, nodeIndex, settings, stats);
+		finishPhase(settings, stats, Phase.LINK, phase);
+
+		/*
+		 * Return the completed CorkboardProject
+		 */
+
+		finishImport(project, settings, stats, start);
+		return project;
+	}
+	
+	/**
+	 * A utility function that allows you to simply pass in a <code>File</code> containing the location of the Corkboard Project you wish to parse with {@link #readStreaming(String, InputStream)}.
+	 * 
+	 * @throws Exception - any exceptions encountered during parsing will be reported.
+	 */
+	public static CorkboardProject readStreaming(File f) throws FileNotFoundException {
+		try {
+			return readStreaming(f.toPath());
+		} catch (IOException e) {
+			throw asFileNotFound(f, e);
+		}
+	}
+	
+	/**
+	 * Reads the given file the same way as {@link #read(Path)}, but with {@link #readStreaming(String, InputStream)}.
+	 * 
+	 * @throws IOException - if the file can't be read
+	 */
+	public static CorkboardProject readStreaming(Path path) throws IOException {
+		return readStreaming(path, new CorkboardImportSettings());
+	}
+	
+	/**
+	 * Reads the given file the same way as {@link #readStreaming(Path)}, using the given settings.
+	 */
+	public static CorkboardProject readStreaming(Path path, CorkboardImportSettings settings) throws IOException {
+		try (InputStream inputStream = CorkboardFileInput.open(path)) {
+			return readStreaming(getProjectName(path), inputStream, StandardCharsets.UTF_8, settings);
+		}
+	}
+	
+	/**
+	 * Reads the given input stream the same way as {@link #read(String, InputStream)}, but walks the JSON with a <code>JsonParser</code> instead of loading the whole tree into memory first.
+	 * <br><br>
+	 * Only one node or edge entry is held as JSON at a time; it's turned into a <code>Node</code> or a pending edge as soon as it has been read, so peak memory stays close to the size of the finished 
+	 * <code>CorkboardProject</code> rather than growing with the size of the JSON file. Edges are connected once every node is loaded, since the export doesn't guarantee that <code>nodes</code> comes first.
+	 * 
+	 * @throws Exception - any exceptions encountered during parsing will be reported.
+	 */
+	public static CorkboardProject readStreaming(String projectName, InputStream inputStream) {
+		return readStreaming(projectName, inputStream, new CorkboardImportSettings());
+	}
+	
+	/**
+	 * Reads the given input stream the same way as {@link #readStreaming(String, InputStream)}, using the given settings. Entries are read from the stream one at a time, so 
+	 * only the optional body parsing is spread across the settings' pool.
+	 * 
+	 * @throws Exception - any exceptions encountered during parsing will be reported.
+	 */
+	public static CorkboardProject readStreaming(String projectName, InputStream inputStream, CorkboardImportSettings settings) {
+		return readStreaming(projectName, inputStream, null, settings);
+	}
+	
+	/**
+	 * @param charset - the charset the JSON is encoded in, or null to let javax.json work it out
+	 */
+	private static CorkboardProject readStreaming(String projectName, InputStream inputStream, Charset charset, CorkboardImportSettings settings) {
+		
+		double viewportX = 0.0;
+		double viewportY = 0.0;
+		double viewportZoom = 0.0;
+		
+		ArrayList<NodeContainer> nodeContainers = new ArrayList<>();
+		ArrayList<EdgeContainer> edgeContainers = new ArrayList<>();
+		
+		CorkboardImportStats stats = new CorkboardImportStats(projectName, true);
+		long start = System.nanoTime();
+		
+		/*
+		 * Walk the top level of the project object, materializing entries as they're reached
+		 */
+		
+		long phase = startPhase(settings, stats, Phase.READ_JSON);
+		
+		try (JsonParser parser = createParser(new CountingInputStream(inputStream, stats), charset)) {
+			
+			if (!parser.hasNext() || parser.next() != Event.START_OBJECT) {
+				throw new JsonParsingException("Corkboard project must be a JSON object.", parser.getLocation());
+			}
+			
+			while (parser.next() == Event.KEY_NAME) {
+				String key = parser.getString();
+				Event event = parser.next();
+				
+				if (key.equals("viewport") && event == Event.START_OBJECT) {
+					
+					JsonObject viewport = parser.getObject();
+					
+					viewportX = viewport.getJsonNumber("x").doubleValue();
+					viewportY = viewport.getJsonNumber("y").doubleValue();
+					viewportZoom = viewport.getJsonNumber("zoom").doubleValue();
+					
+				} else if (key.equals("nodes") && event == Event.START_ARRAY) {
+					
+					while (parser.next() == Event.START_OBJECT) {
+						nodeContainers.add(readNode(parser.getObject(), settings.getStringPool()));
+					}
+					
+				} else if (key.equals("edges") && event == Event.START_ARRAY) {
+					
+					while (parser.next() == Event.START_OBJECT) {
+						edgeContainers.add(readEdge(parser.getObject(), settings.getStringPool()));
+					}
+					
+				} else {
+					skipValue(parser, event);
+				}
+			}
+		}
+		
+		finishPhase(settings, stats, Phase.READ_JSON, phase);
+		
+		if (settings.isParseBodies()) {
+			phase = startPhase(settings, stats, Phase.PARSE_BODIES);
+			forEachIndex(settings, nodeContainers.size(), i -> parseBody(nodeContainers.get(i), stats));
+			finishPhase(settings, stats, Phase.PARSE_BODIES, phase);
+		}
+		
+		/*
+		 * Create new CorkboardProject and connect everything now that every node is loaded
+		 */
+		
+		CorkboardProject project = new CorkboardProject(projectName, viewportX, viewportY, viewportZoom, new ArrayList<>(), new ArrayList<>());
+		
+		phase = startPhase(settings, stats, Phase.RESOLVE_EDGES);
+		
+		NodeIndex nodeIndex = new NodeIndex(nodeContainers);
+		
+		for (EdgeContainer edgeContainer : edgeContainers) {
+			project.getConnections().add(createConnection(edgeContainer, nodeIndex, settings, stats));
+		}
+		
+		finishPhase(settings, stats, Phase.RESOLVE_EDGES, phase);
+		
+		phase = startPhase(settings, stats, Phase.LINK);
+		link(project, nodeContainers, nodeIndex, settings, stats);
+		finishPhase(settings, stats, Phase.LINK, phase);
+		
+		finishImport(project, settings, stats, start);
+		return project;
+	}
+	
+	/**
+	 * Adds each loaded node to the project, then connects components, links jumper nodes, and sets the starting node.
+	 */
+	private static void link(CorkboardProject project, ArrayList<NodeContainer> nodeContainers, NodeIndex nodeIndex, CorkboardImportSettings settings, CorkboardImportStats stats) {
 		
 		//Iterate through node containers and connect nodes to components using IDs, now that every node is loaded
 		for (NodeContainer nodeContainer : nodeContainers) {
@@ -65,26 +343,25 @@ public class CorkboardJSONImporter {
 			
 			//Connect components
 			for (String componentID : nodeContainer.componentIDs) {
-				NodeContainer componentNodeContainer = ((NodeContainer) Element.getElement(ElementSearch.ID, nodeContainers, componentID));
+				Node component = nodeIndex.getNodeByID(componentID);
 				
-				if (componentNodeContainer != null) {
-					node.getComponents().add(componentNodeContainer.node);
+				if (component != null) {
+					node.getComponents().add(component);
+					stats.addComponent();
 				} else {
 					System.err.println("Corkboard Import Warning: Component Node with ID not found: " + componentID);
+					unresolved(settings, stats, Reference.COMPONENT, node.getID(), componentID);
 				}
 			}
 			
 			//Link jumper nodes if applicable
-			for (NodeContainer nodeContainer2 : nodeContainers) {
-				Node node2 = nodeContainer2.node;
-				
-				if (node.getType()!= NodeType.JUMPER || nodeContainer == nodeContainer2) {
-					continue;
-				}
+			if (node.getType() == NodeType.JUMPER) {
+				Node jumperTarget = nodeIndex.getJumperTarget(node);
 				
-				if (node.getLabel().contentEquals(node2.getLabel())) {
-					node.setJumperTarget(node2);
-					break;
+				if (jumperTarget != null) {
+					node.setJumperTarget(jumperTarget);
+				} else {
+					unresolved(settings, stats, Reference.JUMPER_TARGET, node.getID(), node.getLabel());
 				}
 			}
 			
@@ -93,12 +370,43 @@ public class CorkboardJSONImporter {
 				project.setStartingNode(node);
 			}
 		}
-
-		/*
-		 * Return the completed CorkboardProject
-		 */
-
-		return project;
+	}
+	
+	private static JsonReader createReader(InputStream inputStream, Charset charset) {
+		return (charset != null ? Json.createReader(new InputStreamReader(inputStream, charset)) : Json.createReader(inputStream));
+	}
+	
+	private static JsonParser createParser(InputStream inputStream, Charset charset) {
+		return (charset != null ? Json.createParser(new InputStreamReader(inputStream, charset)) : Json.createParser(inputStream));
+	}
+	
+	private static String getProjectName(Path path) {
+		return CorkboardFileInput.getProjectName(path.getFileName().toString());
+	}
+	
+	/**
+	 * Keeps the <code>File</code> functions' original exceptions: a file that can't be opened is a <code>FileNotFoundException</code>, and anything else is unchecked.
+	 */
+	private static FileNotFoundException asFileNotFound(File f, IOException e) {
+		if (e instanceof FileNotFoundException) {
+			return (FileNotFoundException) e;
+		}
+		
+		if (e instanceof NoSuchFileException || e instanceof AccessDeniedException) {
+			FileNotFoundException notFound = new FileNotFoundException(f.getPath());
+			notFound.initCause(e);
+			return notFound;
+		}
+		
+		throw new UncheckedIOException(e);
+	}
+	
+	private static void skipValue(JsonParser parser, Event event) {
+		if (event == Event.START_OBJECT) {
+			parser.skipObject();
+		} else if (event == Event.START_ARRAY) {
+			parser.skipArray();
+		}
 	}
 	
 	private static CorkboardProject createProject(String projectName, JsonObject projectObject) {
@@ -122,126 +430,142 @@ public class CorkboardJSONImporter {
 		
 	}
 	
-	private static ArrayList<NodeContainer> readNodes(JsonObject projectObject) {
-		
-		ArrayList<NodeContainer> nodes = new ArrayList<>();
+	private static ArrayList<NodeContainer> readNodes(JsonObject projectObject, CorkboardImportSettings settings, CorkboardImportStats stats) {
 		
 		if (containsValidKey(projectObject, "nodes")) {
 			
 			JsonArray nodesObject = projectObject.getJsonArray("nodes");
+			
+			//Each entry is written to its own slot, so the order stays the same no matter which worker built it
+			NodeContainer[] nodes = new NodeContainer[nodesObject.size()];
 
-			nodesObject.forEach((nodeValue) -> {
-				
-				JsonObject nodeObject = nodeValue.asJsonObject();
-				
-				String ID = nodeObject.getString("id");
-				
-				/*
-				 * Type
-				 */
-				
-				String nodeType = nodeObject.getString("type");
-				NodeType type = NodeType.getType(nodeType);
-				
-				/*
-				 * Position
-				 */
+			forEachIndex(settings, nodes.length, i -> {
+				nodes[i] = readNode(nodesObject.getJsonObject(i), settings.getStringPool());
 				
-				double x = 0.0;
-				double y = 0.0;
-				
-				if (containsValidKey(nodeObject, "position")) {
-					
-					JsonObject nodePosition = nodeObject.getJsonObject("position");
-					
-					x = nodePosition.getJsonNumber("x").doubleValue();
-					y = nodePosition.getJsonNumber("y").doubleValue();
-					
+				if (settings.isParseBodies()) {
+					parseBody(nodes[i], stats);
 				}
+			});
+			
+			return new ArrayList<>(Arrays.asList(nodes));
+		}
+		
+		return new ArrayList<>();
+		
+	}
+	
+	static NodeContainer readNode(JsonObject nodeObject, StringPool stringPool) {
+		
+		String ID = intern(stringPool, nodeObject.getString("id"));
+		
+		/*
+		 * Type
+		 */
+		
+		String nodeType = nodeObject.getString("type");
+		NodeType type = NodeType.getType(nodeType);
+		
+		/*
+		 * Position
+		 */
+		
+		double x = 0.0;
+		double y = 0.0;
+		
+		if (containsValidKey(nodeObject, "position")) {
+			
+			JsonObject nodePosition = nodeObject.getJsonObject("position");
+			
+			x = nodePosition.getJsonNumber("x").doubleValue();
+			y = nodePosition.getJsonNumber("y").doubleValue();
+			
+		}
+		
+		double width = 0.0;
+		double height = 0.0;
+		
+		if (containsValidKey(nodeObject, "style")) {
+			
+			JsonObject nodeStyle = nodeObject.getJsonObject("style");
+			
+			String w = nodeStyle.getJsonString("width").getString().replaceAll("px", "");
+			String h = nodeStyle.getJsonString("height").getString().replaceAll("px", "");
+			
+			width = Double.parseDouble(w);
+			height = Double.parseDouble(h);
+			
+		}
+		
+		/*
+		 * Data
+		 */
+		
+		String label = "";
+		Content body = new Content("");
+		String[] componentIDs = new String[0];
+		String[] attributes = new String[0];
+		boolean isStartingNode = false;
+		
+		if (containsValidKey(nodeObject, "data")) {
+			
+			JsonObject nodeData = nodeObject.getJsonObject("data");
+			
+			//Label
+			if (containsValidKey(nodeData, "label")) {
+				label = intern(stringPool, nodeData.getString("label"));
+			}
+			
+			//Body
+			if (containsValidKey(nodeData, "body")) {
+				body = new Content(nodeData.getString("body"));
+			}
+			
+			//Attributes
+			if (containsValidKey(nodeData, "attributes")) {
+				JsonArray attributeArray = nodeData.getJsonArray("attributes");
 				
-				double width = 0.0;
-				double height = 0.0;
+				attributes = new String[attributeArray.size()];
 				
-				if (containsValidKey(nodeObject, "style")) {
-					
-					JsonObject nodeStyle = nodeObject.getJsonObject("style");
-					
-					String w = nodeStyle.getJsonString("width").getString().replaceAll("px", "");
-					String h = nodeStyle.getJsonString("height").getString().replaceAll("px", "");
-					
-					width = Double.parseDouble(w);
-					height = Double.parseDouble(h);
-					
+				for (int i = 0; i < attributes.length; i++) {
+					attributes[i] = intern(stringPool, attributeArray.getString(i));
 				}
-				
-				/*
-				 * Data
-				 */
-				
-				String label = "";
-				Content body = new Content("");
-				String[] componentIDs = new String[0];
-				String[] attributes = new String[0];
-				boolean isStartingNode = false;
-				
-				if (containsValidKey(nodeObject, "data")) {
-					
-					JsonObject nodeData = nodeObject.getJsonObject("data");
-					
-					//Label
-					if (containsValidKey(nodeData, "label")) {
-						label = nodeData.getString("label");
-					}
-					
-					//Body
-					if (containsValidKey(nodeData, "body")) {
-						body = new Content(nodeData.getString("body"));
-					}
-					
-					//Attributes
-					if (containsValidKey(nodeData, "attributes")) {
-						JsonArray attributeArray = nodeData.getJsonArray("attributes");
-						
-						attributes = new String[attributeArray.size()];
-						
-						for (int i = 0; i < attributes.length; i++) {
-							attributes[i] = attributeArray.getString(i);
-						}
-
-					}
-					
-					//Components
-					if (containsValidKey(nodeData, "components")) {
-						JsonArray componentIDArray = nodeData.getJsonArray("components");
-						
-						componentIDs = new String[componentIDArray.size()];
-						
-						for (int i = 0; i < componentIDs.length; i++) {
-							componentIDs[i] = componentIDArray.getString(i);
-						}
 
-					}
-					
-					//Starting Node
-					if (containsValidKey(nodeData, "isStartingNode")) {
-						if (nodeData.getBoolean("isStartingNode")) {
-							isStartingNode = true;
-						}
-					}
-				}
+			}
+			
+			//Components
+			if (containsValidKey(nodeData, "components")) {
+				JsonArray componentIDArray = nodeData.getJsonArray("components");
 				
-				Node node = new Node(ID, type, x, y, width, height, label, body, attributes);
-				nodes.add(new NodeContainer(node, componentIDs, isStartingNode));
+				componentIDs = new String[componentIDArray.size()];
 				
-			});
+				for (int i = 0; i < componentIDs.length; i++) {
+					componentIDs[i] = componentIDArray.getString(i);
+				}
+
+			}
 			
+			//Starting Node
+			if (containsValidKey(nodeData, "isStartingNode")) {
+				if (nodeData.getBoolean("isStartingNode")) {
+					isStartingNode = true;
+				}
+			}
 		}
 		
-		return nodes;
+		Node node = new Node(ID, type, x, y, width, height, label, body, attributes);
+		return new NodeContainer(node, componentIDs, isStartingNode);
 		
 	}
 	
-	private static ArrayList<Connection> readEdges(JsonObject projectObject, ArrayList<NodeContainer> nodeContainers) {
+	private static void parseBody(NodeContainer nodeContainer, CorkboardImportStats stats) {
+		if (nodeContainer.node.hasBody()) {
+			long start = System.nanoTime();
+			nodeContainer.node.getBody().parse();
+			stats.bodyParsed(System.nanoTime() - start);
+		}
+	}
+	
+	private static ArrayList<Connection> readEdges(JsonObject projectObject, NodeIndex nodeIndex, CorkboardImportSettings settings, CorkboardImportStats stats) {
 		ArrayList<Connection> connections = new ArrayList<>();
 		
 		if (containsValidKey(projectObject, "edges")) {
@@ -249,19 +573,7 @@ public class CorkboardJSONImporter {
 			JsonArray edgesObject = projectObject.getJsonArray("edges");
 			
 			edgesObject.forEach((edgeValue) -> {
-				
-				JsonObject edgeObject = edgeValue.asJsonObject();
-				
-				String ID = edgeObject.getString("id");
-				String sourceID = edgeObject.getString("source");
-				String targetID = edgeObject.getString("target");
-				String label = edgeObject.getString("label");
-				
-				Node source = getNodeByID(nodeContainers, sourceID);
-				Node target = getNodeByID(nodeContainers, targetID);
-				
-				connections.add(new Connection(ID, label, source, target));
-				
+				connections.add(createConnection(readEdge(edgeValue.asJsonObject(), settings.getStringPool()), nodeIndex, settings, stats));
 			});
 			
 		}
@@ -269,14 +581,37 @@ public class CorkboardJSONImporter {
 		return connections;
 	}
 	
-	private static class NodeContainer extends Element{
+	static EdgeContainer readEdge(JsonObject edgeObject, StringPool stringPool) {
+		String ID = intern(stringPool, edgeObject.getString("id"));
+		String sourceID = edgeObject.getString("source");
+		String targetID = edgeObject.getString("target");
+		String label = intern(stringPool, edgeObject.getString("label"));
+		
+		return new EdgeContainer(ID, label, sourceID, targetID);
+	}
+	
+	private static Connection createConnection(EdgeContainer edgeContainer, NodeIndex nodeIndex, CorkboardImportSettings settings, CorkboardImportStats stats) {
+		Node source = nodeIndex.getNodeByID(edgeContainer.sourceID);
+		Node target = nodeIndex.getNodeByID(edgeContainer.targetID);
+		
+		if (source == null) {
+			unresolved(settings, stats, Reference.EDGE_SOURCE, edgeContainer.ID, edgeContainer.sourceID);
+		}
+		
+		if (target == null) {
+			unresolved(settings, stats, Reference.EDGE_TARGET, edgeContainer.ID, edgeContainer.targetID);
+		}
+		
+		return new Connection(edgeContainer.ID, edgeContainer.label, source, target);
+	}
+	
+	static class NodeContainer {
 		
-		private Node node;
-		private String[] componentIDs;
-		private boolean isStartingNode;
+		Node node;
+		String[] componentIDs;
+		boolean isStartingNode;
 		
 		public NodeContainer(Node node, String[] componentIDs, boolean isStartingNode) {
-			super(node.getID(), node.getLabel());
 			this.node = node;
 			this.componentIDs = componentIDs;
 			this.isStartingNode = isStartingNode;
@@ -284,14 +619,187 @@ public class CorkboardJSONImporter {
 
 	}
 	
-	private static Node getNodeByID(ArrayList<NodeContainer> nodeContainers, String ID) {
-		NodeContainer nodeContainer = ((NodeContainer) Element.getElement(ElementSearch.ID, nodeContainers, ID));
+	/**
+	 * Holds an edge's IDs until every node it refers to has been loaded.
+	 */
+	static class EdgeContainer {
+		
+		String ID, label;
+		String sourceID, targetID;
 		
-		if (nodeContainer != null && nodeContainer.node != null) {
-			return nodeContainer.node;
+		public EdgeContainer(String ID, String label, String sourceID, String targetID) {
+			this.ID = ID;
+			this.label = label;
+			this.sourceID = sourceID;
+			this.targetID = targetID;
 		}
-
-		return null;
+		
+	}
+	
+	/**
+	 * Hashes the loaded nodes by ID and label so that edges, components, and jumpers can be resolved in constant time. When several nodes share an ID or label, the first one loaded wins, 
+	 * the same as a linear search through the nodes would.
+	 */
+	private static class NodeIndex {
+		
+		private HashMap<String, Node> nodesByID;
+		
+		//Jumpers skip over themselves when searching by label, so the second node with each label is kept as well
+		private HashMap<String, Node> nodesByLabel;
+		private HashMap<String, Node> secondNodesByLabel;
+		
+		public NodeIndex(ArrayList<NodeContainer> nodeContainers) {
+			int capacity = (int) (nodeContainers.size() / 0.75f) + 1;
+			
+			nodesByID = new HashMap<>(capacity);
+			nodesByLabel = new HashMap<>(capacity);
+			secondNodesByLabel = new HashMap<>();
+			
+			for (NodeContainer nodeContainer : nodeContainers) {
+				Node node = nodeContainer.node;
+				
+				nodesByID.putIfAbsent(node.getID(), node);
+				
+				if (nodesByLabel.putIfAbsent(node.getLabel(), node) != null) {
+					secondNodesByLabel.putIfAbsent(node.getLabel(), node);
+				}
+			}
+		}
+		
+		public Node getNodeByID(String ID) {
+			return nodesByID.get(ID);
+		}
+		
+		/**
+		 * @return the first node other than <code>jumper</code> that shares its label, or null if there isn't one
+		 */
+		public Node getJumperTarget(Node jumper) {
+			Node target = nodesByLabel.get(jumper.getLabel());
+			return (target != jumper) ? target : secondNodesByLabel.get(jumper.getLabel());
+		}
+		
+	}
+	
+	/**
+	 * Runs <code>action</code> for every index from 0 to <code>count</code>; split across the settings' pool if there is one, or on this thread if there isn't.
+	 */
+	private static void forEachIndex(CorkboardImportSettings settings, int count, IntConsumer action) {
+		ForkJoinPool pool = settings.getPool();
+		
+		if (pool == null || count <= settings.getParallelThreshold()) {
+			for (int i = 0; i < count; i++) {
+				action.accept(i);
+			}
+		} else {
+			pool.invoke(new RangeTask(0, count, settings.getParallelThreshold(), action));
+		}
+	}
+	
+	private static class RangeTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private int start, end;
+		private int threshold;
+		private IntConsumer action;
+		
+		public RangeTask(int start, int end, int threshold, IntConsumer action) {
+			this.start = start;
+			this.end = end;
+			this.threshold = threshold;
+			this.action = action;
+		}
+		
+		@Override
+		protected void compute() {
+			if (end - start <= threshold) {
+				for (int i = start; i < end; i++) {
+					action.accept(i);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new RangeTask(start, middle, threshold, action), new RangeTask(middle, end, threshold, action));
+			}
+		}
+		
+	}
+	
+	/*
+	 * 
+	 * Instrumentation
+	 * 
+	 */
+	
+	private static long startPhase(CorkboardImportSettings settings, CorkboardImportStats stats, Phase phase) {
+		settings.getListener().phaseStarted(stats, phase);
+		return System.nanoTime();
+	}
+	
+	private static void finishPhase(CorkboardImportSettings settings, CorkboardImportStats stats, Phase phase, long start) {
+		long nanos = System.nanoTime() - start;
+		
+		stats.setPhaseTime(phase, nanos);
+		settings.getListener().phaseFinished(stats, phase, nanos);
+	}
+	
+	private static void finishImport(CorkboardProject project, CorkboardImportSettings settings, CorkboardImportStats stats, long start) {
+		stats.setNodeCount(project.getNodes().size());
+		stats.setEdgeCount(project.getConnections().size());
+		stats.setTotalTime(System.nanoTime() - start);
+		
+		settings.getListener().importFinished(stats);
+	}
+	
+	private static void unresolved(CorkboardImportSettings settings, CorkboardImportStats stats, Reference reference, String elementID, String missingID) {
+		stats.addUnresolved();
+		settings.getListener().unresolved(stats, reference, elementID, missingID);
+	}
+	
+	/**
+	 * Counts the bytes read through it into the import's stats.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+		
+		private CorkboardImportStats stats;
+		
+		public CountingInputStream(InputStream inputStream, CorkboardImportStats stats) {
+			super(inputStream);
+			this.stats = stats;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			
+			if (b != -1) {
+				stats.addBytesRead(1);
+			}
+			
+			return b;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int count = super.read(b, off, len);
+			
+			if (count > 0) {
+				stats.addBytesRead(count);
+			}
+			
+			return count;
+		}
+		
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			stats.addBytesRead(skipped);
+			return skipped;
+		}
+		
+	}
+	
+	private static String intern(StringPool stringPool, String string) {
+		return (stringPool != null ? stringPool.intern(string) : string);
 	}
 	
 	private static boolean containsValidKey(JsonObject object, String key) {
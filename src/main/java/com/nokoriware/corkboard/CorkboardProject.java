@@ -3,37 +3,186 @@ package com.nokoriware.corkboard;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import com.nokoriware.corkboard.Element.ElementSearch;
+import com.nokoriware.corkboard.util.StringPool;
 
 public class CorkboardProject {
 	
 	private String name;
 	private double viewportX, viewportY, viewportZoom;
 	
-	private ArrayList<Node> nodes;
-	private ArrayList<Connection> connections;
+	private ElementList<Node> nodes;
+	private ElementList<Connection> connections;
 	
 	private Node startingNode;
+	
+	//Built the first time it's needed, and thrown away whenever the Nodes or their attributes change
+	private volatile AttributeIndex attributeIndex;
+	
+	//Built the first time it's needed, updated as Nodes move, and thrown away whenever the Node list changes
+	private volatile SpatialIndex spatialIndex;
+	
+	//Built the first time it's needed, and thrown away whenever the Nodes, Connections, or their labels change
+	private volatile GraphStore graphStore;
+	
+	private final CopyOnWriteArrayList<CorkboardProjectListener> listeners = new CopyOnWriteArrayList<>();
+	
+	private boolean frozen;
 
 	public CorkboardProject(String name, double viewportX, double viewportY, double viewportZoom, ArrayList<Node> nodes, ArrayList<Connection> connections) {
 		this.name = name;
 		this.viewportX = viewportX;
 		this.viewportY = viewportY;
 		this.viewportZoom = viewportZoom;
-		this.nodes = nodes;
-		this.connections = connections;
+		this.nodes = new ElementList<>(this);
+		this.connections = new ElementList<>(this);
+		
+		this.nodes.setChangeListener(this::nodesChanged);
+		this.connections.setChangeListener(this::elementsChanged);
+		
+		this.nodes.addAll(nodes);
+		this.connections.addAll(connections);
 	}
 	
 	public static CorkboardProject importJSON(File corkboardJSONFile) throws FileNotFoundException {
 		return CorkboardJSONImporter.read(corkboardJSONFile);
 	}
 	
+	/**
+	 * Patches this project in place to match <code>update</code> (usually a fresh import of the same board), matching Nodes and Connections up by ID. Only what changed is
+	 * added, removed, or updated, so unchanged elements (and any references to them, like a conversation's current Node) stay exactly as they were.
+	 * <br><br>
+	 * The update is taken apart in the process: its new Nodes are moved into this project, and it's left empty.
+	 * 
+	 * @return a list of everything that changed
+	 */
+	public CorkboardChangeSet patch(CorkboardProject update) {
+		checkFrozen();
+		return new ProjectPatcher(this, update).patch();
+	}
+	
+	/**
+	 * Makes a deep copy of this project: every Node and Connection is copied, with the copies pointing at each other. Bodies are shared, since they're never changed once created.
+	 */
+	public CorkboardProject copy() {
+		IdentityHashMap<Node, Node> copies = new IdentityHashMap<>(nodes.size());
+		
+		ArrayList<Node> nodeCopies = new ArrayList<>(nodes.size());
+		ArrayList<Connection> connectionCopies = new ArrayList<>(connections.size());
+		
+		for (Node node : nodes) {
+			Node copy = new Node(node.getID(), node.getType(), node.getX(), node.getY(), node.getWidth(), node.getHeight(), node.getLabel(), node.getBody(),
+					node.getAttributes().toArray(new String[0]));
+			
+			copies.putIfAbsent(node, copy);
+			nodeCopies.add(copy);
+		}
+		
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = nodes.get(i);
+			Node copy = nodeCopies.get(i);
+			
+			for (Node component : node.getComponents()) {
+				copy.getComponents().add(copies.getOrDefault(component, component));
+			}
+			
+			if (node.hasJumperTarget()) {
+				copy.setJumperTarget(copies.getOrDefault(node.getJumperTarget(), node.getJumperTarget()));
+			}
+		}
+		
+		for (Connection connection : connections) {
+			connectionCopies.add(new Connection(connection.getID(), connection.getLabel(), copies.get(connection.getSource()), copies.get(connection.getTarget())));
+		}
+		
+		CorkboardProject copy = new CorkboardProject(name, viewportX, viewportY, viewportZoom, nodeCopies, connectionCopies);
+		copy.setStartingNode(copies.get(startingNode));
+		
+		return copy;
+	}
+	
+	/*
+	 * 
+	 * Freezing
+	 * 
+	 */
+	
+	/**
+	 * Freezes this project with a new StringPool. See {@link #freeze(StringPool)}.
+	 */
+	public CorkboardProject freeze() {
+		return freeze(new StringPool());
+	}
+	
+	/**
+	 * Makes this project read-only and shrinks it down for keeping in memory long-term, for boards that won't change after they're imported.
+	 * <br><br>
+	 * Labels, attributes, and bodies are interned through <code>stringPool</code>, so pass the same pool when freezing several boards (such as the localized copies of one board)
+	 * to share everything they have in common. IDs never change, so they're interned when they're imported instead (see {@link CorkboardImportSettings#setStringPool(StringPool)}).
+	 * Every list is trimmed to size, each Node's Connection lists are swapped for a run of one array shared by the whole project (see {@link ConnectionPool}), the ID, label, and
+	 * attribute lookups are built ahead of time, and bodies let go of their parsed JSoup documents. The {@link #getGraphStore() GraphStore} is a copy of the whole graph, so it's
+	 * still only built if it's asked for.
+	 * <br><br>
+	 * Afterwards, anything that would change the project, its Nodes, or their Connections throws an <code>UnsupportedOperationException</code>. Use {@link #copy()} to get a
+	 * changeable copy. Since nothing in a frozen project is changed by reading it, it can also be read from any number of threads.
+	 * 
+	 * @return this project
+	 */
+	public CorkboardProject freeze(StringPool stringPool) {
+		if (frozen) {
+			return this;
+		}
+		
+		//Every Node's Connections are a run of one pool, rather than each Node having lists of its own
+		int pooledConnectionCount = 0;
+		
+		for (Node node : nodes) {
+			pooledConnectionCount += node.getConnections().size();
+		}
+		
+		ConnectionPool connectionPool = new ConnectionPool(pooledConnectionCount);
+		
+		for (Node node : nodes) {
+			node.freezeConnections(connectionPool);
+		}
+		
+		for (Node node : nodes) {
+			node.freeze(stringPool);
+		}
+		
+		for (Connection connection : connections) {
+			connection.freeze(stringPool);
+		}
+		
+		name = stringPool.intern(name);
+		
+		nodes.freeze();
+		connections.freeze();
+		attributeIndex();
+		
+		frozen = true;
+		return this;
+	}
+	
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	private void checkFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("This CorkboardProject is frozen and can't be changed");
+		}
+	}
+	
 	public String getName() {
 		return name;
 	}
 	
 	public void setName(String projectName) {
+		checkFrozen();
 		this.name = projectName;
 	}
 
@@ -48,6 +197,7 @@ public class CorkboardProject {
 	}
 
 	public void setViewportX(double viewportX) {
+		checkFrozen();
 		this.viewportX = viewportX;
 	}
 
@@ -56,6 +206,7 @@ public class CorkboardProject {
 	}
 
 	public void setViewportY(double viewportY) {
+		checkFrozen();
 		this.viewportY = viewportY;
 	}
 
@@ -64,6 +215,7 @@ public class CorkboardProject {
 	}
 
 	public void setViewportZoom(double viewportZoom) {
+		checkFrozen();
 		this.viewportZoom = viewportZoom;
 	}
 	
@@ -73,16 +225,206 @@ public class CorkboardProject {
 	 * 
 	 */
 
+	/**
+	 * @return the project's Nodes. Nodes can be added to or removed from this list directly; the project's ID and label lookups are kept up to date automatically.
+	 */
 	public ArrayList<Node> getNodes() {
 		return nodes;
 	}
 
+	/**
+	 * @return the first Node with the given ID, looked up through a hash index rather than a search of the whole list.
+	 */
 	public Node getNodeByID(String ID) {
-		return (Node) Element.getElement(ElementSearch.ID, nodes, ID);
+		return nodes.getByID(ID);
 	}
 	
+	/**
+	 * @return the first Node with the given label, looked up through a hash index rather than a search of the whole list.
+	 */
 	public Node getNodeByLabel(String label) {
-		return (Node) Element.getElement(ElementSearch.LABEL, nodes, label);
+		return nodes.getByLabel(label);
+	}
+	
+	/*
+	 * 
+	 * Attributes
+	 * 
+	 */
+	
+	/**
+	 * @return every Node with the given attribute, in project order. Looked up through an attribute index that's built on the first query, and rebuilt after any Node or attribute
+	 * changes.
+	 */
+	public List<Node> getNodesWithAttribute(String attribute) {
+		return attributeIndex().getNodes(attribute);
+	}
+	
+	/**
+	 * @return every Node with at least one attribute starting with <code>prefix</code> (such as <code>"quest:"</code>), in project order.
+	 */
+	public List<Node> getNodesWithAttributeStartsWith(String prefix) {
+		return attributeIndex().getNodesStartsWith(prefix);
+	}
+	
+	/**
+	 * The project-wide version of {@link Node#getAttributesStartsWith(String)}.
+	 * 
+	 * @return every distinct attribute in the project starting with <code>prefix</code>, sorted, with the prefix removed. For example, <code>"speaker:"</code> gives the name of every speaker.
+	 */
+	public String[] getAttributesStartsWith(String prefix) {
+		return attributeIndex().getAttributesStartsWith(prefix);
+	}
+	
+	private AttributeIndex attributeIndex() {
+		AttributeIndex attributeIndex = this.attributeIndex;
+		
+		if (attributeIndex == null) {
+			attributeIndex = new AttributeIndex(nodes);
+			this.attributeIndex = attributeIndex;
+		}
+		
+		return attributeIndex;
+	}
+	
+	/*
+	 * 
+	 * Graph
+	 * 
+	 */
+	
+	/**
+	 * @return a copy of the project's graph in flat arrays, for fast traversal of very large boards. It's built the first time it's asked for and kept until the project's
+	 * Nodes, Connections, or labels change, so the same store is returned until then. Frozen projects build it the first time it's asked for too, since it's a copy of the graph
+	 * and most boards never need it.
+	 */
+	public GraphStore getGraphStore() {
+		return graphStore();
+	}
+	
+	private GraphStore graphStore() {
+		GraphStore graphStore = this.graphStore;
+		
+		if (graphStore == null) {
+			graphStore = new GraphStore(nodes, connections);
+			this.graphStore = graphStore;
+		}
+		
+		return graphStore;
+	}
+	
+	/*
+	 * 
+	 * Geometry
+	 * 
+	 */
+	
+	/**
+	 * @return every Node overlapping the rectangle (in board coordinates, edges included), in project order, so Nodes later in the list are drawn over earlier ones.
+	 * Looked up through a grid of the board that's built on the first query and kept up to date as Nodes are moved or resized.
+	 */
+	public List<Node> getNodesInRect(double x, double y, double width, double height) {
+		return spatialIndex().getNodes(x, y, width, height);
+	}
+	
+	/**
+	 * @return the Node under the point (in board coordinates) that's drawn on top, which is the last one in the project's Node list, or null if there isn't one.
+	 */
+	public Node getNodeAt(double x, double y) {
+		return spatialIndex().getNode(x, y);
+	}
+	
+	/**
+	 * Gets the Nodes a viewer the given size can see, using the project's viewport. The viewport is taken as a pan offset in screen pixels followed by a zoom, so a point
+	 * on the board at <code>(x, y)</code> is drawn at <code>(x * zoom + viewportX, y * zoom + viewportY)</code>.
+	 * 
+	 * @param screenWidth - the width of the view, in screen pixels
+	 * @param screenHeight - the height of the view, in screen pixels
+	 * @return every Node at least partly on screen, in project order.
+	 */
+	public List<Node> getVisibleNodes(double screenWidth, double screenHeight) {
+		double zoom = (viewportZoom > 0 ? viewportZoom : 1);
+		return getNodesInRect(-viewportX / zoom, -viewportY / zoom, screenWidth / zoom, screenHeight / zoom);
+	}
+	
+	/**
+	 * Gets the Node under a point on screen, using the project's viewport (see {@link #getVisibleNodes(double, double)}).
+	 */
+	public Node getNodeAtScreen(double screenX, double screenY) {
+		double zoom = (viewportZoom > 0 ? viewportZoom : 1);
+		return getNodeAt((screenX - viewportX) / zoom, (screenY - viewportY) / zoom);
+	}
+	
+	private SpatialIndex spatialIndex() {
+		SpatialIndex spatialIndex = this.spatialIndex;
+		
+		if (spatialIndex == null) {
+			spatialIndex = new SpatialIndex(nodes);
+			this.spatialIndex = spatialIndex;
+		}
+		
+		return spatialIndex;
+	}
+	
+	/**
+	 * Called by Nodes whenever they're moved or resized.
+	 */
+	void geometryChanged(Node node) {
+		SpatialIndex spatialIndex = this.spatialIndex;
+		
+		if (spatialIndex != null) {
+			spatialIndex.update(node);
+		}
+	}
+	
+	/*
+	 * 
+	 * Listeners
+	 * 
+	 */
+	
+	/**
+	 * Adds a listener that's told whenever the project's Nodes or Connections change. Listeners aren't copied by {@link #copy()}.
+	 */
+	public void addListener(CorkboardProjectListener listener) {
+		listeners.add(listener);
+	}
+	
+	public void removeListener(CorkboardProjectListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Called by Nodes whenever their attributes change.
+	 */
+	void attributesChanged(Node node) {
+		attributeIndex = null;
+		elementChanged(node);
+	}
+	
+	/**
+	 * Called by the project's elements whenever their label or body changes.
+	 */
+	void elementChanged(Element element) {
+		graphStore = null;
+		
+		for (CorkboardProjectListener listener : listeners) {
+			listener.elementChanged(element);
+		}
+	}
+	
+	private void nodesChanged() {
+		attributeIndex = null;
+		spatialIndex = null;
+		elementsChanged();
+	}
+	
+	private void elementsChanged() {
+		graphStore = null;
+		
+		for (CorkboardProjectListener listener : listeners) {
+			listener.elementsChanged(this);
+		}
 	}
 	
 	/*
@@ -91,16 +433,19 @@ public class CorkboardProject {
 	 * 
 	 */
 	
+	/**
+	 * @return the project's Connections. Connections made with <code>Node.addConnection()</code> are added here automatically, and removed again when they're disconnected.
+	 */
 	public ArrayList<Connection> getConnections() {
 		return connections;
 	}
 	
 	public Connection getConnectionByID(String ID) {
-		return (Connection) Element.getElement(ElementSearch.ID, connections, ID);
+		return connections.getByID(ID);
 	}
 
 	public Connection getConnectionByLabel(String label) {
-		return (Connection) Element.getElement(ElementSearch.LABEL, connections, label);
+		return connections.getByLabel(label);
 	}
 	
 	/*
@@ -114,6 +459,7 @@ public class CorkboardProject {
 	}
 	
 	public void setStartingNode(Node startingNode) {
+		checkFrozen();
 		this.startingNode = startingNode;
 	}
 }
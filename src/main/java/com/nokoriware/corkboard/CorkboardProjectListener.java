@@ -0,0 +1,21 @@
+package com.nokoriware.corkboard;
+
+/**
+ * Told about changes to a CorkboardProject, for anything that keeps its own view of a project up to date (like a search index). Add one with
+ * {@link CorkboardProject#addListener(CorkboardProjectListener)}.
+ * <br><br>
+ * Listeners are called on whichever thread made the change, straight after it's made. Both methods do nothing by default.
+ */
+public interface CorkboardProjectListener {
+	
+	/**
+	 * Called when one of the project's Nodes has its label, body, or attributes changed, or one of its Connections has its label changed.
+	 */
+	public default void elementChanged(Element element) {}
+	
+	/**
+	 * Called when Nodes or Connections are added to the project, removed from it, or reordered.
+	 */
+	public default void elementsChanged(CorkboardProject project) {}
+	
+}
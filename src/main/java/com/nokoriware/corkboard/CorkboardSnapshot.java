@@ -0,0 +1,399 @@
+package com.nokoriware.corkboard;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * Writes and reads a compact binary copy of a CorkboardProject. A snapshot is written once (for example, when a game's assets are built), and can then be loaded at startup without
+ * parsing any JSON. Node bodies are stored as their raw HTML and are only parsed by JSoup when they're first used, the same as with the JSON importer.
+ * <br><br>
+ * Layout (big-endian):
+ * <ul>
+ * <li>Header: the magic number <code>CORK</code> and a format version.</li>
+ * <li>String table: every ID, label, attribute, body, and Node type name in the project, stored once each. Everything after it refers to strings by their index in this table, with
+ * -1 standing in for null.</li>
+ * <li>Project: the name and viewport.</li>
+ * <li>Nodes: ID, type name (as Corkboard writes it, such as <code>text-area</code>), position, size, label, body, attributes, component indices, and the jumper target index.</li>
+ * <li>The starting node index.</li>
+ * <li>Connections: ID, label, and the source and target node indices.</li>
+ * </ul>
+ */
+public class CorkboardSnapshot {
+	
+	private static final int MAGIC = 0x434F524B; //"CORK"
+	private static final int VERSION = 2;
+	
+	private static final int NONE = -1;
+	
+	//The least each Node and Connection can take up, for checking counts before allocating anything
+	private static final int NODE_BYTES = 7 * Integer.BYTES + 4 * Double.BYTES;
+	private static final int CONNECTION_BYTES = 4 * Integer.BYTES;
+	
+	/*
+	 * 
+	 * Writing
+	 * 
+	 */
+	
+	/**
+	 * Writes a snapshot of the project to the given file, replacing it if it already exists.
+	 */
+	public static void write(CorkboardProject project, File f) throws IOException {
+		try (OutputStream outputStream = new FileOutputStream(f)) {
+			write(project, outputStream);
+		}
+	}
+	
+	/**
+	 * Writes a snapshot of the project to the given output stream. The stream is flushed, but not closed.
+	 */
+	public static void write(CorkboardProject project, OutputStream outputStream) throws IOException {
+		
+		ArrayList<Node> nodes = project.getNodes();
+		ArrayList<Connection> connections = project.getConnections();
+		
+		/*
+		 * Number the nodes and build the string table
+		 */
+		
+		IdentityHashMap<Node, Integer> nodeIndices = new IdentityHashMap<>(nodes.size());
+		LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+		
+		//Bodies whose documents have been handed out are written from the document, edits and all, so they're only worked out once
+		String[] bodies = new String[nodes.size()];
+		
+		addString(strings, project.getName());
+		
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = nodes.get(i);
+			nodeIndices.putIfAbsent(node, i);
+			
+			addString(strings, node.getID());
+			addString(strings, getTypeName(node));
+			addString(strings, node.getLabel());
+			
+			if (node.hasBody()) {
+				bodies[i] = node.getBody().getHTML();
+				addString(strings, bodies[i]);
+			}
+			
+			for (String attribute : node.getAttributes()) {
+				addString(strings, attribute);
+			}
+		}
+		
+		for (Connection connection : connections) {
+			addString(strings, connection.getID());
+			addString(strings, connection.getLabel());
+		}
+		
+		/*
+		 * Write everything out
+		 */
+		
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+		
+		//Header
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		
+		//String table
+		out.writeInt(strings.size());
+		
+		for (String string : strings.keySet()) {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		
+		//Project
+		out.writeInt(getString(strings, project.getName()));
+		out.writeDouble(project.getViewportX());
+		out.writeDouble(project.getViewportY());
+		out.writeDouble(project.getViewportZoom());
+		
+		//Nodes
+		out.writeInt(nodes.size());
+		
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = nodes.get(i);
+			
+			out.writeInt(getString(strings, node.getID()));
+			out.writeInt(getString(strings, getTypeName(node)));
+			out.writeDouble(node.getX());
+			out.writeDouble(node.getY());
+			out.writeDouble(node.getWidth());
+			out.writeDouble(node.getHeight());
+			out.writeInt(getString(strings, node.getLabel()));
+			out.writeInt(node.hasBody() ? getString(strings, bodies[i]) : NONE);
+			
+			ArrayList<String> attributes = node.getAttributes();
+			out.writeInt(attributes.size());
+			
+			for (String attribute : attributes) {
+				out.writeInt(getString(strings, attribute));
+			}
+			
+			//Components that aren't part of the project can't be referred to by index, so they're left out
+			ArrayList<Integer> components = new ArrayList<>(node.getComponents().size());
+			
+			for (Node component : node.getComponents()) {
+				Integer componentIndex = nodeIndices.get(component);
+				
+				if (componentIndex != null) {
+					components.add(componentIndex);
+				}
+			}
+			
+			out.writeInt(components.size());
+			
+			for (int componentIndex : components) {
+				out.writeInt(componentIndex);
+			}
+			
+			out.writeInt(getNode(nodeIndices, node.getJumperTarget()));
+		}
+		
+		//Starting node
+		out.writeInt(getNode(nodeIndices, project.getStartingNode()));
+		
+		//Connections
+		out.writeInt(connections.size());
+		
+		for (Connection connection : connections) {
+			out.writeInt(getString(strings, connection.getID()));
+			out.writeInt(getString(strings, connection.getLabel()));
+			out.writeInt(getNode(nodeIndices, connection.getSource()));
+			out.writeInt(getNode(nodeIndices, connection.getTarget()));
+		}
+		
+		out.flush();
+	}
+	
+	//Types are stored by name rather than by their place in NodeType, so adding or reordering types doesn't change what old snapshots mean
+	private static String getTypeName(Node node) {
+		return (node.getType() != null ? node.getType().getName() : null);
+	}
+	
+	private static void addString(HashMap<String, Integer> strings, String string) {
+		if (string != null) {
+			strings.putIfAbsent(string, strings.size());
+		}
+	}
+	
+	private static int getString(HashMap<String, Integer> strings, String string) {
+		return (string != null ? strings.get(string) : NONE);
+	}
+	
+	private static int getNode(IdentityHashMap<Node, Integer> nodeIndices, Node node) {
+		Integer index = (node != null ? nodeIndices.get(node) : null);
+		return (index != null ? index : NONE);
+	}
+	
+	/*
+	 * 
+	 * Reading
+	 * 
+	 */
+	
+	/**
+	 * Memory-maps the given snapshot file and reads a CorkboardProject from it.
+	 * 
+	 * @throws IOException - if the file can't be read, or isn't a snapshot this version of JCorkboard understands.
+	 */
+	public static CorkboardProject read(File f) throws IOException {
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			return read(buffer);
+		}
+	}
+	
+	/**
+	 * Reads a CorkboardProject from a buffer holding a snapshot, starting at the buffer's current position.
+	 * 
+	 * @throws IOException - if the buffer doesn't hold a snapshot this version of JCorkboard understands.
+	 */
+	public static CorkboardProject read(ByteBuffer buffer) throws IOException {
+		try {
+			return readSnapshot(buffer);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Corkboard snapshot is truncated or corrupt.", e);
+		}
+	}
+	
+	private static CorkboardProject readSnapshot(ByteBuffer buffer) throws IOException {
+		
+		/*
+		 * Header
+		 */
+		
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new IOException("Not a Corkboard snapshot.");
+		}
+		
+		int version = buffer.getInt();
+		
+		if (version != VERSION) {
+			throw new IOException("Unsupported Corkboard snapshot version: " + version);
+		}
+		
+		/*
+		 * String table
+		 */
+		
+		String[] strings = new String[readCount(buffer, Integer.BYTES)];
+		byte[] bytes = new byte[256];
+		
+		for (int i = 0; i < strings.length; i++) {
+			int length = readCount(buffer, 1);
+			
+			if (length > bytes.length) {
+				bytes = new byte[Math.max(length, bytes.length * 2)];
+			}
+			
+			buffer.get(bytes, 0, length);
+			strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+		
+		/*
+		 * Project
+		 */
+		
+		String name = getString(strings, buffer.getInt());
+		double viewportX = buffer.getDouble();
+		double viewportY = buffer.getDouble();
+		double viewportZoom = buffer.getDouble();
+		
+		CorkboardProject project = new CorkboardProject(name, viewportX, viewportY, viewportZoom, new ArrayList<>(), new ArrayList<>());
+		
+		/*
+		 * Nodes
+		 */
+		
+		Node[] nodes = new Node[readCount(buffer, NODE_BYTES)];
+		int[][] componentIndices = new int[nodes.length][];
+		int[] jumperTargets = new int[nodes.length];
+		
+		for (int i = 0; i < nodes.length; i++) {
+			String ID = getString(strings, buffer.getInt());
+			
+			String typeName = getString(strings, buffer.getInt());
+			NodeType type = (typeName != null ? NodeType.getType(typeName) : null);
+			
+			if (typeName != null && type == null) {
+				System.err.println("Corkboard Import Warning: Unknown node type in snapshot: " + typeName);
+			}
+			
+			double x = buffer.getDouble();
+			double y = buffer.getDouble();
+			double width = buffer.getDouble();
+			double height = buffer.getDouble();
+			
+			String label = getString(strings, buffer.getInt());
+			
+			int bodyIndex = buffer.getInt();
+			Content body = (bodyIndex != NONE ? new Content(strings[bodyIndex]) : null);
+			
+			String[] attributes = new String[readCount(buffer, Integer.BYTES)];
+			
+			for (int j = 0; j < attributes.length; j++) {
+				attributes[j] = getString(strings, buffer.getInt());
+			}
+			
+			componentIndices[i] = new int[readCount(buffer, Integer.BYTES)];
+			
+			for (int j = 0; j < componentIndices[i].length; j++) {
+				componentIndices[i][j] = buffer.getInt();
+			}
+			
+			jumperTargets[i] = buffer.getInt();
+			
+			nodes[i] = new Node(ID, type, x, y, width, height, label, body, attributes);
+		}
+		
+		//Link components and jumpers now that every node exists
+		for (int i = 0; i < nodes.length; i++) {
+			Node node = nodes[i];
+			
+			for (int componentIndex : componentIndices[i]) {
+				node.getComponents().add(nodes[componentIndex]);
+			}
+			
+			if (jumperTargets[i] != NONE) {
+				node.setJumperTarget(nodes[jumperTargets[i]]);
+			}
+		}
+		
+		//Starting node
+		int startingNode = buffer.getInt();
+		
+		if (startingNode != NONE) {
+			project.setStartingNode(nodes[startingNode]);
+		}
+		
+		/*
+		 * Connections
+		 */
+		
+		int connectionCount = readCount(buffer, CONNECTION_BYTES);
+		ArrayList<Connection> connections = project.getConnections();
+		connections.ensureCapacity(connectionCount);
+		
+		for (int i = 0; i < connectionCount; i++) {
+			String ID = getString(strings, buffer.getInt());
+			String label = getString(strings, buffer.getInt());
+			
+			int source = buffer.getInt();
+			int target = buffer.getInt();
+			
+			connections.add(new Connection(ID, label, getNode(nodes, source), getNode(nodes, target)));
+		}
+		
+		//Nodes are added last, matching the JSON importer
+		ArrayList<Node> projectNodes = project.getNodes();
+		projectNodes.ensureCapacity(nodes.length);
+		
+		for (Node node : nodes) {
+			projectNodes.add(node);
+		}
+		
+		return project;
+	}
+	
+	/**
+	 * Reads a count of items that each take up at least <code>itemBytes</code>, making sure there's room left in the buffer for all of them before anything is allocated.
+	 */
+	private static int readCount(ByteBuffer buffer, int itemBytes) throws IOException {
+		int count = buffer.getInt();
+		
+		if (count < 0 || count > buffer.remaining() / itemBytes) {
+			throw new IOException("Corkboard snapshot is truncated or corrupt: bad count " + count + " at position " + (buffer.position() - Integer.BYTES));
+		}
+		
+		return count;
+	}
+	
+	private static String getString(String[] strings, int index) {
+		return (index != NONE ? strings[index] : null);
+	}
+	
+	private static Node getNode(Node[] nodes, int index) {
+		return (index != NONE ? nodes[index] : null);
+	}
+	
+}
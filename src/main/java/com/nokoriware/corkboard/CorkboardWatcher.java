@@ -0,0 +1,146 @@
+package com.nokoriware.corkboard;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a Corkboard export on disk and hot reloads it into a CorkboardProject whenever it's saved, so that a board can be edited while the game is running.
+ * <br><br>
+ * The file is read on the watcher's own thread, but the project is only patched (see {@link CorkboardProject#patch(CorkboardProject)}) on the given Executor. Pass something
+ * that runs tasks on the game's main thread (such as a queue drained once a frame) so the project never changes while it's being read. Close the watcher to stop watching.
+ * <br><br>
+ * Example:
+ * <pre>
+ * CorkboardWatcher watcher = new CorkboardWatcher(project, file, mainThreadQueue::add, changes -> System.out.println(changes));
+ * </pre>
+ */
+public class CorkboardWatcher implements Closeable {
+	
+	private final CorkboardProject project;
+	private final File file;
+	private final Executor executor;
+	private final Consumer<CorkboardChangeSet> listener;
+	
+	private final WatchService watchService;
+	private final Thread thread;
+	
+	//Editors often save a file in several writes, so events are collected for this long before reloading
+	private volatile long delay = 100;
+	
+	/**
+	 * Creates a watcher that patches the project straight from the watcher's thread.
+	 */
+	public CorkboardWatcher(CorkboardProject project, File file, Consumer<CorkboardChangeSet> listener) throws IOException {
+		this(project, file, Runnable::run, listener);
+	}
+	
+	/**
+	 * @param executor - runs the patching of the project, followed by the listener
+	 * @param listener - told about each reload that changed something; can be null
+	 */
+	public CorkboardWatcher(CorkboardProject project, File file, Executor executor, Consumer<CorkboardChangeSet> listener) throws IOException {
+		this.project = project;
+		this.file = file.getAbsoluteFile();
+		this.executor = executor;
+		this.listener = listener;
+		
+		Path directory = this.file.toPath().getParent();
+		
+		watchService = directory.getFileSystem().newWatchService();
+		directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		
+		thread = new Thread(this::watch, "Corkboard Watcher: " + this.file.getName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	public File getFile() {
+		return file;
+	}
+	
+	public long getDelay() {
+		return delay;
+	}
+	
+	/**
+	 * Sets how long (in milliseconds) to wait for the file to settle after a change before reloading it. Defaults to 100.
+	 */
+	public void setDelay(long delay) {
+		this.delay = delay;
+	}
+	
+	/**
+	 * Stops watching the file. A reload that's already been handed to the Executor still runs.
+	 */
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+	
+	private void watch() {
+		Path fileName = file.toPath().getFileName();
+		
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				boolean changed = isFileChanged(key, fileName);
+				
+				//Wait for the writes to finish, gathering up any more events
+				while ((key = watchService.poll(delay, TimeUnit.MILLISECONDS)) != null) {
+					changed |= isFileChanged(key, fileName);
+				}
+				
+				if (changed) {
+					reload();
+				}
+			}
+		} catch (ClosedWatchServiceException | InterruptedException e) {
+			//Closed
+		}
+	}
+	
+	private static boolean isFileChanged(WatchKey key, Path fileName) {
+		boolean changed = false;
+		
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (fileName.equals(event.context())) {
+				changed = true;
+			}
+		}
+		
+		key.reset();
+		return changed;
+	}
+	
+	private void reload() {
+		CorkboardProject update;
+		
+		try {
+			update = CorkboardJSONImporter.read(file);
+		} catch (IOException | RuntimeException e) {
+			
+			//Likely caught halfway through a save; the next save will be picked up instead
+			System.err.println("Corkboard Reload Warning: Couldn't read " + file + ": " + e);
+			return;
+		}
+		
+		executor.execute(() -> {
+			CorkboardChangeSet changes = project.patch(update);
+			
+			if (listener != null && !changes.isEmpty()) {
+				listener.accept(changes);
+			}
+		});
+	}
+	
+}
@@ -10,6 +10,15 @@ public abstract class Element {
 	protected final String ID;
 	protected String label;
 	
+	//The project list this element belongs to, if any; kept up to date by ElementList
+	ElementList<?> owner;
+	
+	//Where this element was added to its owner, which only needs to be in list order; kept up to date by ElementList's index
+	int listPosition;
+	
+	//Set once the element's project is frozen (see CorkboardProject.freeze())
+	boolean frozen;
+	
 	public enum ElementSearch {
 		ID,
 		LABEL;
@@ -29,7 +38,34 @@ public abstract class Element {
 	}
 	
 	public void setLabel(String label) {
+		checkFrozen();
+		
+		String previousLabel = this.label;
 		this.label = label;
+		
+		if (owner != null) {
+			owner.labelChanged(this, previousLabel);
+		}
+	}
+	
+	/**
+	 * @return true if this element belongs to a frozen CorkboardProject, and so can't be changed.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	void checkFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("This element belongs to a frozen CorkboardProject and can't be changed");
+		}
+	}
+	
+	/**
+	 * @return the CorkboardProject this element has been added to, or null if it isn't part of one.
+	 */
+	public CorkboardProject getProject() {
+		return (owner != null ? owner.getProject() : null);
 	}
 
 	/**
@@ -0,0 +1,524 @@
+package com.nokoriware.corkboard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The list type <code>CorkboardProject</code> keeps its Nodes and Connections in. It works like any other <code>FreezableList</code>, but it also keeps a hash index of its Elements by ID and by label.
+ * <br><br>
+ * Appending, removing, and renaming an Element with <code>setLabel()</code> update the index in place. Anything that moves Elements around (inserting in the middle, replacing,
+ * or sorting) marks the index as stale instead, and it's rebuilt on the next lookup. Lookups return the same Element that <code>Element.getElement()</code> would: the first
+ * match in list order.
+ */
+class ElementList<E extends Element> extends FreezableList<E> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final transient CorkboardProject project;
+	
+	//Null when stale. A rebuilt index is only published once it's complete, so lookups from other threads never see one halfway built.
+	private transient volatile Index<E> index;
+	
+	//Set once an Element has been added that was already in the list, after which an Element only stops belonging to the list once its last copy is removed
+	private transient boolean mayRepeat;
+	
+	public ElementList(CorkboardProject project) {
+		this.project = project;
+	}
+	
+	public CorkboardProject getProject() {
+		return project;
+	}
+	
+	/*
+	 * 
+	 * Lookups
+	 * 
+	 */
+	
+	public E getByID(String ID) {
+		return index().elementsByID.get(ID);
+	}
+	
+	public E getByLabel(String label) {
+		return index().elementsByLabel.get(label);
+	}
+	
+	private Index<E> index() {
+		Index<E> index = this.index;
+		
+		if (index != null) {
+			return index;
+		}
+		
+		index = new Index<>(size());
+		
+		for (int i = 0; i < size(); i++) {
+			E element = get(i);
+			
+			if (element != null) {
+				index.add(element, isOwned(element));
+			}
+		}
+		
+		if (!index.repeated) {
+			mayRepeat = false;
+		}
+		
+		this.index = index;
+		return index;
+	}
+	
+	/**
+	 * Trims the list, builds its index ahead of time, and makes it read-only. See {@link CorkboardProject#freeze()}.
+	 */
+	@Override
+	void freeze() {
+		index();
+		super.freeze();
+	}
+	
+	/**
+	 * Called by Elements in this list whenever their label changes.
+	 */
+	void labelChanged(Element element, String previousLabel) {
+		Index<E> index = this.index;
+		
+		if (index != null && !index.relabel(element, previousLabel, this)) {
+			this.index = null;
+		}
+		
+		project.elementChanged(element);
+	}
+	
+	private boolean isOwned(Element element) {
+		return element.owner == this;
+	}
+	
+	/**
+	 * Takes an Element that's just been removed out of the index, or marks the index as stale if it can't be.
+	 */
+	private void unindex(E element) {
+		Index<E> index = this.index;
+		
+		if (index != null && element != null && !index.remove(element)) {
+			this.index = null;
+		}
+	}
+	
+	/**
+	 * Elements are kept under each ID and label in list order. The first one is all a lookup needs, so it's kept in its own map, and any others are only kept (in a second
+	 * map) for when the first is removed or renamed. Each Element this list owns also remembers its place in the list, so a renamed Element can be put in the right place among
+	 * the Elements that already have its new label.
+	 */
+	private static class Index<E extends Element> {
+		
+		final HashMap<String, E> elementsByID;
+		final HashMap<String, E> elementsByLabel;
+		
+		final HashMap<String, ArrayList<E>> laterElementsByID = new HashMap<>();
+		final HashMap<String, ArrayList<E>> laterElementsByLabel = new HashMap<>();
+		
+		//Counts up as Elements are added, so it's always in list order (gaps left by removals don't matter)
+		int nextPosition;
+		
+		//Set if any Element is in the list twice, or is owned by another list, in which case changes can't be made in place
+		boolean approximate;
+		boolean repeated;
+		
+		Index(int size) {
+			int capacity = (int) (size / 0.75f) + 1;
+			
+			elementsByID = new HashMap<>(capacity);
+			elementsByLabel = new HashMap<>(capacity);
+		}
+		
+		/**
+		 * Adds an Element to the end of the index.
+		 */
+		void add(E element, boolean owned) {
+			if (owned) {
+				if (contains(elementsByID, laterElementsByID, element.getID(), element)) {
+					approximate = true;
+					repeated = true;
+				}
+				
+				element.listPosition = nextPosition++;
+				
+				if (nextPosition == Integer.MAX_VALUE) {
+					approximate = true;
+				}
+			} else {
+				approximate = true;
+			}
+			
+			add(elementsByID, laterElementsByID, element.getID(), element);
+			add(elementsByLabel, laterElementsByLabel, element.getLabel(), element);
+		}
+		
+		/**
+		 * @return false if the Element couldn't be removed in place, and the index needs rebuilding.
+		 */
+		boolean remove(E element) {
+			if (approximate) {
+				return false;
+			}
+			
+			return remove(elementsByID, laterElementsByID, element.getID(), element) && remove(elementsByLabel, laterElementsByLabel, element.getLabel(), element);
+		}
+		
+		/**
+		 * @return false if the Element couldn't be moved in place, and the index needs rebuilding.
+		 */
+		@SuppressWarnings("unchecked")
+		boolean relabel(Element renamed, String previousLabel, ElementList<E> list) {
+			if (approximate || !list.isOwned(renamed)) {
+				return false;
+			}
+			
+			E element = (E) renamed;
+			
+			if (!remove(elementsByLabel, laterElementsByLabel, previousLabel, element)) {
+				return false;
+			}
+			
+			String label = element.getLabel();
+			E first = elementsByLabel.get(label);
+			
+			if (first == null) {
+				elementsByLabel.put(label, element);
+				return true;
+			}
+			
+			//Somewhere among the Elements that already have the label, whose positions can only be trusted if they still belong to this list
+			ArrayList<E> later = laterElementsByLabel.get(label);
+			
+			if (!list.isOwned(first)) {
+				return false;
+			}
+			
+			if (later != null) {
+				for (E laterElement : later) {
+					if (!list.isOwned(laterElement)) {
+						return false;
+					}
+				}
+			}
+			
+			if (element.listPosition < first.listPosition) {
+				elementsByLabel.put(label, element);
+				laterElementsByLabel.computeIfAbsent(label, key -> new ArrayList<>(2)).add(0, first);
+				return true;
+			}
+			
+			if (later == null) {
+				later = new ArrayList<>(2);
+				laterElementsByLabel.put(label, later);
+			}
+			
+			int i = later.size();
+			
+			while (i > 0 && later.get(i - 1).listPosition > element.listPosition) {
+				i--;
+			}
+			
+			later.add(i, element);
+			return true;
+		}
+		
+		private static <E extends Element> void add(HashMap<String, E> first, HashMap<String, ArrayList<E>> later, String key, E element) {
+			if (first.containsKey(key)) {
+				later.computeIfAbsent(key, k -> new ArrayList<>(2)).add(element);
+			} else {
+				first.put(key, element);
+			}
+		}
+		
+		private static <E extends Element> boolean remove(HashMap<String, E> first, HashMap<String, ArrayList<E>> later, String key, E element) {
+			ArrayList<E> laterElements = later.get(key);
+			
+			if (first.get(key) == element) {
+				if (laterElements == null) {
+					first.remove(key);
+				} else {
+					first.put(key, laterElements.remove(0));
+					
+					if (laterElements.isEmpty()) {
+						later.remove(key);
+					}
+				}
+				
+				return true;
+			}
+			
+			if (laterElements != null) {
+				for (int i = 0; i < laterElements.size(); i++) {
+					if (laterElements.get(i) == element) {
+						laterElements.remove(i);
+						
+						if (laterElements.isEmpty()) {
+							later.remove(key);
+						}
+						
+						return true;
+					}
+				}
+			}
+			
+			return false;
+		}
+		
+		private static <E extends Element> boolean contains(HashMap<String, E> first, HashMap<String, ArrayList<E>> later, String key, E element) {
+			if (first.get(key) == element) {
+				return true;
+			}
+			
+			ArrayList<E> laterElements = later.get(key);
+			
+			if (laterElements != null) {
+				for (E laterElement : laterElements) {
+					if (laterElement == element) {
+						return true;
+					}
+				}
+			}
+			
+			return false;
+		}
+		
+	}
+	
+	/*
+	 * 
+	 * Ownership
+	 * 
+	 */
+	
+	private void adopt(E element) {
+		if (element != null) {
+			if (element.owner == this) {
+				mayRepeat = true;
+			}
+			
+			element.owner = this;
+		}
+	}
+	
+	/**
+	 * Called once an Element has been taken out of the list, so it no longer belongs to it (unless it's still in the list somewhere else).
+	 */
+	private void release(E element) {
+		if (element != null && element.owner == this && !(mayRepeat && contains(element))) {
+			element.owner = null;
+		}
+	}
+	
+	/*
+	 * 
+	 * ArrayList overrides
+	 * 
+	 */
+	
+	@Override
+	public boolean add(E element) {
+		checkFrozen();
+		
+		super.add(element);
+		adopt(element);
+		
+		//Appending can't change which element is found first, so the index can be updated in place
+		Index<E> index = this.index;
+		
+		if (index != null && element != null) {
+			index.add(element, true);
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public void add(int index, E element) {
+		checkFrozen();
+		
+		super.add(index, element);
+		adopt(element);
+		this.index = null;
+	}
+	
+	@Override
+	public boolean addAll(Collection<? extends E> elements) {
+		checkFrozen();
+		
+		ensureCapacity(size() + elements.size());
+		
+		for (E element : elements) {
+			add(element);
+		}
+		
+		return !elements.isEmpty();
+	}
+	
+	@Override
+	public boolean addAll(int index, Collection<? extends E> elements) {
+		checkFrozen();
+		
+		boolean modified = super.addAll(index, elements);
+		
+		for (E element : elements) {
+			adopt(element);
+		}
+		
+		this.index = null;
+		return modified;
+	}
+	
+	@Override
+	public E set(int index, E element) {
+		checkFrozen();
+		
+		//Swapping Elements (as Collections.swap() and shuffle() do) briefly puts one in the list twice, so the Element it replaces is kept as long as it's being moved around
+		boolean moved = (element != null && element.owner == this);
+		
+		E previous = super.set(index, element);
+		adopt(element);
+		
+		if (previous != element && !moved) {
+			release(previous);
+		}
+		
+		this.index = null;
+		return previous;
+	}
+	
+	@Override
+	public E remove(int index) {
+		checkFrozen();
+		
+		E removed = super.remove(index);
+		unindex(removed);
+		release(removed);
+		return removed;
+	}
+	
+	@Override
+	public boolean remove(Object object) {
+		int index = indexOf(object);
+		
+		if (index < 0) {
+			return false;
+		}
+		
+		remove(index);
+		return true;
+	}
+	
+	@Override
+	public boolean removeIf(Predicate<? super E> filter) {
+		checkFrozen();
+		
+		Objects.requireNonNull(filter);
+		
+		ArrayList<E> removed = new ArrayList<>();
+		
+		boolean modified = super.removeIf(element -> {
+			if (filter.test(element)) {
+				unindex(element);
+				removed.add(element);
+				return true;
+			}
+			
+			return false;
+		});
+		
+		for (E element : removed) {
+			release(element);
+		}
+		
+		return modified;
+	}
+	
+	@Override
+	public boolean removeAll(Collection<?> elements) {
+		Objects.requireNonNull(elements);
+		return removeIf(elements::contains);
+	}
+	
+	@Override
+	public boolean retainAll(Collection<?> elements) {
+		Objects.requireNonNull(elements);
+		return removeIf(element -> !elements.contains(element));
+	}
+	
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		checkFrozen();
+		
+		ArrayList<E> removed = new ArrayList<>(subList(fromIndex, toIndex));
+		
+		for (E element : removed) {
+			unindex(element);
+		}
+		
+		super.removeRange(fromIndex, toIndex);
+		
+		for (E element : removed) {
+			release(element);
+		}
+	}
+	
+	@Override
+	public void clear() {
+		checkFrozen();
+		
+		ArrayList<E> removed = new ArrayList<>(this);
+		
+		super.clear();
+		mayRepeat = false;
+		
+		for (E element : removed) {
+			release(element);
+		}
+		
+		this.index = null;
+	}
+	
+	@Override
+	public void replaceAll(UnaryOperator<E> operator) {
+		checkFrozen();
+		
+		Objects.requireNonNull(operator);
+		
+		ArrayList<E> replaced = new ArrayList<>();
+		
+		super.replaceAll(element -> {
+			E replacement = operator.apply(element);
+			
+			if (replacement != element) {
+				replaced.add(element);
+				adopt(replacement);
+			}
+			
+			return replacement;
+		});
+		
+		for (E element : replaced) {
+			release(element);
+		}
+		
+		this.index = null;
+	}
+	
+	@Override
+	public void sort(Comparator<? super E> comparator) {
+		checkFrozen();
+		
+		super.sort(comparator);
+		this.index = null;
+	}
+	
+}
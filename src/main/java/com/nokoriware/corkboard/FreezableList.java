@@ -0,0 +1,257 @@
+package com.nokoriware.corkboard;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The list type Nodes keep their attributes and components in (and the base of <code>ElementList</code>). It's an ordinary <code>ArrayList</code>, except that it can tell its owner
+ * whenever it's changed, so anything worked out from it (like an attribute index) can be thrown away. Once it's frozen (see {@link CorkboardProject#freeze()}), it's trimmed to
+ * size and every change throws an <code>UnsupportedOperationException</code>.
+ */
+class FreezableList<E> extends ArrayList<E> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	//Shared by every frozen Node with nothing in a list
+	private static final FreezableList<Object> EMPTY = new FreezableList<>();
+	
+	static {
+		EMPTY.freeze();
+	}
+	
+	private transient boolean frozen;
+	
+	//Run after every change, if set
+	private transient Runnable changeListener;
+	
+	public FreezableList() {
+		super();
+	}
+	
+	public FreezableList(Collection<? extends E> elements) {
+		super(elements);
+	}
+	
+	/**
+	 * @return a frozen, empty list
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> FreezableList<E> empty() {
+		return (FreezableList<E>) EMPTY;
+	}
+	
+	void setChangeListener(Runnable changeListener) {
+		this.changeListener = changeListener;
+	}
+	
+	void changed() {
+		if (changeListener != null) {
+			changeListener.run();
+		}
+	}
+	
+	void freeze() {
+		trimToSize();
+		frozen = true;
+	}
+	
+	boolean isFrozen() {
+		return frozen;
+	}
+	
+	void checkFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("This list belongs to a frozen CorkboardProject and can't be changed");
+		}
+	}
+	
+	/*
+	 * 
+	 * ArrayList overrides
+	 * 
+	 */
+	
+	@Override
+	public boolean add(E element) {
+		checkFrozen();
+		
+		super.add(element);
+		changed();
+		return true;
+	}
+	
+	@Override
+	public void add(int index, E element) {
+		checkFrozen();
+		
+		super.add(index, element);
+		changed();
+	}
+	
+	@Override
+	public boolean addAll(Collection<? extends E> elements) {
+		checkFrozen();
+		return changed(super.addAll(elements));
+	}
+	
+	@Override
+	public boolean addAll(int index, Collection<? extends E> elements) {
+		checkFrozen();
+		return changed(super.addAll(index, elements));
+	}
+	
+	@Override
+	public E set(int index, E element) {
+		checkFrozen();
+		
+		E previous = super.set(index, element);
+		changed();
+		return previous;
+	}
+	
+	@Override
+	public E remove(int index) {
+		checkFrozen();
+		
+		E removed = super.remove(index);
+		changed();
+		return removed;
+	}
+	
+	@Override
+	public boolean remove(Object object) {
+		checkFrozen();
+		return changed(super.remove(object));
+	}
+	
+	@Override
+	public boolean removeIf(Predicate<? super E> filter) {
+		checkFrozen();
+		return changed(super.removeIf(filter));
+	}
+	
+	@Override
+	public boolean removeAll(Collection<?> elements) {
+		checkFrozen();
+		return changed(super.removeAll(elements));
+	}
+	
+	@Override
+	public boolean retainAll(Collection<?> elements) {
+		checkFrozen();
+		return changed(super.retainAll(elements));
+	}
+	
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		checkFrozen();
+		
+		super.removeRange(fromIndex, toIndex);
+		changed();
+	}
+	
+	@Override
+	public void clear() {
+		checkFrozen();
+		
+		super.clear();
+		changed();
+	}
+	
+	@Override
+	public void replaceAll(UnaryOperator<E> operator) {
+		checkFrozen();
+		
+		super.replaceAll(operator);
+		changed();
+	}
+	
+	@Override
+	public void sort(Comparator<? super E> comparator) {
+		checkFrozen();
+		
+		super.sort(comparator);
+		changed();
+	}
+	
+	private boolean changed(boolean modified) {
+		if (modified) {
+			changed();
+		}
+		
+		return modified;
+	}
+	
+	/**
+	 * <code>ArrayList</code>'s own sub-lists write to the backing array directly, so this one routes every change back through this list instead. A frozen list hands out read-only ones.
+	 */
+	@Override
+	public List<E> subList(int fromIndex, int toIndex) {
+		Objects.checkFromToIndex(fromIndex, toIndex, size());
+		
+		List<E> subList = new SubList(fromIndex, toIndex - fromIndex);
+		return (frozen ? Collections.unmodifiableList(subList) : subList);
+	}
+	
+	private class SubList extends AbstractList<E> implements RandomAccess {
+		
+		private final int offset;
+		private int size;
+		
+		public SubList(int offset, int size) {
+			this.offset = offset;
+			this.size = size;
+		}
+		
+		@Override
+		public E get(int index) {
+			Objects.checkIndex(index, size);
+			return FreezableList.this.get(offset + index);
+		}
+		
+		@Override
+		public int size() {
+			return size;
+		}
+		
+		@Override
+		public E set(int index, E element) {
+			Objects.checkIndex(index, size);
+			return FreezableList.this.set(offset + index, element);
+		}
+		
+		@Override
+		public void add(int index, E element) {
+			Objects.checkIndex(index, size + 1);
+			FreezableList.this.add(offset + index, element);
+			size++;
+			modCount++;
+		}
+		
+		@Override
+		public E remove(int index) {
+			Objects.checkIndex(index, size);
+			E removed = FreezableList.this.remove(offset + index);
+			size--;
+			modCount++;
+			return removed;
+		}
+		
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			FreezableList.this.removeRange(offset + fromIndex, offset + toIndex);
+			size -= toIndex - fromIndex;
+			modCount++;
+		}
+		
+	}
+	
+}
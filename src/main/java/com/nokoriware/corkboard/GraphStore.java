@@ -0,0 +1,320 @@
+package com.nokoriware.corkboard;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A read-only copy of a project's graph in flat arrays, for code that walks very large boards (procedural generation, simulation, analysis) and would otherwise spend most of
+ * its time following references from Node to Connection to Node. Get one with {@link CorkboardProject#getGraphStore()}.
+ * <br><br>
+ * Nodes and Connections are numbered in project order. Each Connection's ends are kept as Node numbers in two <code>int[]</code>s, and the Connections leaving and entering each
+ * Node are kept in compressed sparse row form: one <code>int[]</code> of Connection numbers sorted by Node, and one of offsets into it. IDs and labels are stored once each in
+ * a string table and referred to by number. The Node and Connection objects themselves can still be had from their numbers, for anything the store doesn't cover.
+ * <br><br>
+ * Example:
+ * <pre>
+ * GraphStore graph = project.getGraphStore();
+ * 
+ * for (int i = 0; i &lt; graph.getOutDegree(node); i++) {
+ *     int connection = graph.getOutConnection(node, i);
+ *     visit(graph.getTarget(connection), graph.getConnectionLabel(connection));
+ * }
+ * </pre>
+ * The store is a snapshot: it doesn't change when the project does. Since nothing in it ever changes, it can be read from any number of threads.
+ */
+public class GraphStore {
+	
+	private final Node[] nodes;
+	private final Connection[] connections;
+	
+	//Node numbers by Node, in an open addressing table keyed on identity, so the numbers aren't boxed
+	private final Node[] numberKeys;
+	private final int[] numberValues;
+	
+	//Every distinct ID and label, referred to by position (or -1 for null)
+	private final String[] strings;
+	
+	private final int[] nodeIDs, nodeLabels;
+	private final int[] connectionIDs, connectionLabels;
+	private final BitSet labelled;
+	
+	//Node numbers, or -1 for ends that couldn't be found on import
+	private final int[] sources, targets;
+	
+	//Connections leaving Node n are outConnections[outOffsets[n]] up to outConnections[outOffsets[n + 1]], in project order; the same goes for those entering it
+	private final int[] outOffsets, outConnections;
+	private final int[] inOffsets, inConnections;
+	
+	GraphStore(List<Node> nodeList, List<Connection> connectionList) {
+		nodes = nodeList.toArray(new Node[0]);
+		connections = connectionList.toArray(new Connection[0]);
+		
+		int capacity = Integer.highestOneBit(Math.max(nodes.length, 1) * 2 - 1) << 1;
+		numberKeys = new Node[capacity];
+		numberValues = new int[capacity];
+		
+		for (int i = 0; i < nodes.length; i++) {
+			int slot = getSlot(nodes[i]);
+			
+			//Nodes listed more than once keep their first number
+			if (numberKeys[slot] == null) {
+				numberKeys[slot] = nodes[i];
+				numberValues[slot] = i;
+			}
+		}
+		
+		/*
+		 * Strings
+		 */
+		
+		HashMap<String, Integer> stringNumbers = new HashMap<>();
+		ArrayList<String> stringList = new ArrayList<>();
+		
+		nodeIDs = new int[nodes.length];
+		nodeLabels = new int[nodes.length];
+		
+		for (int i = 0; i < nodes.length; i++) {
+			nodeIDs[i] = addString(nodes[i].getID(), stringNumbers, stringList);
+			nodeLabels[i] = addString(nodes[i].getLabel(), stringNumbers, stringList);
+		}
+		
+		connectionIDs = new int[connections.length];
+		connectionLabels = new int[connections.length];
+		labelled = new BitSet(connections.length);
+		
+		for (int c = 0; c < connections.length; c++) {
+			connectionIDs[c] = addString(connections[c].getID(), stringNumbers, stringList);
+			connectionLabels[c] = addString(connections[c].getLabel(), stringNumbers, stringList);
+			
+			if (ConnectionList.isLabelled(connections[c])) {
+				labelled.set(c);
+			}
+		}
+		
+		strings = stringList.toArray(new String[0]);
+		
+		/*
+		 * Ends
+		 */
+		
+		sources = new int[connections.length];
+		targets = new int[connections.length];
+		
+		for (int c = 0; c < connections.length; c++) {
+			sources[c] = getNodeNumber(connections[c].getSource());
+			targets[c] = getNodeNumber(connections[c].getTarget());
+		}
+		
+		outOffsets = new int[nodes.length + 1];
+		outConnections = group(sources, outOffsets);
+		
+		inOffsets = new int[nodes.length + 1];
+		inConnections = group(targets, inOffsets);
+	}
+	
+	/*
+	 * 
+	 * Nodes
+	 * 
+	 */
+	
+	public int getNodeCount() {
+		return nodes.length;
+	}
+	
+	public Node getNode(int node) {
+		return nodes[node];
+	}
+	
+	/**
+	 * @return the Node's number, or -1 if it isn't part of the store (or is null).
+	 */
+	public int getNodeNumber(Node node) {
+		if (node == null) {
+			return -1;
+		}
+		
+		int slot = getSlot(node);
+		return (numberKeys[slot] != null ? numberValues[slot] : -1);
+	}
+	
+	/**
+	 * @return the Node's slot in the number table, or the empty slot it would go in
+	 */
+	private int getSlot(Node node) {
+		int mask = numberKeys.length - 1;
+		int slot = System.identityHashCode(node) & mask;
+		
+		while (numberKeys[slot] != null && numberKeys[slot] != node) {
+			slot = (slot + 1) & mask;
+		}
+		
+		return slot;
+	}
+	
+	public String getNodeID(int node) {
+		return getString(nodeIDs[node]);
+	}
+	
+	public String getNodeLabel(int node) {
+		return getString(nodeLabels[node]);
+	}
+	
+	/**
+	 * @return how many Connections leave the Node (loops included).
+	 */
+	public int getOutDegree(int node) {
+		return outOffsets[node + 1] - outOffsets[node];
+	}
+	
+	/**
+	 * @return the number of the <code>i</code>th Connection leaving the Node, in project order.
+	 */
+	public int getOutConnection(int node, int i) {
+		return outConnections[outOffsets[node] + i];
+	}
+	
+	/**
+	 * @return how many Connections enter the Node (loops included).
+	 */
+	public int getInDegree(int node) {
+		return inOffsets[node + 1] - inOffsets[node];
+	}
+	
+	/**
+	 * @return the number of the <code>i</code>th Connection entering the Node, in project order.
+	 */
+	public int getInConnection(int node, int i) {
+		return inConnections[inOffsets[node] + i];
+	}
+	
+	/*
+	 * 
+	 * Connections
+	 * 
+	 */
+	
+	public int getConnectionCount() {
+		return connections.length;
+	}
+	
+	public Connection getConnection(int connection) {
+		return connections[connection];
+	}
+	
+	/**
+	 * @return the number of the Node the Connection comes from, or -1 if it couldn't be found on import.
+	 */
+	public int getSource(int connection) {
+		return sources[connection];
+	}
+	
+	/**
+	 * @return the number of the Node the Connection leads to, or -1 if it couldn't be found on import.
+	 */
+	public int getTarget(int connection) {
+		return targets[connection];
+	}
+	
+	public String getConnectionID(int connection) {
+		return getString(connectionIDs[connection]);
+	}
+	
+	public String getConnectionLabel(int connection) {
+		return getString(connectionLabels[connection]);
+	}
+	
+	/**
+	 * @return true if the Connection has a label that isn't blank, the same as {@link Node#getConnectionsByLabel(Node.LabelType)} goes by.
+	 */
+	public boolean isLabelled(int connection) {
+		return labelled.get(connection);
+	}
+	
+	/*
+	 * 
+	 * Strings
+	 * 
+	 */
+	
+	/**
+	 * @return how many distinct IDs and labels there are across the store.
+	 */
+	public int getStringCount() {
+		return strings.length;
+	}
+	
+	/**
+	 * @return the number of the Node's label in the string table, so labels can be compared (or used as keys) without comparing strings. Equal labels have equal numbers.
+	 */
+	public int getNodeLabelNumber(int node) {
+		return nodeLabels[node];
+	}
+	
+	/**
+	 * @return the number of the Connection's label in the string table. Equal labels have equal numbers.
+	 */
+	public int getConnectionLabelNumber(int connection) {
+		return connectionLabels[connection];
+	}
+	
+	/**
+	 * @return the string with the given number, or null for -1.
+	 */
+	public String getString(int string) {
+		return (string >= 0 ? strings[string] : null);
+	}
+	
+	/*
+	 * 
+	 * Utilities
+	 * 
+	 */
+	
+	private static int addString(String string, HashMap<String, Integer> stringNumbers, ArrayList<String> stringList) {
+		if (string == null) {
+			return -1;
+		}
+		
+		Integer number = stringNumbers.get(string);
+		
+		if (number == null) {
+			number = stringList.size();
+			stringNumbers.put(string, number);
+			stringList.add(string);
+		}
+		
+		return number;
+	}
+	
+	/**
+	 * Sorts the Connections by the Node at one end, keeping them in project order for each Node, and fills in <code>offsets</code>. Connections with no Node at that end are
+	 * left out.
+	 */
+	private int[] group(int[] ends, int[] offsets) {
+		for (int end : ends) {
+			if (end >= 0) {
+				offsets[end + 1]++;
+			}
+		}
+		
+		for (int n = 0; n < nodes.length; n++) {
+			offsets[n + 1] += offsets[n];
+		}
+		
+		int[] grouped = new int[offsets[nodes.length]];
+		int[] next = new int[nodes.length];
+		System.arraycopy(offsets, 0, next, 0, nodes.length);
+		
+		for (int c = 0; c < ends.length; c++) {
+			if (ends[c] >= 0) {
+				grouped[next[ends[c]]++] = c;
+			}
+		}
+		
+		return grouped;
+	}
+	
+}
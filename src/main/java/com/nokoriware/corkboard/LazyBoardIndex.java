@@ -0,0 +1,563 @@
+package com.nokoriware.corkboard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
+
+import com.nokoriware.corkboard.CorkboardJSONImporter.EdgeContainer;
+import com.nokoriware.corkboard.CorkboardJSONImporter.NodeContainer;
+
+/**
+ * Where every Node and edge is in a Corkboard export, by byte offset, along with just enough about each to find them and link them together: Node IDs and labels, and which
+ * Nodes each edge joins. See {@link LazyCorkboardProject}.
+ * <br><br>
+ * An index is built with one scan over the file, which finds each Node and edge object by matching braces, reads it to pick out its IDs, and lets it go. It can be saved next
+ * to the export, so later runs can skip the scan, as long as the export hasn't changed since.
+ */
+class LazyBoardIndex {
+	
+	private static final int SCAN_BUFFER_SIZE = 1 << 20;
+	
+	private static final int MAGIC = 0x43424C49; //"CBLI"
+	private static final int VERSION = 1;
+	
+	//Which part of the export the scan is in
+	private static final int NONE = 0, NODES = 1, EDGES = 2, VIEWPORT = 3;
+	
+	private static final JsonReaderFactory READER_FACTORY = Json.createReaderFactory(null);
+	
+	//The export the index was built from, so a saved index can tell when it's out of date
+	long fileSize;
+	long lastModified;
+	
+	double viewportX, viewportY, viewportZoom;
+	int startingNode = -1;
+	
+	int nodeCount;
+	long[] nodeOffsets;
+	int[] nodeLengths;
+	String[] nodeIDs;
+	String[] nodeLabels;
+	
+	int edgeCount;
+	long[] edgeOffsets;
+	int[] edgeLengths;
+	int[] edgeSources;
+	int[] edgeTargets;
+	
+	/*
+	 * Worked out from the above once the index has been scanned or loaded
+	 */
+	
+	private HashMap<String, Integer> nodesByID;
+	
+	//Jumpers skip over themselves when searching by label, so the second Node with each label is kept as well (the same as the importer)
+	private HashMap<String, Integer> nodesByLabel;
+	private HashMap<String, Integer> secondNodesByLabel;
+	
+	//Each Node's edges, in file order: incidences[incidenceOffsets[n]] up to incidences[incidenceOffsets[n + 1]]
+	private int[] incidenceOffsets;
+	private int[] incidences;
+	
+	private LazyBoardIndex() {}
+	
+	/*
+	 * 
+	 * Lookups
+	 * 
+	 */
+	
+	/**
+	 * @return the index of the first Node with the given ID, or -1 if there isn't one.
+	 */
+	int getNodeByID(String ID) {
+		Integer node = nodesByID.get(ID);
+		return (node != null ? node : -1);
+	}
+	
+	int getNodeByLabel(String label) {
+		Integer node = nodesByLabel.get(label);
+		return (node != null ? node : -1);
+	}
+	
+	/**
+	 * @return the index of the first Node other than <code>jumper</code> that shares its label, or -1 if there isn't one.
+	 */
+	int getJumperTarget(int jumper) {
+		int target = getNodeByLabel(nodeLabels[jumper]);
+		
+		if (target != jumper) {
+			return target;
+		}
+		
+		Integer second = secondNodesByLabel.get(nodeLabels[jumper]);
+		return (second != null ? second : -1);
+	}
+	
+	/**
+	 * @return the edges the Node is at either end of, in file order. Loops are listed twice, once for each end, the same way the importer connects them.
+	 */
+	int[] getEdges(int node) {
+		return Arrays.copyOfRange(incidences, incidenceOffsets[node], incidenceOffsets[node + 1]);
+	}
+	
+	private void link() {
+		int capacity = (int) (nodeCount / 0.75f) + 1;
+		
+		nodesByID = new HashMap<>(capacity);
+		nodesByLabel = new HashMap<>(capacity);
+		secondNodesByLabel = new HashMap<>();
+		
+		for (int i = 0; i < nodeCount; i++) {
+			nodesByID.putIfAbsent(nodeIDs[i], i);
+			
+			if (nodesByLabel.putIfAbsent(nodeLabels[i], i) != null) {
+				secondNodesByLabel.putIfAbsent(nodeLabels[i], i);
+			}
+		}
+		
+		//Counted, then filled in edge order, so each Node's edges come out in the same order as they're listed in the file
+		incidenceOffsets = new int[nodeCount + 1];
+		
+		for (int e = 0; e < edgeCount; e++) {
+			if (edgeSources[e] >= 0) {
+				incidenceOffsets[edgeSources[e] + 1]++;
+			}
+			
+			if (edgeTargets[e] >= 0) {
+				incidenceOffsets[edgeTargets[e] + 1]++;
+			}
+		}
+		
+		for (int i = 0; i < nodeCount; i++) {
+			incidenceOffsets[i + 1] += incidenceOffsets[i];
+		}
+		
+		incidences = new int[incidenceOffsets[nodeCount]];
+		int[] next = Arrays.copyOf(incidenceOffsets, nodeCount);
+		
+		for (int e = 0; e < edgeCount; e++) {
+			if (edgeSources[e] >= 0) {
+				incidences[next[edgeSources[e]]++] = e;
+			}
+			
+			if (edgeTargets[e] >= 0) {
+				incidences[next[edgeTargets[e]]++] = e;
+			}
+		}
+	}
+	
+	/*
+	 * 
+	 * Scanning
+	 * 
+	 */
+	
+	/**
+	 * Builds an index by scanning the whole export once.
+	 */
+	static LazyBoardIndex scan(FileChannel channel) throws IOException {
+		LazyBoardIndex index = new LazyBoardIndex();
+		index.fileSize = channel.size();
+		
+		Scan scan = new Scan(index);
+		
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		byte[] bytes = buffer.array();
+		long position = 0;
+		int count;
+		
+		while ((count = channel.read(buffer, position)) > 0) {
+			scan.accept(bytes, count, position);
+			position += count;
+			buffer.clear();
+		}
+		
+		if (scan.depth != 0) {
+			throw new IOException("Corkboard export ends before its JSON is complete");
+		}
+		
+		scan.finish();
+		index.link();
+		
+		return index;
+	}
+	
+	/**
+	 * Follows the JSON's structure one byte at a time, keeping just enough state to know when a Node, edge, or the viewport starts and ends. Strings are tracked so braces
+	 * inside them (in HTML bodies, say) are ignored.
+	 */
+	private static class Scan {
+		
+		private final LazyBoardIndex index;
+		
+		private int depth;
+		private boolean inString, escape;
+		private int section = NONE;
+		
+		//The last string read directly inside the root object, which is the key of whatever comes next
+		private final ByteArray key = new ByteArray();
+		
+		private boolean capturing;
+		private long elementStart;
+		private final ByteArray element = new ByteArray();
+		
+		private final ArrayList<String> nodeIDs = new ArrayList<>();
+		private final ArrayList<String> nodeLabels = new ArrayList<>();
+		private long[] nodeOffsets = new long[1024];
+		private int[] nodeLengths = new int[1024];
+		
+		private final ArrayList<String> edgeSourceIDs = new ArrayList<>();
+		private final ArrayList<String> edgeTargetIDs = new ArrayList<>();
+		private long[] edgeOffsets = new long[1024];
+		private int[] edgeLengths = new int[1024];
+		
+		public Scan(LazyBoardIndex index) {
+			this.index = index;
+		}
+		
+		private void accept(byte[] bytes, int count, long position) throws IOException {
+			for (int i = 0; i < count; i++) {
+				byte b = bytes[i];
+				
+				if (capturing) {
+					element.add(b);
+				}
+				
+				if (inString) {
+					if (escape) {
+						escape = false;
+					} else if (b == '\\') {
+						escape = true;
+					} else if (b == '"') {
+						inString = false;
+					} else if (depth == 1) {
+						key.add(b);
+					}
+					
+					continue;
+				}
+				
+				switch (b) {
+				case '"':
+					inString = true;
+					
+					if (depth == 1) {
+						key.clear();
+					}
+					
+					break;
+				case '{':
+				case '[':
+					if (depth == 1) {
+						section = getSection(b);
+						
+						if (section == VIEWPORT) {
+							startElement(b, position + i);
+						}
+					} else if (depth == 2 && b == '{' && (section == NODES || section == EDGES)) {
+						startElement(b, position + i);
+					}
+					
+					depth++;
+					break;
+				case '}':
+				case ']':
+					depth--;
+					
+					if (capturing && depth == (section == VIEWPORT ? 1 : 2)) {
+						capturing = false;
+						finishElement(position + i + 1);
+					}
+					
+					if (depth == 1) {
+						section = NONE;
+					}
+					
+					break;
+				}
+			}
+		}
+		
+		private int getSection(byte b) {
+			String name = key.toString();
+			
+			if (b == '[' && name.equals("nodes")) {
+				return NODES;
+			} else if (b == '[' && name.equals("edges")) {
+				return EDGES;
+			} else if (b == '{' && name.equals("viewport")) {
+				return VIEWPORT;
+			}
+			
+			return NONE;
+		}
+		
+		private void startElement(byte b, long offset) {
+			capturing = true;
+			elementStart = offset;
+			element.clear();
+			element.add(b);
+		}
+		
+		private void finishElement(long end) throws IOException {
+			long length = end - elementStart;
+			
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Corkboard element at byte " + elementStart + " is too large to index");
+			}
+			
+			JsonObject object = readObject(element.bytes, element.size);
+			
+			if (section == NODES) {
+				//Read the same way the importer reads it, so IDs, labels, and the starting Node all come out the same
+				NodeContainer nodeContainer = CorkboardJSONImporter.readNode(object, null);
+				int node = nodeIDs.size();
+				
+				nodeOffsets = grow(nodeOffsets, node);
+				nodeLengths = grow(nodeLengths, node);
+				
+				nodeIDs.add(nodeContainer.node.getID());
+				nodeLabels.add(nodeContainer.node.getLabel());
+				nodeOffsets[node] = elementStart;
+				nodeLengths[node] = (int) length;
+				
+				if (nodeContainer.isStartingNode) {
+					index.startingNode = node;
+				}
+			} else if (section == EDGES) {
+				EdgeContainer edgeContainer = CorkboardJSONImporter.readEdge(object, null);
+				int edge = edgeSourceIDs.size();
+				
+				edgeOffsets = grow(edgeOffsets, edge);
+				edgeLengths = grow(edgeLengths, edge);
+				
+				edgeSourceIDs.add(edgeContainer.sourceID);
+				edgeTargetIDs.add(edgeContainer.targetID);
+				edgeOffsets[edge] = elementStart;
+				edgeLengths[edge] = (int) length;
+			} else if (section == VIEWPORT) {
+				index.viewportX = object.getJsonNumber("x").doubleValue();
+				index.viewportY = object.getJsonNumber("y").doubleValue();
+				index.viewportZoom = object.getJsonNumber("zoom").doubleValue();
+			}
+			
+			//Don't hold on to the largest body in the board for the rest of the scan
+			if (element.bytes.length > SCAN_BUFFER_SIZE) {
+				element.bytes = new byte[256];
+			}
+		}
+		
+		private void finish() {
+			index.nodeCount = nodeIDs.size();
+			index.nodeIDs = nodeIDs.toArray(new String[0]);
+			index.nodeLabels = nodeLabels.toArray(new String[0]);
+			index.nodeOffsets = Arrays.copyOf(nodeOffsets, index.nodeCount);
+			index.nodeLengths = Arrays.copyOf(nodeLengths, index.nodeCount);
+			
+			HashMap<String, Integer> nodesByID = new HashMap<>((int) (index.nodeCount / 0.75f) + 1);
+			
+			for (int i = 0; i < index.nodeCount; i++) {
+				nodesByID.putIfAbsent(index.nodeIDs[i], i);
+			}
+			
+			index.edgeCount = edgeSourceIDs.size();
+			index.edgeOffsets = Arrays.copyOf(edgeOffsets, index.edgeCount);
+			index.edgeLengths = Arrays.copyOf(edgeLengths, index.edgeCount);
+			index.edgeSources = new int[index.edgeCount];
+			index.edgeTargets = new int[index.edgeCount];
+			
+			for (int e = 0; e < index.edgeCount; e++) {
+				index.edgeSources[e] = nodesByID.getOrDefault(edgeSourceIDs.get(e), -1);
+				index.edgeTargets[e] = nodesByID.getOrDefault(edgeTargetIDs.get(e), -1);
+			}
+		}
+		
+	}
+	
+	/**
+	 * @return the JSON object in the given bytes, which are UTF-8 (as JSON always is).
+	 */
+	static JsonObject readObject(byte[] bytes, int length) {
+		try (JsonReader reader = READER_FACTORY.createReader(new InputStreamReader(new ByteArrayInputStream(bytes, 0, length), StandardCharsets.UTF_8))) {
+			return reader.readObject();
+		}
+	}
+	
+	/*
+	 * 
+	 * Saving
+	 * 
+	 */
+	
+	/**
+	 * Loads a saved index, if there's one for the export as it is now.
+	 * 
+	 * @return the saved index, or null if there isn't one or it's out of date.
+	 */
+	static LazyBoardIndex load(Path indexPath, long fileSize, long lastModified) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath), 1 << 16))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return null;
+			}
+			
+			LazyBoardIndex index = new LazyBoardIndex();
+			index.fileSize = in.readLong();
+			index.lastModified = in.readLong();
+			
+			if (index.fileSize != fileSize || index.lastModified != lastModified) {
+				return null;
+			}
+			
+			index.viewportX = in.readDouble();
+			index.viewportY = in.readDouble();
+			index.viewportZoom = in.readDouble();
+			index.startingNode = in.readInt();
+			
+			index.nodeCount = in.readInt();
+			index.nodeOffsets = new long[index.nodeCount];
+			index.nodeLengths = new int[index.nodeCount];
+			index.nodeIDs = new String[index.nodeCount];
+			index.nodeLabels = new String[index.nodeCount];
+			
+			for (int i = 0; i < index.nodeCount; i++) {
+				index.nodeOffsets[i] = in.readLong();
+				index.nodeLengths[i] = in.readInt();
+				index.nodeIDs[i] = readString(in);
+				index.nodeLabels[i] = readString(in);
+			}
+			
+			index.edgeCount = in.readInt();
+			index.edgeOffsets = new long[index.edgeCount];
+			index.edgeLengths = new int[index.edgeCount];
+			index.edgeSources = new int[index.edgeCount];
+			index.edgeTargets = new int[index.edgeCount];
+			
+			for (int e = 0; e < index.edgeCount; e++) {
+				index.edgeOffsets[e] = in.readLong();
+				index.edgeLengths[e] = in.readInt();
+				index.edgeSources[e] = in.readInt();
+				index.edgeTargets[e] = in.readInt();
+			}
+			
+			index.link();
+			return index;
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+	
+	void save(Path indexPath) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(fileSize);
+			out.writeLong(lastModified);
+			
+			out.writeDouble(viewportX);
+			out.writeDouble(viewportY);
+			out.writeDouble(viewportZoom);
+			out.writeInt(startingNode);
+			
+			out.writeInt(nodeCount);
+			
+			for (int i = 0; i < nodeCount; i++) {
+				out.writeLong(nodeOffsets[i]);
+				out.writeInt(nodeLengths[i]);
+				writeString(out, nodeIDs[i]);
+				writeString(out, nodeLabels[i]);
+			}
+			
+			out.writeInt(edgeCount);
+			
+			for (int e = 0; e < edgeCount; e++) {
+				out.writeLong(edgeOffsets[e]);
+				out.writeInt(edgeLengths[e]);
+				out.writeInt(edgeSources[e]);
+				out.writeInt(edgeTargets[e]);
+			}
+		}
+	}
+	
+	/*
+	 * 
+	 * Utilities
+	 * 
+	 */
+	
+	//Not writeUTF, which can't write strings longer than 64 KB
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+		
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		
+		if (length < 0) {
+			return null;
+		}
+		
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static long[] grow(long[] array, int index) {
+		return (index < array.length ? array : Arrays.copyOf(array, array.length * 2));
+	}
+	
+	private static int[] grow(int[] array, int index) {
+		return (index < array.length ? array : Arrays.copyOf(array, array.length * 2));
+	}
+	
+	private static class ByteArray {
+		
+		private byte[] bytes = new byte[256];
+		private int size;
+		
+		private void add(byte b) {
+			if (size == bytes.length) {
+				bytes = Arrays.copyOf(bytes, size * 2);
+			}
+			
+			bytes[size++] = b;
+		}
+		
+		private void clear() {
+			size = 0;
+		}
+		
+		@Override
+		public String toString() {
+			return new String(bytes, 0, size, StandardCharsets.UTF_8);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,46 @@
+package com.nokoriware.corkboard;
+
+/**
+ * A Connection in a LazyCorkboardProject. Instead of holding on to its Nodes, it holds their numbers, and loads them from the project when they're asked for, so following a
+ * Connection loads the Node at the other end only once it's actually needed.
+ */
+class LazyConnection extends Connection {
+	
+	private final LazyCorkboardProject project;
+	private final int source, target;
+	
+	LazyConnection(String ID, String label, LazyCorkboardProject project, int source, int target) {
+		super(ID, label, null, null);
+		
+		this.project = project;
+		this.source = source;
+		this.target = target;
+		
+		freeze(null);
+	}
+	
+	/**
+	 * @return the Node this Connection comes from, loading it if it isn't cached, or null if it couldn't be found on import.
+	 */
+	@Override
+	public Node getSource() {
+		return (source >= 0 ? project.getNode(source) : null);
+	}
+	
+	/**
+	 * @return the Node this Connection leads to, loading it if it isn't cached, or null if it couldn't be found on import.
+	 */
+	@Override
+	public Node getTarget() {
+		return (target >= 0 ? project.getNode(target) : null);
+	}
+	
+	int getSourceIndex() {
+		return source;
+	}
+	
+	int getTargetIndex() {
+		return target;
+	}
+	
+}
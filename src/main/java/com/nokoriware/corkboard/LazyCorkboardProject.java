@@ -0,0 +1,440 @@
+package com.nokoriware.corkboard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.json.JsonObject;
+
+import com.nokoriware.corkboard.CorkboardImportListener.Reference;
+import com.nokoriware.corkboard.CorkboardJSONImporter.EdgeContainer;
+import com.nokoriware.corkboard.CorkboardJSONImporter.NodeContainer;
+
+/**
+ * A read-only Corkboard project that loads its Nodes from the export as they're used, for boards too large to keep on the heap when only part of them is played at a time.
+ * Open one with {@link CorkboardJSONImporter#readLazy(Path)}.
+ * <br><br>
+ * Opening the project only reads an index of where each Node and edge is in the file (see {@link CorkboardJSONImporter#readLazy(Path, Path)} to save it for next time). A Node
+ * is read the first time it's looked up by ID or label, or reached through a Connection, and then kept in a cache of the most recently used Nodes. Once the cache is full, the
+ * least recently used Node is dropped, so memory follows the Nodes in play rather than the size of the board.
+ * <br><br>
+ * Loaded Nodes work like any other frozen Node, with a few differences:
+ * <ul>
+ * <li>{@link Connection#getSource()} and {@link Connection#getTarget()} load the Node at each end as they're called, so a Node's neighbours are only read when they're visited.</li>
+ * <li>A Node's components and jumper target are loaded along with it. Components and jumper targets that aren't on the board are reported to the import settings'
+ * {@link CorkboardImportListener} (see {@link CorkboardJSONImporter#readLazy(Path, Path, CorkboardImportSettings)}) each time the Node is loaded.</li>
+ * <li>A Node that's dropped from the cache and loaded again is a new object, so compare Nodes by ID rather than with <code>==</code> when they may have been dropped in between.</li>
+ * <li>Nodes don't belong to a CorkboardProject, so {@link Node#getProject()} is null.</li>
+ * </ul>
+ * The export must not change while the project is open. All methods are thread-safe.
+ * <br><br>
+ * Example:
+ * <pre>
+ * try (LazyCorkboardProject project = CorkboardJSONImporter.readLazy(path)) {
+ *     Node node = project.getStartingNode();
+ * 
+ *     while (node.hasTargetConnections()) {
+ *         node = node.getOutgoingConnections().get(0).getTarget();
+ *     }
+ * }
+ * </pre>
+ */
+public class LazyCorkboardProject implements Closeable {
+	
+	public static final int DEFAULT_CACHE_SIZE = 10_000;
+	
+	private final String name;
+	private final Path path;
+	
+	private final FileChannel channel;
+	private final LazyBoardIndex index;
+	
+	private final CorkboardImportListener listener;
+	private final CorkboardImportStats stats;
+	
+	private int cacheSize = DEFAULT_CACHE_SIZE;
+	
+	//In access order, so the eldest entry is the least recently used
+	private final LinkedHashMap<Integer, Node> cache = new LinkedHashMap<Integer, Node>(16, 0.75f, true) {
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+			return size() > cacheSize;
+		}
+		
+	};
+	
+	//Nodes part way through loading, which other Nodes loaded along with them (like components that list them back) may refer to
+	private final HashMap<Integer, Node> loading = new HashMap<>();
+	
+	//Both Nodes of a Connection share it while either is in use, without keeping it around once neither is
+	private final HashMap<Integer, ConnectionReference> connections = new HashMap<>();
+	private final ReferenceQueue<LazyConnection> releasedConnections = new ReferenceQueue<>();
+	
+	private long loadCount;
+	
+	private LazyCorkboardProject(String name, Path path, FileChannel channel, LazyBoardIndex index, CorkboardImportListener listener) {
+		this.name = name;
+		this.path = path;
+		this.channel = channel;
+		this.index = index;
+		this.listener = listener;
+		
+		stats = new CorkboardImportStats(name, false);
+		stats.setNodeCount(index.nodeCount);
+		stats.setEdgeCount(index.edgeCount);
+	}
+	
+	/**
+	 * Opens the export at <code>path</code>, using the index saved at <code>indexPath</code> if it's up to date. Otherwise, the export is scanned, and the new index is saved
+	 * to <code>indexPath</code> (if it isn't null). Of the settings, only the listener is used.
+	 */
+	static LazyCorkboardProject open(String name, Path path, Path indexPath, CorkboardImportSettings settings) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		
+		try {
+			if (CorkboardFileInput.isCompressed(channel)) {
+				throw new IOException("Lazy projects are read in place, so they can't be compressed: " + path);
+			}
+			
+			long lastModified = Files.getLastModifiedTime(path).toMillis();
+			LazyBoardIndex index = (indexPath != null ? LazyBoardIndex.load(indexPath, channel.size(), lastModified) : null);
+			
+			if (index == null) {
+				index = LazyBoardIndex.scan(channel);
+				index.lastModified = lastModified;
+				
+				if (indexPath != null) {
+					index.save(indexPath);
+				}
+			}
+			
+			return new LazyCorkboardProject(name, path, channel, index, settings.getListener());
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/*
+	 * 
+	 * Project
+	 * 
+	 */
+	
+	public String getName() {
+		return name;
+	}
+	
+	public Path getPath() {
+		return path;
+	}
+	
+	public double getViewportX() {
+		return index.viewportX;
+	}
+	
+	public double getViewportY() {
+		return index.viewportY;
+	}
+	
+	public double getViewportZoom() {
+		return index.viewportZoom;
+	}
+	
+	/**
+	 * Reads the whole export into a regular CorkboardProject, for when a board turns out to be needed in full (or needs editing).
+	 */
+	public CorkboardProject load() throws IOException {
+		return CorkboardJSONImporter.read(path);
+	}
+	
+	/**
+	 * Closes the export. Nodes that are already loaded can still be used, but nothing more can be loaded.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	/*
+	 * 
+	 * Nodes
+	 * 
+	 */
+	
+	/**
+	 * @return how many Nodes are on the board, loaded or not. Nodes are numbered from 0 in the order they're listed in the export.
+	 */
+	public int getNodeCount() {
+		return index.nodeCount;
+	}
+	
+	/**
+	 * @return how many Connections are on the board, loaded or not.
+	 */
+	public int getConnectionCount() {
+		return index.edgeCount;
+	}
+	
+	/**
+	 * @return the ID of the given Node, without loading it.
+	 */
+	public String getNodeID(int node) {
+		return index.nodeIDs[node];
+	}
+	
+	/**
+	 * @return the label of the given Node, without loading it.
+	 */
+	public String getNodeLabel(int node) {
+		return index.nodeLabels[node];
+	}
+	
+	/**
+	 * @return the first Node with the given ID, loading it if it isn't cached, or null if there isn't one.
+	 */
+	public Node getNodeByID(String ID) {
+		int node = index.getNodeByID(ID);
+		return (node >= 0 ? getNode(node) : null);
+	}
+	
+	/**
+	 * @return the first Node with the given label, loading it if it isn't cached, or null if there isn't one.
+	 */
+	public Node getNodeByLabel(String label) {
+		int node = index.getNodeByLabel(label);
+		return (node >= 0 ? getNode(node) : null);
+	}
+	
+	/**
+	 * @return the starting Node, loading it if it isn't cached, or null if the board doesn't have one.
+	 */
+	public Node getStartingNode() {
+		return (index.startingNode >= 0 ? getNode(index.startingNode) : null);
+	}
+	
+	/**
+	 * @return the Node with the given number (see {@link #getNodeCount()}), loading it if it isn't cached.
+	 * @throws UncheckedIOException - if the Node can't be read from the export
+	 */
+	public synchronized Node getNode(int node) {
+		Node cached = cache.get(node);
+		
+		if (cached == null) {
+			cached = loading.get(node);
+		}
+		
+		if (cached == null) {
+			try {
+				cached = loadNode(node);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Couldn't load Node " + index.nodeIDs[node] + " from " + path, e);
+			}
+		}
+		
+		return cached;
+	}
+	
+	/*
+	 * 
+	 * Cache
+	 * 
+	 */
+	
+	public synchronized int getCacheSize() {
+		return cacheSize;
+	}
+	
+	/**
+	 * Sets how many Nodes are kept loaded at most. Defaults to {@link #DEFAULT_CACHE_SIZE}.
+	 */
+	public synchronized void setCacheSize(int cacheSize) {
+		this.cacheSize = Math.max(1, cacheSize);
+		
+		//Drop the least recently used Nodes until there are few enough
+		Iterator<Node> iterator = cache.values().iterator();
+		
+		while (cache.size() > this.cacheSize) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+	
+	/**
+	 * @return how many Nodes are in the cache right now.
+	 */
+	public synchronized int getCachedNodeCount() {
+		return cache.size();
+	}
+	
+	/**
+	 * @return how many times a Node has been read from the export, including Nodes read again after being dropped from the cache.
+	 */
+	public synchronized long getLoadCount() {
+		return loadCount;
+	}
+	
+	/*
+	 * 
+	 * Loading
+	 * 
+	 */
+	
+	/**
+	 * Loads the Node, along with whichever of its components and jumper target (and theirs, and so on) aren't loaded already. They're read one after another from a list
+	 * rather than by loading each one from the last, so long chains of components can't run out of stack.
+	 */
+	private Node loadNode(int node) throws IOException {
+		//The Nodes read by this load, in the order they're read
+		ArrayList<Integer> numbers = new ArrayList<>();
+		ArrayList<NodeContainer> nodeContainers = new ArrayList<>();
+		
+		try {
+			readNode(node, numbers, nodeContainers);
+			
+			//Nodes read along the way are added to the end, so this goes on until nothing new is referred to
+			for (int i = 0; i < numbers.size(); i++) {
+				NodeContainer nodeContainer = nodeContainers.get(i);
+				Node loaded = nodeContainer.node;
+				
+				for (String componentID : nodeContainer.componentIDs) {
+					int component = index.getNodeByID(componentID);
+					
+					if (component >= 0) {
+						loaded.getComponents().add(findNode(component, numbers, nodeContainers));
+					} else {
+						System.err.println("Corkboard Import Warning: Component Node with ID not found: " + componentID);
+						unresolved(Reference.COMPONENT, loaded.getID(), componentID);
+					}
+				}
+				
+				if (loaded.getType() == NodeType.JUMPER) {
+					int jumperTarget = index.getJumperTarget(numbers.get(i));
+					
+					if (jumperTarget >= 0) {
+						loaded.setJumperTarget(findNode(jumperTarget, numbers, nodeContainers));
+					} else {
+						unresolved(Reference.JUMPER_TARGET, loaded.getID(), loaded.getLabel());
+					}
+				}
+			}
+			
+			//Cached last to first, so the Node asked for is the most recently used
+			for (int i = numbers.size() - 1; i >= 0; i--) {
+				Node loaded = nodeContainers.get(i).node;
+				loaded.freeze(null);
+				
+				cache.put(numbers.get(i), loaded);
+				loadCount++;
+			}
+		} finally {
+			for (int number : numbers) {
+				loading.remove(number);
+			}
+		}
+		
+		return nodeContainers.get(0).node;
+	}
+	
+	/**
+	 * @return the Node if it's cached or part way through loading, otherwise reads it as part of the current load
+	 */
+	private Node findNode(int node, ArrayList<Integer> numbers, ArrayList<NodeContainer> nodeContainers) throws IOException {
+		Node found = cache.get(node);
+		
+		if (found == null) {
+			found = loading.get(node);
+		}
+		
+		return (found != null ? found : readNode(node, numbers, nodeContainers));
+	}
+	
+	/**
+	 * Reads a Node and connects its Connections, in the same order the importer would connect them. Its components and jumper target are left to {@link #loadNode(int)}.
+	 */
+	private Node readNode(int node, ArrayList<Integer> numbers, ArrayList<NodeContainer> nodeContainers) throws IOException {
+		NodeContainer nodeContainer = CorkboardJSONImporter.readNode(readObject(index.nodeOffsets[node], index.nodeLengths[node]), null);
+		Node loaded = nodeContainer.node;
+		
+		loading.put(node, loaded);
+		numbers.add(node);
+		nodeContainers.add(nodeContainer);
+		
+		for (int edge : index.getEdges(node)) {
+			LazyConnection connection = getConnection(edge);
+			loaded.connect(connection, connection.getSourceIndex() == node, connection.getTargetIndex() == node);
+		}
+		
+		return loaded;
+	}
+		
+	private void unresolved(Reference reference, String elementID, String missingID) {
+		stats.addUnresolved();
+		listener.unresolved(stats, reference, elementID, missingID);
+	}
+	
+	private LazyConnection getConnection(int edge) throws IOException {
+		//Forget Connections that nothing uses anymore
+		ConnectionReference released;
+		
+		while ((released = (ConnectionReference) releasedConnections.poll()) != null) {
+			connections.remove(released.edge, released);
+		}
+		
+		ConnectionReference reference = connections.get(edge);
+		LazyConnection connection = (reference != null ? reference.get() : null);
+		
+		if (connection == null) {
+			EdgeContainer edgeContainer = CorkboardJSONImporter.readEdge(readObject(index.edgeOffsets[edge], index.edgeLengths[edge]), null);
+			connection = new LazyConnection(edgeContainer.ID, edgeContainer.label, this, index.edgeSources[edge], index.edgeTargets[edge]);
+			
+			connections.put(edge, new ConnectionReference(edge, connection, releasedConnections));
+		}
+		
+		return connection;
+	}
+	
+	private JsonObject readObject(long offset, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new IOException("Corkboard export is shorter than its index; it may have changed since it was opened");
+			}
+		}
+		
+		return LazyBoardIndex.readObject(buffer.array(), length);
+	}
+	
+	private static class ConnectionReference extends WeakReference<LazyConnection> {
+		
+		private final int edge;
+		
+		public ConnectionReference(int edge, LazyConnection connection, ReferenceQueue<LazyConnection> queue) {
+			super(connection, queue);
+			this.edge = edge;
+		}
+		
+	}
+	
+	@Override
+	public String toString() {
+		return "Lazy Corkboard Project: [" + name + "] [Nodes = " + index.nodeCount + "] [Connections = " + index.edgeCount + "] [Cached = " + getCachedNodeCount() + "]";
+	}
+	
+}
@@ -2,10 +2,12 @@ package com.nokoriware.corkboard;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 
+import com.nokoriware.corkboard.util.StringPool;
+
 public class Node extends Element {
 	
 	private final NodeType type;
@@ -14,12 +16,24 @@ public class Node extends Element {
 	private double width, height;
 	
 	private Content body;
-	private ArrayList<String> attributes;
-	private ArrayList<Node> components;
+	private FreezableList<String> attributes;
+	
+	//Built from the attributes the first time they're checked, and thrown away whenever they change. Frozen Nodes don't keep one.
+	private volatile HashSet<String> attributeSet;
+	private FreezableList<Node> components;
 	
 	private Node jumperTarget;
 	
-	private ArrayList<Connection> connections;
+	//Every connection, and the same connections sorted by direction; kept up to date by connect() and disconnect()
+	private ConnectionList connections;
+	private ConnectionList sourceConnections;
+	private ConnectionList targetConnections;
+	private ConnectionList selfConnections;
+	
+	//Frozen Nodes drop the lists above, and keep their Connections as one run of a pool shared by the whole project instead, along with where each direction starts in it
+	private ConnectionPool connectionPool;
+	private int poolOffset, poolLength;
+	private int poolIncoming, poolSelf, poolRepeat;
 
 	public enum LabelType {
 		LABELLED,
@@ -34,10 +48,15 @@ public class Node extends Element {
 		this.width = width;
 		this.height = height;
 		this.body = body;
-		this.attributes = new ArrayList<>(Arrays.asList(attributes));
+		this.attributes = new FreezableList<>(Arrays.asList(attributes));
+		this.attributes.setChangeListener(this::attributesChanged);
 		
-		components = new ArrayList<>();
-		connections = new ArrayList<>();
+		components = new FreezableList<>();
+		
+		connections = new ConnectionList();
+		sourceConnections = new ConnectionList();
+		targetConnections = new ConnectionList();
+		selfConnections = new ConnectionList();
 	}
 
 	public NodeType getType() {
@@ -53,7 +72,9 @@ public class Node extends Element {
 	}
 
 	public void setX(double x) {
+		checkFrozen();
 		this.x = x;
+		geometryChanged();
 	}
 
 	public double getY() {
@@ -61,7 +82,9 @@ public class Node extends Element {
 	}
 
 	public void setY(double y) {
+		checkFrozen();
 		this.y = y;
+		geometryChanged();
 	}
 
 	public double getWidth() {
@@ -69,7 +92,9 @@ public class Node extends Element {
 	}
 
 	public void setWidth(double width) {
+		checkFrozen();
 		this.width = width;
+		geometryChanged();
 	}
 
 	public double getHeight() {
@@ -77,7 +102,17 @@ public class Node extends Element {
 	}
 
 	public void setHeight(double height) {
+		checkFrozen();
 		this.height = height;
+		geometryChanged();
+	}
+	
+	private void geometryChanged() {
+		CorkboardProject project = getProject();
+		
+		if (project != null) {
+			project.geometryChanged(this);
+		}
 	}
 	
 	/*
@@ -89,7 +124,14 @@ public class Node extends Element {
 	}
 
 	public void setBody(Content body) {
+		checkFrozen();
 		this.body = body;
+		
+		CorkboardProject project = getProject();
+		
+		if (project != null) {
+			project.elementChanged(this);
+		}
 	}
 	
 	public boolean hasBody() {
@@ -101,13 +143,19 @@ public class Node extends Element {
 	}
 	
 	public boolean containsAttribute(String attribute) {
-		for (String a : attributes) {
-			if (a.contentEquals(attribute)) {
-				return true;
-			}
+		//Nodes don't have many attributes, so a frozen Node just searches them rather than keeping a set of them around
+		if (frozen) {
+			return attributes.contains(attribute);
 		}
 		
-		return false;
+		HashSet<String> attributeSet = this.attributeSet;
+		
+		if (attributeSet == null) {
+			attributeSet = new HashSet<>(attributes);
+			this.attributeSet = attributeSet;
+		}
+		
+		return attributeSet.contains(attribute);
 	}
 	
 	/**
@@ -147,6 +195,16 @@ public class Node extends Element {
 		return (attributes != null && !attributes.isEmpty());
 	}
 	
+	private void attributesChanged() {
+		attributeSet = null;
+		
+		CorkboardProject project = getProject();
+		
+		if (project != null) {
+			project.attributesChanged(this);
+		}
+	}
+	
 	public ArrayList<Node> getComponents() {
 		return components;
 	}
@@ -166,41 +224,18 @@ public class Node extends Element {
 	 * @return an unmodifiable list of this Node's various connections to other Nodes
 	 */
 	public List<Connection> getConnections() {
-		return Collections.unmodifiableList(connections);
+		return getView(connections, ConnectionPool.ALL);
 	}
 
 	public boolean hasConnections() {
-		return !connections.isEmpty();
+		return !isEmpty(connections, ConnectionPool.ALL, null);
 	}
 	
+	/**
+	 * @return a new list of this Node's connections that are (or aren't) labelled
+	 */
 	public ArrayList<Connection> getConnectionsByLabel(LabelType labelType) {
-		return getConnectionsByLabel(labelType, connections);
-	}
-
-	private static ArrayList<Connection> getConnectionsByLabel(LabelType labelType, ArrayList<Connection> connections) {
-		ArrayList<Connection> valid = new ArrayList<>();
-		
-		for (Connection connection : connections) {
-			boolean isLabelBlank = connection.getLabel().isBlank();
-			
-			switch(labelType) {
-			case LABELLED:
-				if (!isLabelBlank) {
-					valid.add(connection);
-				}
-				break;
-			case UNLABELLED:
-				if (isLabelBlank) {
-					valid.add(connection);
-				}
-				break;
-			default:
-				continue;
-			};
-
-		}
-		
-		return valid;
+		return new ArrayList<>(getView(connections, ConnectionPool.ALL, labelType));
 	}
 	
 	/*
@@ -220,6 +255,7 @@ public class Node extends Element {
 	}
 	
 	void setJumperTarget(Node jumperTarget){
+		checkFrozen();
 		this.jumperTarget = jumperTarget;
 	}
 	
@@ -232,75 +268,118 @@ public class Node extends Element {
 	 */
 	
 	/**
-	 * @return an array of Connections that are coming into this Node
+	 * @return a new list of Connections that are coming into this Node. {@link #getIncomingConnections()} returns the same Connections without making a new list each time.
 	 */
 	public ArrayList<Connection> getSourceConnections() {
-		ArrayList<Connection> sources = new ArrayList<>();
-		
-		for (Connection c : connections) {
-			if (c.getSource() != this && c.getTarget() == this) {
-				sources.add(c);
-			}
-		}
-		
-		return sources;
+		return new ArrayList<>(getView(sourceConnections, ConnectionPool.INCOMING));
 	}
 	
 	public boolean hasSourceConnections() {
-		return !getSourceConnections().isEmpty();
+		return !isEmpty(sourceConnections, ConnectionPool.INCOMING, null);
 	}
 	
 	/**
-	 * @return true if the out-bound connections have labels on them.
+	 * @return true if the in-bound connections have labels on them.
 	 */
 	public boolean hasLabelledSourceConnections() {
-		for (Connection c : getSourceConnections()) {
-			if (!c.getLabel().isBlank()) {
-				return true;
-			}
-		}
-		
-		return false;
+		return !isEmpty(sourceConnections, ConnectionPool.INCOMING, LabelType.LABELLED);
 	}
 	
 	public ArrayList<Connection> getSourceConnectionsByLabel(LabelType labelType) {
-		return getConnectionsByLabel(labelType, getSourceConnections());
+		return new ArrayList<>(getView(sourceConnections, ConnectionPool.INCOMING, labelType));
 	}
 	
 	/**
-	 * @return an array of Connections that are going out of this Node
+	 * @return a new list of Connections that are going out of this Node. {@link #getOutgoingConnections()} returns the same Connections without making a new list each time.
 	 */
 	public ArrayList<Connection> getTargetConnections() {
-		ArrayList<Connection> targets = new ArrayList<>();
-		
-		for (Connection c : connections) {
-			if (c.getSource() == this && c.getTarget() != this) {
-				targets.add(c);
-			}
-		}
-		
-		return targets;
+		return new ArrayList<>(getView(targetConnections, ConnectionPool.OUTGOING));
 	}
 	
 	public boolean hasTargetConnections() {
-		return !getTargetConnections().isEmpty();
+		return !isEmpty(targetConnections, ConnectionPool.OUTGOING, null);
 	}
 	
 	/**
 	 * @return true if the out-bound connections have labels on them.
 	 */
 	public boolean hasLabelledTargetConnections() {
-		for (Connection c : getTargetConnections()) {
-			if (!c.getLabel().isBlank()) {
-				return true;
-			}
+		return !isEmpty(targetConnections, ConnectionPool.OUTGOING, LabelType.LABELLED);
+	}
+	
+	public ArrayList<Connection> getTargetConnectionsByLabel(LabelType labelType) {
+		return new ArrayList<>(getView(targetConnections, ConnectionPool.OUTGOING, labelType));
+	}
+	
+	/**
+	 * @return an unmodifiable view of the Connections coming into this Node (the same ones as {@link #getSourceConnections()}). The view is kept up to date as Connections are
+	 * added and removed, so reading it never allocates. Frozen Nodes hand out a small view of their run of the project's {@link ConnectionPool} instead.
+	 */
+	public List<Connection> getIncomingConnections() {
+		return getView(sourceConnections, ConnectionPool.INCOMING);
+	}
+	
+	public List<Connection> getIncomingConnectionsByLabel(LabelType labelType) {
+		return getView(sourceConnections, ConnectionPool.INCOMING, labelType);
+	}
+	
+	/**
+	 * @return an unmodifiable view of the Connections going out of this Node (the same ones as {@link #getTargetConnections()}). The view is kept up to date as Connections are
+	 * added and removed, so reading it never allocates. Frozen Nodes hand out a small view of their run of the project's {@link ConnectionPool} instead.
+	 */
+	public List<Connection> getOutgoingConnections() {
+		return getView(targetConnections, ConnectionPool.OUTGOING);
+	}
+	
+	public List<Connection> getOutgoingConnectionsByLabel(LabelType labelType) {
+		return getView(targetConnections, ConnectionPool.OUTGOING, labelType);
+	}
+	
+	/**
+	 * @return an unmodifiable list of Connections that both start and end at this Node. These aren't included in the source or target connections.
+	 */
+	public List<Connection> getSelfConnections() {
+		return getView(selfConnections, ConnectionPool.SELF);
+	}
+	
+	public List<Connection> getSelfConnectionsByLabel(LabelType labelType) {
+		return getView(selfConnections, ConnectionPool.SELF, labelType);
+	}
+	
+	/**
+	 * @param direction - which of the pool's direction groups <code>connectionList</code> is, or {@link ConnectionPool#ALL} for all of the Connections
+	 */
+	private List<Connection> getView(ConnectionList connectionList, int direction) {
+		if (connectionPool == null) {
+			return connectionList.get();
 		}
 		
-		return false;
+		switch (direction) {
+		case ConnectionPool.OUTGOING:
+			return connectionPool.get(poolOffset, poolIncoming);
+		case ConnectionPool.INCOMING:
+			return connectionPool.get(poolIncoming, poolSelf);
+		case ConnectionPool.SELF:
+			return connectionPool.get(poolSelf, poolRepeat);
+		default:
+			return connectionPool.get(poolOffset, poolLength, poolIncoming, poolSelf, poolRepeat, direction, null);
+		}
 	}
 	
-	public ArrayList<Connection> getTargetConnectionsByLabel(LabelType labelType) {
-		return getConnectionsByLabel(labelType, getTargetConnections());
+	private List<Connection> getView(ConnectionList connectionList, int direction, LabelType labelType) {
+		if (connectionPool == null) {
+			return connectionList.get(labelType);
+		}
+		
+		return connectionPool.get(poolOffset, poolLength, poolIncoming, poolSelf, poolRepeat, direction, labelType);
+	}
+	
+	private boolean isEmpty(ConnectionList connectionList, int direction, LabelType labelType) {
+		if (connectionPool != null) {
+			return connectionPool.isEmpty(poolOffset, poolLength, direction, labelType);
+		}
+		
+		return (labelType != null ? connectionList.get(labelType).isEmpty() : connectionList.isEmpty());
 	}
 	
 	
@@ -310,8 +389,19 @@ public class Node extends Element {
 	 * 
 	 */
 	
+	/**
+	 * Creates a new Connection from this Node to <code>targetNode</code>. If this Node belongs to a CorkboardProject, the Connection is added to the project as well.
+	 */
 	public Connection addConnection(String label, Node targetNode) {
-		return new Connection(UUID.randomUUID().toString(), label, this, targetNode);
+		Connection connection = new Connection(UUID.randomUUID().toString(), label, this, targetNode);
+		
+		CorkboardProject project = getProject();
+		
+		if (project != null) {
+			project.getConnections().add(connection);
+		}
+		
+		return connection;
 	}
 	
 	/**
@@ -320,7 +410,7 @@ public class Node extends Element {
 	 * @return true if the Connection is inside this Node and was disconnected
 	 */
 	public boolean removeConnection(Connection connection) {
-		if (connections.contains(connection)) {
+		if (getConnections().contains(connection)) {
 			connection.disconnect();
 			return true;
 		}
@@ -328,13 +418,117 @@ public class Node extends Element {
 		return false;
 	}
 	
+	/**
+	 * Interns this Node's strings, trims its lists, and makes it read-only. See {@link CorkboardProject#freeze()}.
+	 * 
+	 * @param stringPool - the pool to intern strings into, or null to leave them as they are
+	 */
+	void freeze(StringPool stringPool) {
+		if (stringPool != null) {
+			label = stringPool.intern(label);
+			
+			attributes.replaceAll(stringPool::intern);
+		}
+		
+		//Nothing can change the lists anymore, so there's nothing to listen for or cache
+		attributes.setChangeListener(null);
+		attributeSet = null;
+		
+		attributes = freeze(attributes);
+		components = freeze(components);
+		
+		//Nodes frozen on their own, rather than by their project, get a pool of their own
+		if (connectionPool == null) {
+			freezeConnections(new ConnectionPool(connections.get().size()));
+		}
+		
+		if (body != null) {
+			body.compact(stringPool);
+		}
+		
+		frozen = true;
+	}
+	
+	private static <E> FreezableList<E> freeze(FreezableList<E> list) {
+		if (list.isEmpty()) {
+			return FreezableList.empty();
+		}
+		
+		list.freeze();
+		return list;
+	}
+	
+	/**
+	 * Moves this Node's Connections into a run of <code>pool</code>, and drops its own lists. Called by {@link CorkboardProject#freeze()} before {@link #freeze(StringPool)}.
+	 */
+	void freezeConnections(ConnectionPool pool) {
+		if (connectionPool != null) {
+			return;
+		}
+	
+		poolLength = connections.get().size();
+		poolOffset = pool.add(connections.get(), targetConnections.get(), sourceConnections.get(), selfConnections.get());
+		poolIncoming = pool.getGroupStart(poolOffset, poolLength, ConnectionPool.INCOMING);
+		poolSelf = pool.getGroupStart(poolOffset, poolLength, ConnectionPool.SELF);
+		poolRepeat = pool.getGroupStart(poolOffset, poolLength, ConnectionPool.REPEAT);
+		connectionPool = pool;
+		
+		connections = null;
+		sourceConnections = null;
+		targetConnections = null;
+		selfConnections = null;
+	}
+	
 	void disconnect(Connection connection) {
-		connections.remove(connection);
+		checkFrozen();
+		
+		if (connections.remove(connection)) {
+			getDirectionalConnections(connection).remove(connection);
+		}
 	}
 
-	Node connect(Connection connection) {
+	void connect(Connection connection) {
+		connect(connection, connection.getSource() == this, connection.getTarget() == this);
+	}
+	
+	/**
+	 * Connects a Connection whose ends are already known, without asking it for them. Used by LazyCorkboardProject, where asking would load the Node at the other end.
+	 */
+	void connect(Connection connection, boolean isSource, boolean isTarget) {
+		checkFrozen();
+		
 		connections.add(connection);
-		return this;
+		
+		//Loops are connected from both ends, but only need listing once
+		ConnectionList directionalConnections = getDirectionalConnections(isSource, isTarget);
+		
+		if (directionalConnections != selfConnections || !selfConnections.contains(connection)) {
+			directionalConnections.add(connection);
+		}
+	}
+	
+	/**
+	 * Called by Connection when its label changes, so the labelled and unlabelled lists can be updated.
+	 */
+	void relabel(Connection connection) {
+		checkFrozen();
+		
+		connections.relabel(connection);
+		getDirectionalConnections(connection).relabel(connection);
+	}
+	
+	private ConnectionList getDirectionalConnections(Connection connection) {
+		return getDirectionalConnections(connection.getSource() == this, connection.getTarget() == this);
+	}
+	
+	private ConnectionList getDirectionalConnections(boolean isSource, boolean isTarget) {
+		if (isSource && !isTarget) {
+			return targetConnections;
+		} else if (isTarget && !isSource) {
+			return sourceConnections;
+		} else {
+			return selfConnections;
+		}
 	}
 	
 }
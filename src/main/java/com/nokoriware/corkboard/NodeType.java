@@ -17,4 +17,18 @@ public enum NodeType {
 		default: return null;
 		}
 	}
+	
+	/**
+	 * @return the name Corkboard uses for this type in its exports, such as <code>"text-area"</code>. The reverse of {@link #getType(String)}.
+	 */
+	public String getName() {
+		switch(this) {
+		case TEXT_AREA: return "text-area";
+		case TEXT_FIELD: return "text-field";
+		case COMPONENT: return "component";
+		case JUMPER: return "jumper";
+		case NOTE: return "note";
+		default: return null;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,304 @@
+package com.nokoriware.corkboard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Patches a CorkboardProject in place so that it matches a newer version of itself, matching elements up by ID. See {@link CorkboardProject#patch(CorkboardProject)}.
+ */
+class ProjectPatcher {
+	
+	private final CorkboardProject project;
+	private final CorkboardProject update;
+	
+	private final CorkboardChangeSet changes = new CorkboardChangeSet();
+	
+	//The patched project's Nodes, by ID
+	private final HashMap<String, Node> nodesByID = new HashMap<>();
+	
+	private final Set<Node> updatedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	ProjectPatcher(CorkboardProject project, CorkboardProject update) {
+		this.project = project;
+		this.update = update;
+	}
+	
+	CorkboardChangeSet patch() {
+		
+		/*
+		 * Take the update apart, recording what its Nodes and Connections pointed to by ID, so that its Nodes can be moved over
+		 */
+		
+		Node[] updateNodes = update.getNodes().toArray(new Node[0]);
+		Connection[] updateConnections = update.getConnections().toArray(new Connection[0]);
+		
+		String[][] componentIDs = new String[updateNodes.length][];
+		String[] jumperIDs = new String[updateNodes.length];
+		
+		for (int i = 0; i < updateNodes.length; i++) {
+			ArrayList<Node> components = updateNodes[i].getComponents();
+			componentIDs[i] = new String[components.size()];
+			
+			for (int c = 0; c < components.size(); c++) {
+				componentIDs[i][c] = components.get(c).getID();
+			}
+			
+			jumperIDs[i] = getID(updateNodes[i].getJumperTarget());
+		}
+		
+		String[] sourceIDs = new String[updateConnections.length];
+		String[] targetIDs = new String[updateConnections.length];
+		
+		for (int i = 0; i < updateConnections.length; i++) {
+			sourceIDs[i] = getID(updateConnections[i].getSource());
+			targetIDs[i] = getID(updateConnections[i].getTarget());
+			
+			updateConnections[i].disconnect();
+		}
+		
+		String startingID = getID(update.getStartingNode());
+		
+		update.getNodes().clear();
+		update.getConnections().clear();
+		
+		/*
+		 * Patch the project
+		 */
+		
+		ArrayList<Node> nodes = patchNodes(updateNodes);
+		
+		for (int i = 0; i < nodes.size(); i++) {
+			resolve(nodes.get(i), componentIDs[i], jumperIDs[i]);
+		}
+		
+		ArrayList<Connection> connections = patchConnections(updateConnections, sourceIDs, targetIDs);
+		
+		//The project's lists end up in the same order as the update's
+		project.getNodes().clear();
+		project.getNodes().addAll(nodes);
+		
+		project.getConnections().clear();
+		project.getConnections().addAll(connections);
+		
+		Node startingNode = (startingID != null ? nodesByID.get(startingID) : null);
+		
+		if (project.getStartingNode() != startingNode) {
+			project.setStartingNode(startingNode);
+			changes.setStartingNodeChanged(true);
+		}
+		
+		if (project.getViewportX() != update.getViewportX() || project.getViewportY() != update.getViewportY() || project.getViewportZoom() != update.getViewportZoom()) {
+			project.setViewportX(update.getViewportX());
+			project.setViewportY(update.getViewportY());
+			project.setViewportZoom(update.getViewportZoom());
+			changes.setViewportChanged(true);
+		}
+		
+		return changes;
+	}
+	
+	/*
+	 * 
+	 * Nodes
+	 * 
+	 */
+	
+	private ArrayList<Node> patchNodes(Node[] updateNodes) {
+		HashMap<String, Node> oldNodes = new HashMap<>();
+		
+		for (Node node : project.getNodes()) {
+			oldNodes.putIfAbsent(node.getID(), node);
+		}
+		
+		ArrayList<Node> nodes = new ArrayList<>(updateNodes.length);
+		Set<Node> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+		
+		for (Node updateNode : updateNodes) {
+			Node node = oldNodes.remove(updateNode.getID());
+			
+			//A Node's type can't change, so it has to be replaced
+			if (node != null && node.getType() == updateNode.getType()) {
+				if (copy(updateNode, node)) {
+					updated(node);
+				}
+				
+				kept.add(node);
+			} else {
+				node = updateNode;
+				changes.added(node);
+			}
+			
+			nodes.add(node);
+			nodesByID.putIfAbsent(node.getID(), node);
+		}
+		
+		for (Node node : project.getNodes()) {
+			if (!kept.contains(node)) {
+				changes.removed(node);
+			}
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * Copies everything but the components and jumper target from one Node to another.
+	 * 
+	 * @return true if anything changed
+	 */
+	private static boolean copy(Node from, Node to) {
+		boolean changed = false;
+		
+		if (!Objects.equals(from.getLabel(), to.getLabel())) {
+			to.setLabel(from.getLabel());
+			changed = true;
+		}
+		
+		if (from.getX() != to.getX() || from.getY() != to.getY() || from.getWidth() != to.getWidth() || from.getHeight() != to.getHeight()) {
+			to.setX(from.getX());
+			to.setY(from.getY());
+			to.setWidth(from.getWidth());
+			to.setHeight(from.getHeight());
+			changed = true;
+		}
+		
+		//Unchanged bodies are kept, so anything they've already parsed is kept as well
+		if (!Objects.equals(getHTML(from.getBody()), getHTML(to.getBody()))) {
+			to.setBody(from.getBody());
+			changed = true;
+		}
+		
+		if (!from.getAttributes().equals(to.getAttributes())) {
+			to.getAttributes().clear();
+			to.getAttributes().addAll(from.getAttributes());
+			changed = true;
+		}
+		
+		return changed;
+	}
+	
+	/**
+	 * Points the Node's components and jumper target at the patched project's Nodes.
+	 */
+	private void resolve(Node node, String[] componentIDs, String jumperID) {
+		boolean changed = false;
+		
+		ArrayList<Node> components = new ArrayList<>(componentIDs.length);
+		
+		for (String ID : componentIDs) {
+			Node component = nodesByID.get(ID);
+			
+			if (component != null) {
+				components.add(component);
+			}
+		}
+		
+		if (!isSameNodes(components, node.getComponents())) {
+			node.getComponents().clear();
+			node.getComponents().addAll(components);
+			changed = true;
+		}
+		
+		Node jumperTarget = (jumperID != null ? nodesByID.get(jumperID) : null);
+		
+		if (node.getJumperTarget() != jumperTarget) {
+			node.setJumperTarget(jumperTarget);
+			changed = true;
+		}
+		
+		//Nodes that are new to the project are only listed as added
+		if (changed && node.getProject() == project) {
+			updated(node);
+		}
+	}
+	
+	private void updated(Node node) {
+		if (updatedNodes.add(node)) {
+			changes.updated(node);
+		}
+	}
+	
+	/*
+	 * 
+	 * Connections
+	 * 
+	 */
+	
+	private ArrayList<Connection> patchConnections(Connection[] updateConnections, String[] sourceIDs, String[] targetIDs) {
+		HashMap<String, Connection> oldConnections = new HashMap<>();
+		
+		for (Connection connection : project.getConnections()) {
+			oldConnections.putIfAbsent(connection.getID(), connection);
+		}
+		
+		ArrayList<Connection> connections = new ArrayList<>(updateConnections.length);
+		Set<Connection> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+		
+		for (int i = 0; i < updateConnections.length; i++) {
+			String ID = updateConnections[i].getID();
+			String label = updateConnections[i].getLabel();
+			
+			Node source = (sourceIDs[i] != null ? nodesByID.get(sourceIDs[i]) : null);
+			Node target = (targetIDs[i] != null ? nodesByID.get(targetIDs[i]) : null);
+			
+			Connection connection = oldConnections.remove(ID);
+			
+			//Connections can't be moved to other Nodes, so they have to be replaced
+			if (connection != null && connection.getSource() == source && connection.getTarget() == target) {
+				if (!Objects.equals(connection.getLabel(), label)) {
+					connection.setLabel(label);
+					changes.updated(connection);
+				}
+				
+				kept.add(connection);
+			} else {
+				connection = new Connection(ID, label, source, target);
+				changes.added(connection);
+			}
+			
+			connections.add(connection);
+		}
+		
+		for (Connection connection : project.getConnections().toArray(new Connection[0])) {
+			if (!kept.contains(connection)) {
+				connection.disconnect();
+				changes.removed(connection);
+			}
+		}
+		
+		return connections;
+	}
+	
+	/*
+	 * 
+	 * Utilities
+	 * 
+	 */
+	
+	private static String getID(Element element) {
+		return (element != null ? element.getID() : null);
+	}
+	
+	private static String getHTML(Content content) {
+		return (content != null ? content.getHTML() : null);
+	}
+	
+	private static boolean isSameNodes(ArrayList<Node> a, ArrayList<Node> b) {
+		if (a.size() != b.size()) {
+			return false;
+		}
+		
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i) != b.get(i)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+}
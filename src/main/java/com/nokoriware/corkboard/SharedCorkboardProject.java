@@ -0,0 +1,113 @@
+package com.nokoriware.corkboard;
+
+import java.util.function.Consumer;
+
+/**
+ * Shares a CorkboardProject between threads without readers ever taking a lock.
+ * <br><br>
+ * Readers call {@link #get()} for the current snapshot and read it as much as they like; a snapshot is never changed once it's published, so everything read from it (Nodes, their
+ * Connections, lookups by ID or label, bodies) is consistent, even while a writer is working. Writers go through {@link #update(Consumer)}, which makes a copy of the current
+ * snapshot, applies the changes to the copy, and then swaps it in. Readers still holding the old snapshot keep reading it undisturbed; they see the changes the next time they call
+ * {@link #get()}.
+ * <br><br>
+ * Each snapshot is {@link CorkboardProject#freeze() frozen} before it's published, so changing one directly throws an <code>UnsupportedOperationException</code>; make every
+ * change through {@link #update(Consumer)} instead. Writes are copy-on-write, so batch changes into as few updates as possible.
+ * Since each snapshot has its own copies of the Nodes and Connections, hold on to IDs rather than Nodes between snapshots.
+ * Anything built from a snapshot (like a CompiledBoard) can be cached alongside its {@link #getVersion() version}.
+ * <br><br>
+ * Example:
+ * <pre>
+ * SharedCorkboardProject shared = new SharedCorkboardProject(CorkboardJSONImporter.read(file));
+ * 
+ * //Any number of reader threads
+ * Node node = shared.get().getNodeByID(ID);
+ * 
+ * //Writers
+ * shared.update(project -> project.getNodeByID(ID).setLabel("Renamed"));
+ * </pre>
+ */
+public class SharedCorkboardProject {
+	
+	private final Object writeLock = new Object();
+	
+	//The project and its version are published together, so they always match
+	private volatile Snapshot snapshot;
+	
+	/**
+	 * @param project - the first snapshot, which is frozen
+	 */
+	public SharedCorkboardProject(CorkboardProject project) {
+		this.snapshot = new Snapshot(project.freeze(), 0);
+	}
+	
+	/**
+	 * @return the current snapshot of the project, which is frozen.
+	 */
+	public CorkboardProject get() {
+		return snapshot.project;
+	}
+	
+	/**
+	 * @return the version of the current snapshot, which goes up by one each time a new snapshot is published.
+	 */
+	public long getVersion() {
+		return snapshot.version;
+	}
+	
+	/**
+	 * Copies the current snapshot, applies <code>changes</code> to the copy, and publishes it. Updates from different threads are applied one at a time, each to the result of the last.
+	 * 
+	 * @return the newly published snapshot
+	 */
+	public CorkboardProject update(Consumer<CorkboardProject> changes) {
+		synchronized (writeLock) {
+			CorkboardProject project = snapshot.project.copy();
+			changes.accept(project);
+			
+			publish(project);
+			return project;
+		}
+	}
+	
+	/**
+	 * Patches a copy of the current snapshot to match <code>update</code> (such as a fresh import of the same board), and publishes it. See {@link CorkboardProject#patch(CorkboardProject)}.
+	 */
+	public CorkboardChangeSet patch(CorkboardProject update) {
+		synchronized (writeLock) {
+			CorkboardProject project = snapshot.project.copy();
+			CorkboardChangeSet changes = project.patch(update);
+			
+			publish(project);
+			return changes;
+		}
+	}
+	
+	/**
+	 * Freezes a whole new project and publishes it in place of the current snapshot.
+	 */
+	public void set(CorkboardProject project) {
+		synchronized (writeLock) {
+			publish(project);
+		}
+	}
+	
+	private void publish(CorkboardProject project) {
+		//Each snapshot is frozen with its own StringPool, which is let go of along with the snapshot. Strings that didn't change are already shared with the last snapshot,
+		//since it's where the copy got them from, so a pool kept between snapshots would only hold on to every body and label that was ever replaced.
+		project.freeze();
+		snapshot = new Snapshot(project, snapshot.version + 1);
+	}
+	
+	private static class Snapshot {
+		
+		final CorkboardProject project;
+		final long version;
+		
+		Snapshot(CorkboardProject project, long version) {
+			this.project = project;
+			this.version = version;
+		}
+		
+	}
+	
+}
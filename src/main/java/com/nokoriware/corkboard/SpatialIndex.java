@@ -0,0 +1,312 @@
+package com.nokoriware.corkboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A uniform grid over the board that buckets Nodes by the cells their bounds overlap, so rectangle and point queries only look at the Nodes nearby. See
+ * {@link CorkboardProject#getNodesInRect(double, double, double, double)}.
+ * <br><br>
+ * The grid is built from the whole Node list at once, with cells sized from the average Node, and is then kept up to date one Node at a time as Nodes are moved or resized.
+ * Each Node also remembers its position in the Node list, so results can be given back in drawing order (later Nodes are drawn on top).
+ */
+class SpatialIndex {
+	
+	//Nodes covering more cells than this across are kept in a separate list that every query checks, rather than being copied into every cell
+	private static final int MAX_CELL_SPAN = 16;
+	
+	private static final double DEFAULT_CELL_SIZE = 256;
+	
+	private final double cellSize;
+	
+	private final HashMap<Long, Cell> cells = new HashMap<>();
+	private final IdentityHashMap<Node, Entry> entries = new IdentityHashMap<>();
+	private final ArrayList<Entry> oversized = new ArrayList<>();
+	
+	//Marks Entries that have already been looked at in the current query, since a Node can be in several cells
+	private int stamp;
+	
+	SpatialIndex(List<Node> nodeList) {
+		double totalSize = 0;
+		int sized = 0;
+		
+		for (Node node : nodeList) {
+			if (node != null) {
+				double size = Math.max(node.getWidth(), node.getHeight());
+				
+				if (size > 0 && size < Double.POSITIVE_INFINITY) {
+					totalSize += size;
+					sized++;
+				}
+			}
+		}
+		
+		//Cells twice the size of the average Node, so most Nodes fall in one to four cells
+		cellSize = (sized > 0 ? Math.max(1, 2 * totalSize / sized) : DEFAULT_CELL_SIZE);
+		
+		for (int i = 0; i < nodeList.size(); i++) {
+			Node node = nodeList.get(i);
+			
+			if (node != null && !entries.containsKey(node)) {
+				Entry entry = new Entry(node, i);
+				entries.put(node, entry);
+				insert(entry);
+			}
+		}
+	}
+	
+	/*
+	 * 
+	 * Queries
+	 * 
+	 */
+	
+	/**
+	 * @return every Node overlapping the rectangle, in Node list order.
+	 */
+	synchronized List<Node> getNodes(double x, double y, double width, double height) {
+		double maxX = x + Math.max(0, width);
+		double maxY = y + Math.max(0, height);
+		
+		if (!(x <= maxX && y <= maxY)) {
+			return Collections.emptyList();
+		}
+		
+		ArrayList<Entry> found = new ArrayList<>();
+		stamp++;
+		
+		int minCellX = cell(x), minCellY = cell(y);
+		int maxCellX = cell(maxX), maxCellY = cell(maxY);
+		
+		//Zoomed far out, it's cheaper to go through the cells that exist than every cell in the rectangle. Worked out in doubles, since the grid is wider than an int can count.
+		if (((double) maxCellX - minCellX + 1) * ((double) maxCellY - minCellY + 1) > cells.size()) {
+			for (Cell cell : cells.values()) {
+				if (cell.x >= minCellX && cell.x <= maxCellX && cell.y >= minCellY && cell.y <= maxCellY) {
+					collect(cell, x, y, maxX, maxY, found);
+				}
+			}
+		} else {
+			for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+				for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+					Cell cell = cells.get(key(cellX, cellY));
+					
+					if (cell != null) {
+						collect(cell, x, y, maxX, maxY, found);
+					}
+				}
+			}
+		}
+		
+		for (Entry entry : oversized) {
+			if (entry.intersects(x, y, maxX, maxY)) {
+				found.add(entry);
+			}
+		}
+		
+		found.sort((a, b) -> Integer.compare(a.position, b.position));
+		
+		Node[] nodes = new Node[found.size()];
+		
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = found.get(i).node;
+		}
+		
+		return Collections.unmodifiableList(Arrays.asList(nodes));
+	}
+	
+	/**
+	 * @return the last Node in the Node list (the one drawn on top) containing the point, or null if none do.
+	 */
+	synchronized Node getNode(double x, double y) {
+		Entry top = null;
+		
+		Cell cell = cells.get(key(cell(x), cell(y)));
+		
+		if (cell != null) {
+			for (int i = 0; i < cell.size; i++) {
+				Entry entry = cell.entries[i];
+				
+				if ((top == null || entry.position > top.position) && entry.intersects(x, y, x, y)) {
+					top = entry;
+				}
+			}
+		}
+		
+		for (Entry entry : oversized) {
+			if ((top == null || entry.position > top.position) && entry.intersects(x, y, x, y)) {
+				top = entry;
+			}
+		}
+		
+		return (top != null ? top.node : null);
+	}
+	
+	/**
+	 * Moves a Node to the cells under its new bounds.
+	 */
+	synchronized void update(Node node) {
+		Entry entry = entries.get(node);
+		
+		if (entry == null) {
+			return;
+		}
+		
+		remove(entry);
+		insert(entry);
+	}
+	
+	/*
+	 * 
+	 * Cells
+	 * 
+	 */
+	
+	private void insert(Entry entry) {
+		Node node = entry.node;
+		
+		entry.minX = node.getX();
+		entry.minY = node.getY();
+		entry.maxX = entry.minX + Math.max(0, node.getWidth());
+		entry.maxY = entry.minY + Math.max(0, node.getHeight());
+		
+		entry.minCellX = cell(entry.minX);
+		entry.minCellY = cell(entry.minY);
+		entry.maxCellX = cell(entry.maxX);
+		entry.maxCellY = cell(entry.maxY);
+		
+		entry.oversized = !(entry.maxCellX - entry.minCellX < MAX_CELL_SPAN && entry.maxCellY - entry.minCellY < MAX_CELL_SPAN);
+		
+		if (entry.oversized) {
+			oversized.add(entry);
+			return;
+		}
+		
+		for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+			for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+				Cell cell = cells.get(key(cellX, cellY));
+				
+				if (cell == null) {
+					cell = new Cell(cellX, cellY);
+					cells.put(key(cellX, cellY), cell);
+				}
+				
+				cell.add(entry);
+			}
+		}
+	}
+	
+	private void remove(Entry entry) {
+		if (entry.oversized) {
+			oversized.remove(entry);
+			return;
+		}
+		
+		for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+			for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+				Cell cell = cells.get(key(cellX, cellY));
+				
+				if (cell != null && cell.remove(entry) && cell.size == 0) {
+					cells.remove(key(cellX, cellY));
+				}
+			}
+		}
+	}
+	
+	private void collect(Cell cell, double minX, double minY, double maxX, double maxY, ArrayList<Entry> found) {
+		for (int i = 0; i < cell.size; i++) {
+			Entry entry = cell.entries[i];
+			
+			if (entry.stamp != stamp) {
+				entry.stamp = stamp;
+				
+				if (entry.intersects(minX, minY, maxX, maxY)) {
+					found.add(entry);
+				}
+			}
+		}
+	}
+	
+	private int cell(double coordinate) {
+		double cell = Math.floor(coordinate / cellSize);
+		
+		//Clamped so far away (or infinite) coordinates still land in a cell at the edge of the grid
+		if (cell < Integer.MIN_VALUE / 2) {
+			return Integer.MIN_VALUE / 2;
+		}
+		
+		if (cell > Integer.MAX_VALUE / 2) {
+			return Integer.MAX_VALUE / 2;
+		}
+		
+		return (int) cell;
+	}
+	
+	private static long key(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+	
+	private static class Entry {
+		
+		private final Node node;
+		private final int position;
+		
+		private double minX, minY, maxX, maxY;
+		private int minCellX, minCellY, maxCellX, maxCellY;
+		private boolean oversized;
+		
+		private int stamp;
+		
+		public Entry(Node node, int position) {
+			this.node = node;
+			this.position = position;
+		}
+		
+		/**
+		 * Edges count as inside, so a point on a Node's border hits it.
+		 */
+		private boolean intersects(double x0, double y0, double x1, double y1) {
+			return minX <= x1 && maxX >= x0 && minY <= y1 && maxY >= y0;
+		}
+		
+	}
+	
+	private static class Cell {
+		
+		private final int x, y;
+		
+		private Entry[] entries = new Entry[4];
+		private int size;
+		
+		public Cell(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+		
+		private void add(Entry entry) {
+			if (size == entries.length) {
+				entries = Arrays.copyOf(entries, size * 2);
+			}
+			
+			entries[size++] = entry;
+		}
+		
+		private boolean remove(Entry entry) {
+			for (int i = 0; i < size; i++) {
+				if (entries[i] == entry) {
+					//Order within a cell doesn't matter, so the last entry fills the gap
+					entries[i] = entries[--size];
+					entries[size] = null;
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+	}
+	
+}
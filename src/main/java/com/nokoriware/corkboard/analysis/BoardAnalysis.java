@@ -0,0 +1,391 @@
+package com.nokoriware.corkboard.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.Node;
+import com.nokoriware.corkboard.NodeType;
+
+/**
+ * Checks a CorkboardProject's Connection graph for the usual mistakes before a board ships: Nodes that can't be reached from the starting Node, dead ends, jumpers that don't point
+ * anywhere, and cycles.
+ * <br><br>
+ * The project is first flattened into int arrays (see CompiledBoard), and every check then runs over those, so a whole analysis takes time in proportion to the number of Nodes
+ * and edges. Which links count as edges is chosen with {@link EdgeKind}. Notes are never reported as unreachable or as dead ends, since they aren't part of the dialogue.
+ * <br><br>
+ * A BoardAnalysis is a snapshot of the project at the time it was analyzed; analyze it again after changing it.
+ * <br><br>
+ * Example:
+ * <pre>
+ * BoardAnalysis analysis = BoardAnalysis.analyze(project);
+ * 
+ * for (Node node : analysis.getUnreachableNodes()) {
+ *     System.err.println("Unreachable: " + node.getID());
+ * }
+ * </pre>
+ */
+public final class BoardAnalysis {
+	
+	/**
+	 * The kinds of link that can be followed from one Node to another.
+	 */
+	public enum EdgeKind {
+		
+		/**
+		 * Out-bound Connections (including ones that loop back to the same Node).
+		 */
+		CONNECTIONS,
+		
+		/**
+		 * From a jumper to its target.
+		 */
+		JUMPERS,
+		
+		/**
+		 * From a Node to each of its components. These never make a Node a dead end or keep it from being one.
+		 */
+		COMPONENTS;
+	}
+	
+	private final BoardGraph graph;
+	private final int startIndex;
+	
+	private final boolean[] reachable;
+	
+	//Strongly connected components, stored like the graph's rows: the members of component c are members[componentOffsets[c]] up to members[componentOffsets[c + 1]]
+	private final int[] componentOf;
+	private final int[] componentOffsets;
+	private final int[] members;
+	
+	private BoardAnalysis(CorkboardProject project, EnumSet<EdgeKind> edgeKinds) {
+		graph = new BoardGraph(project, edgeKinds);
+		startIndex = graph.indexOf(project.getStartingNode());
+		
+		reachable = findReachable();
+		
+		componentOf = new int[graph.getNodeCount()];
+		int componentCount = findComponents();
+		
+		/*
+		 * Group the Nodes by component (a counting sort, so each component's Nodes stay in project order)
+		 */
+		
+		componentOffsets = new int[componentCount + 1];
+		members = new int[graph.getNodeCount()];
+		
+		for (int component : componentOf) {
+			componentOffsets[component + 1]++;
+		}
+		
+		for (int c = 0; c < componentCount; c++) {
+			componentOffsets[c + 1] += componentOffsets[c];
+		}
+		
+		int[] fill = Arrays.copyOf(componentOffsets, componentCount);
+		
+		for (int i = 0; i < componentOf.length; i++) {
+			members[fill[componentOf[i]]++] = i;
+		}
+	}
+	
+	/**
+	 * Analyzes the project, following every kind of edge.
+	 */
+	public static BoardAnalysis analyze(CorkboardProject project) {
+		return new BoardAnalysis(project, EnumSet.allOf(EdgeKind.class));
+	}
+	
+	/**
+	 * Analyzes the project, following only the given kinds of edge.
+	 */
+	public static BoardAnalysis analyze(CorkboardProject project, EdgeKind... edgeKinds) {
+		EnumSet<EdgeKind> set = EnumSet.noneOf(EdgeKind.class);
+		Collections.addAll(set, edgeKinds);
+		
+		return new BoardAnalysis(project, set);
+	}
+	
+	/*
+	 * 
+	 * Graph
+	 * 
+	 */
+	
+	public int getNodeCount() {
+		return graph.getNodeCount();
+	}
+	
+	/**
+	 * @return how many edges were followed, counting each Connection, jumper, and component link that stays inside the project.
+	 */
+	public int getEdgeCount() {
+		return graph.getEdgeCount();
+	}
+	
+	/*
+	 * 
+	 * Reachability
+	 * 
+	 */
+	
+	/**
+	 * @return true if the Node can be reached from the project's starting Node.
+	 */
+	public boolean isReachable(Node node) {
+		int index = graph.indexOf(node);
+		return (index != BoardGraph.NONE && reachable[index]);
+	}
+	
+	/**
+	 * @return the Nodes (other than notes) that can't be reached from the project's starting Node, in project order. If the project has no starting Node, that's all of them.
+	 */
+	public List<Node> getUnreachableNodes() {
+		ArrayList<Node> nodes = new ArrayList<>();
+		
+		for (int i = 0; i < reachable.length; i++) {
+			if (!reachable[i] && !isNote(i)) {
+				nodes.add(graph.nodes[i]);
+			}
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * @return the Nodes (other than notes and components) that dialogue can't move on from: they have no out-bound Connections, and no jumper target to follow instead. Only the
+	 * followed kinds of edge count. In project order.
+	 */
+	public List<Node> getDeadEnds() {
+		ArrayList<Node> nodes = new ArrayList<>();
+		
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			NodeType type = graph.nodes[i].getType();
+			
+			if (graph.flowDegrees[i] == 0 && type != NodeType.NOTE && type != NodeType.COMPONENT) {
+				nodes.add(graph.nodes[i]);
+			}
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * @return the jumpers that don't have a target, or whose target isn't part of the project, in project order.
+	 */
+	public List<Node> getDanglingJumpers() {
+		ArrayList<Node> nodes = new ArrayList<>();
+		
+		for (Node node : graph.nodes) {
+			if (node.getType() == NodeType.JUMPER && graph.indexOf(node.getJumperTarget()) == BoardGraph.NONE) {
+				nodes.add(node);
+			}
+		}
+		
+		return nodes;
+	}
+	
+	/*
+	 * 
+	 * Cycles
+	 * 
+	 */
+	
+	/**
+	 * Every Node belongs to exactly one strongly connected component: the largest group of Nodes that can each reach all of the others. Components are listed so that each one
+	 * comes after any component it has edges into (reverse topological order), and each component's Nodes are in project order.
+	 * 
+	 * @return every strongly connected component, including the single-Node ones
+	 */
+	public List<List<Node>> getStronglyConnectedComponents() {
+		ArrayList<List<Node>> components = new ArrayList<>(componentOffsets.length - 1);
+		
+		for (int c = 0; c < componentOffsets.length - 1; c++) {
+			components.add(getComponent(c));
+		}
+		
+		return components;
+	}
+	
+	/**
+	 * @return the strongly connected components that contain a cycle: those with more than one Node, or a single Node with an edge back to itself.
+	 */
+	public List<List<Node>> getCycles() {
+		ArrayList<List<Node>> cycles = new ArrayList<>();
+		
+		for (int c = 0; c < componentOffsets.length - 1; c++) {
+			if (isCycle(c)) {
+				cycles.add(getComponent(c));
+			}
+		}
+		
+		return cycles;
+	}
+	
+	/**
+	 * @return true if the Node is part of a cycle (see {@link #getCycles()}).
+	 */
+	public boolean isInCycle(Node node) {
+		int index = graph.indexOf(node);
+		return (index != BoardGraph.NONE && isCycle(componentOf[index]));
+	}
+	
+	private List<Node> getComponent(int component) {
+		Node[] nodes = new Node[componentOffsets[component + 1] - componentOffsets[component]];
+		
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = graph.nodes[members[componentOffsets[component] + i]];
+		}
+		
+		return Collections.unmodifiableList(Arrays.asList(nodes));
+	}
+	
+	private boolean isCycle(int component) {
+		int start = componentOffsets[component];
+		
+		if (componentOffsets[component + 1] - start > 1) {
+			return true;
+		}
+		
+		int node = members[start];
+		
+		for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+			if (graph.targets[edge] == node) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/*
+	 * 
+	 * Algorithms
+	 * 
+	 */
+	
+	/**
+	 * A breadth-first search from the starting Node.
+	 */
+	private boolean[] findReachable() {
+		boolean[] reachable = new boolean[graph.getNodeCount()];
+		
+		if (startIndex == BoardGraph.NONE) {
+			return reachable;
+		}
+		
+		int[] queue = new int[graph.getNodeCount()];
+		int head = 0;
+		int tail = 0;
+		
+		queue[tail++] = startIndex;
+		reachable[startIndex] = true;
+		
+		while (head < tail) {
+			int node = queue[head++];
+			
+			for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+				int target = graph.targets[edge];
+				
+				if (!reachable[target]) {
+					reachable[target] = true;
+					queue[tail++] = target;
+				}
+			}
+		}
+		
+		return reachable;
+	}
+	
+	/**
+	 * Tarjan's algorithm, with the recursion replaced by an explicit stack so that long chains of Nodes can't overflow the thread's stack. Fills in componentOf.
+	 * 
+	 * @return the number of components
+	 */
+	private int findComponents() {
+		int nodeCount = graph.getNodeCount();
+		
+		int[] order = new int[nodeCount];
+		int[] lowLink = new int[nodeCount];
+		int[] nextEdge = new int[nodeCount];
+		
+		Arrays.fill(order, -1);
+		
+		//Nodes waiting to be assigned a component
+		int[] stack = new int[nodeCount];
+		boolean[] onStack = new boolean[nodeCount];
+		int stackSize = 0;
+		
+		//The depth-first search's path
+		int[] path = new int[nodeCount];
+		
+		int visited = 0;
+		int componentCount = 0;
+		
+		for (int root = 0; root < nodeCount; root++) {
+			if (order[root] != -1) {
+				continue;
+			}
+			
+			int depth = 0;
+			path[0] = root;
+			
+			order[root] = lowLink[root] = visited++;
+			nextEdge[root] = graph.offsets[root];
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			
+			while (depth >= 0) {
+				int node = path[depth];
+				
+				if (nextEdge[node] < graph.offsets[node + 1]) {
+					int target = graph.targets[nextEdge[node]++];
+					
+					if (order[target] == -1) {
+						
+						//Descend into the target
+						order[target] = lowLink[target] = visited++;
+						nextEdge[target] = graph.offsets[target];
+						stack[stackSize++] = target;
+						onStack[target] = true;
+						
+						path[++depth] = target;
+					} else if (onStack[target]) {
+						lowLink[node] = Math.min(lowLink[node], order[target]);
+					}
+				} else {
+					
+					//Finished with the node; if it's the root of a component, everything above it on the stack belongs to that component
+					if (lowLink[node] == order[node]) {
+						int member;
+						
+						do {
+							member = stack[--stackSize];
+							onStack[member] = false;
+							componentOf[member] = componentCount;
+						} while (member != node);
+						
+						componentCount++;
+					}
+					
+					depth--;
+					
+					if (depth >= 0) {
+						int parent = path[depth];
+						lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+					}
+				}
+			}
+		}
+		
+		return componentCount;
+	}
+	
+	private boolean isNote(int index) {
+		return graph.nodes[index].getType() == NodeType.NOTE;
+	}
+	
+}
@@ -0,0 +1,133 @@
+package com.nokoriware.corkboard.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import com.nokoriware.corkboard.Connection;
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.Node;
+import com.nokoriware.corkboard.analysis.BoardAnalysis.EdgeKind;
+
+/**
+ * A project's Nodes and the links between them, flattened into int arrays for BoardAnalysis. Like CompiledBoard, each Node's out-bound edges are stored back to back in one
+ * array, with an offsets array marking where each Node's run starts (compressed sparse rows). Edges to Nodes outside the project are left out.
+ */
+class BoardGraph {
+	
+	static final int NONE = -1;
+	
+	final Node[] nodes;
+	final IdentityHashMap<Node, Integer> nodeIndices;
+	
+	final int[] offsets;
+	final int[] targets;
+	
+	//How many of each Node's edges dialogue can move along (Connections and jumpers, but not component links)
+	final int[] flowDegrees;
+	
+	BoardGraph(CorkboardProject project, EnumSet<EdgeKind> edgeKinds) {
+		ArrayList<Node> projectNodes = project.getNodes();
+		int nodeCount = projectNodes.size();
+		
+		nodes = projectNodes.toArray(new Node[nodeCount]);
+		nodeIndices = new IdentityHashMap<>(nodeCount);
+		
+		for (int i = 0; i < nodeCount; i++) {
+			nodeIndices.putIfAbsent(nodes[i], i);
+		}
+		
+		boolean connections = edgeKinds.contains(EdgeKind.CONNECTIONS);
+		boolean jumpers = edgeKinds.contains(EdgeKind.JUMPERS);
+		boolean components = edgeKinds.contains(EdgeKind.COMPONENTS);
+		
+		/*
+		 * Count the rows (an upper bound, since edges leaving the project are dropped while filling them in)
+		 */
+		
+		int edgeCount = 0;
+		
+		for (Node node : nodes) {
+			if (connections) {
+				edgeCount += node.getOutgoingConnections().size() + node.getSelfConnections().size();
+			}
+			
+			if (jumpers && node.hasJumperTarget()) {
+				edgeCount++;
+			}
+			
+			if (components) {
+				edgeCount += node.getComponents().size();
+			}
+		}
+		
+		/*
+		 * Fill them in
+		 */
+		
+		offsets = new int[nodeCount + 1];
+		flowDegrees = new int[nodeCount];
+		
+		int[] targets = new int[edgeCount];
+		int edge = 0;
+		
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = nodes[i];
+			offsets[i] = edge;
+			
+			if (connections) {
+				edge = add(targets, edge, node.getOutgoingConnections());
+				edge = add(targets, edge, node.getSelfConnections());
+			}
+			
+			if (jumpers) {
+				edge = add(targets, edge, node.getJumperTarget());
+			}
+			
+			flowDegrees[i] = edge - offsets[i];
+			
+			if (components) {
+				for (Node component : node.getComponents()) {
+					edge = add(targets, edge, component);
+				}
+			}
+		}
+		
+		offsets[nodeCount] = edge;
+		this.targets = (edge == targets.length ? targets : Arrays.copyOf(targets, edge));
+	}
+	
+	private int add(int[] targets, int edge, List<Connection> connections) {
+		for (int i = 0; i < connections.size(); i++) {
+			edge = add(targets, edge, connections.get(i).getTarget());
+		}
+		
+		return edge;
+	}
+	
+	private int add(int[] targets, int edge, Node target) {
+		int index = indexOf(target);
+		
+		if (index != NONE) {
+			targets[edge++] = index;
+		}
+		
+		return edge;
+	}
+	
+	int indexOf(Node node) {
+		Integer index = (node != null ? nodeIndices.get(node) : null);
+		return (index != null ? index : NONE);
+	}
+	
+	int getNodeCount() {
+		return nodes.length;
+	}
+	
+	int getEdgeCount() {
+		return targets.length;
+	}
+	
+}
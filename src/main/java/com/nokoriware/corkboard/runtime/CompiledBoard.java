@@ -0,0 +1,224 @@
+package com.nokoriware.corkboard.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import com.nokoriware.corkboard.Connection;
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.Node;
+import com.nokoriware.corkboard.Node.LabelType;
+
+/**
+ * A frozen copy of a CorkboardProject's Connection graph, laid out in flat arrays so that dialogue can be stepped through without walking objects or allocating.
+ * <br><br>
+ * Every Node is given an index. Each Node's out-bound Connections are stored back to back in shared arrays, with an offsets array marking where each Node's run starts
+ * (compressed sparse rows). The labelled out-bound Connections (the options a player can choose from) get their own rows, and the Node that dialogue moves on to when there are
+ * no options (the first out-bound target, or else the jumper target) is worked out ahead of time.
+ * <br><br>
+ * A CompiledBoard never changes after it's compiled, so one can be shared by any number of threads; changes made to the project afterwards aren't seen until it's compiled again.
+ * Use {@link #newCursor()} to start a conversation.
+ */
+public final class CompiledBoard {
+	
+	/**
+	 * The index used for "no Node", such as the end of a conversation.
+	 */
+	public static final int NONE = -1;
+	
+	private final Node[] nodes;
+	private final IdentityHashMap<Node, Integer> nodeIndices;
+	private final HashMap<String, Integer> nodeIDs;
+	
+	private final int startIndex;
+	
+	//Every out-bound Connection
+	private final int[] edgeOffsets;
+	private final int[] edgeTargets;
+	private final Connection[] edgeConnections;
+	
+	//Labelled out-bound Connections
+	private final int[] optionOffsets;
+	private final int[] optionTargets;
+	private final String[] optionLabels;
+	private final Connection[] optionConnections;
+	
+	//Where to go from each Node when it has no options
+	private final int[] next;
+	
+	private CompiledBoard(CorkboardProject project) {
+		
+		ArrayList<Node> projectNodes = project.getNodes();
+		int nodeCount = projectNodes.size();
+		
+		/*
+		 * Index the nodes
+		 */
+		
+		nodes = projectNodes.toArray(new Node[nodeCount]);
+		nodeIndices = new IdentityHashMap<>(nodeCount);
+		nodeIDs = new HashMap<>((int) (nodeCount / 0.75f) + 1);
+		
+		for (int i = 0; i < nodeCount; i++) {
+			nodeIndices.putIfAbsent(nodes[i], i);
+			nodeIDs.putIfAbsent(nodes[i].getID(), i);
+		}
+		
+		startIndex = indexOf(project.getStartingNode());
+		
+		/*
+		 * Count the rows
+		 */
+		
+		edgeOffsets = new int[nodeCount + 1];
+		optionOffsets = new int[nodeCount + 1];
+		
+		for (int i = 0; i < nodeCount; i++) {
+			edgeOffsets[i + 1] = edgeOffsets[i] + nodes[i].getOutgoingConnections().size();
+			optionOffsets[i + 1] = optionOffsets[i] + nodes[i].getOutgoingConnectionsByLabel(LabelType.LABELLED).size();
+		}
+		
+		/*
+		 * Fill them in
+		 */
+		
+		edgeTargets = new int[edgeOffsets[nodeCount]];
+		edgeConnections = new Connection[edgeOffsets[nodeCount]];
+		
+		optionTargets = new int[optionOffsets[nodeCount]];
+		optionLabels = new String[optionOffsets[nodeCount]];
+		optionConnections = new Connection[optionOffsets[nodeCount]];
+		
+		next = new int[nodeCount];
+		
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = nodes[i];
+			
+			List<Connection> edges = node.getOutgoingConnections();
+			
+			for (int j = 0; j < edges.size(); j++) {
+				Connection connection = edges.get(j);
+				
+				edgeTargets[edgeOffsets[i] + j] = indexOf(connection.getTarget());
+				edgeConnections[edgeOffsets[i] + j] = connection;
+			}
+			
+			List<Connection> options = node.getOutgoingConnectionsByLabel(LabelType.LABELLED);
+			
+			for (int j = 0; j < options.size(); j++) {
+				Connection connection = options.get(j);
+				
+				optionTargets[optionOffsets[i] + j] = indexOf(connection.getTarget());
+				optionLabels[optionOffsets[i] + j] = connection.getLabel();
+				optionConnections[optionOffsets[i] + j] = connection;
+			}
+			
+			//With no out-bound Connections, the dialogue follows the jumper instead (or ends, if there isn't one)
+			next[i] = (!edges.isEmpty() ? edgeTargets[edgeOffsets[i]] : indexOf(node.getJumperTarget()));
+		}
+	}
+	
+	/**
+	 * Compiles the current state of the given project.
+	 */
+	public static CompiledBoard compile(CorkboardProject project) {
+		return new CompiledBoard(project);
+	}
+	
+	/**
+	 * @return a new cursor placed on the project's starting node.
+	 */
+	public DialogueCursor newCursor() {
+		return new DialogueCursor(this, startIndex);
+	}
+	
+	/**
+	 * @return a new cursor placed on the Node at the given index.
+	 */
+	public DialogueCursor newCursor(int nodeIndex) {
+		return new DialogueCursor(this, nodeIndex);
+	}
+	
+	/*
+	 * 
+	 * Nodes
+	 * 
+	 */
+	
+	public int getNodeCount() {
+		return nodes.length;
+	}
+	
+	public Node getNode(int nodeIndex) {
+		return (nodeIndex != NONE ? nodes[nodeIndex] : null);
+	}
+	
+	/**
+	 * @return the index of the given Node, or {@link #NONE} if it isn't part of this board.
+	 */
+	public int indexOf(Node node) {
+		Integer index = (node != null ? nodeIndices.get(node) : null);
+		return (index != null ? index : NONE);
+	}
+	
+	/**
+	 * @return the index of the first Node with the given ID, or {@link #NONE} if there isn't one.
+	 */
+	public int indexOfID(String ID) {
+		Integer index = nodeIDs.get(ID);
+		return (index != null ? index : NONE);
+	}
+	
+	public int getStartIndex() {
+		return startIndex;
+	}
+	
+	/*
+	 * 
+	 * Out-bound Connections
+	 * 
+	 */
+	
+	public int getEdgeCount(int nodeIndex) {
+		return edgeOffsets[nodeIndex + 1] - edgeOffsets[nodeIndex];
+	}
+	
+	public int getEdgeTarget(int nodeIndex, int edge) {
+		return edgeTargets[edgeOffsets[nodeIndex] + edge];
+	}
+	
+	public Connection getEdge(int nodeIndex, int edge) {
+		return edgeConnections[edgeOffsets[nodeIndex] + edge];
+	}
+	
+	/*
+	 * 
+	 * Options (labelled out-bound Connections)
+	 * 
+	 */
+	
+	public int getOptionCount(int nodeIndex) {
+		return optionOffsets[nodeIndex + 1] - optionOffsets[nodeIndex];
+	}
+	
+	public int getOptionTarget(int nodeIndex, int option) {
+		return optionTargets[optionOffsets[nodeIndex] + option];
+	}
+	
+	public String getOptionLabel(int nodeIndex, int option) {
+		return optionLabels[optionOffsets[nodeIndex] + option];
+	}
+	
+	public Connection getOption(int nodeIndex, int option) {
+		return optionConnections[optionOffsets[nodeIndex] + option];
+	}
+	
+	/**
+	 * @return the index of the Node that dialogue moves on to from the given Node when it has no options, or {@link #NONE} if the dialogue ends there.
+	 */
+	public int getNext(int nodeIndex) {
+		return next[nodeIndex];
+	}
+	
+}
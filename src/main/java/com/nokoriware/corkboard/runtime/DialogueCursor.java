@@ -0,0 +1,99 @@
+package com.nokoriware.corkboard.runtime;
+
+import com.nokoriware.corkboard.Connection;
+import com.nokoriware.corkboard.Node;
+
+/**
+ * Tracks one conversation's position in a CompiledBoard. A cursor is just a Node index, so any number of them can step through the same board at once, and stepping never allocates.
+ * <br><br>
+ * At each Node, if there are options (labelled out-bound Connections), one is picked with {@link #choose(int)}. Otherwise {@link #advance()} moves on to the first out-bound target,
+ * or to the jumper target if there are no out-bound Connections. The conversation is finished once the cursor lands on {@link CompiledBoard#NONE}.
+ * <br><br>
+ * Cursors aren't thread-safe themselves; give each conversation its own.
+ */
+public final class DialogueCursor {
+	
+	private final CompiledBoard board;
+	private int current;
+	
+	DialogueCursor(CompiledBoard board, int nodeIndex) {
+		this.board = board;
+		this.current = nodeIndex;
+	}
+	
+	public CompiledBoard getBoard() {
+		return board;
+	}
+	
+	/**
+	 * @return the Node the cursor is on, or null if the conversation is finished.
+	 */
+	public Node current() {
+		return board.getNode(current);
+	}
+	
+	public int currentIndex() {
+		return current;
+	}
+	
+	public boolean isFinished() {
+		return current == CompiledBoard.NONE;
+	}
+	
+	/**
+	 * Moves the cursor to the Node at the given index, such as {@link CompiledBoard#getStartIndex()} to restart the conversation.
+	 */
+	public void jump(int nodeIndex) {
+		this.current = nodeIndex;
+	}
+	
+	/*
+	 * 
+	 * Options
+	 * 
+	 */
+	
+	/**
+	 * @return how many options the current Node has. Zero means the cursor should be moved with {@link #advance()} instead.
+	 */
+	public int options() {
+		return (current != CompiledBoard.NONE ? board.getOptionCount(current) : 0);
+	}
+	
+	public String optionLabel(int option) {
+		return board.getOptionLabel(current, option);
+	}
+	
+	public Connection option(int option) {
+		return board.getOption(current, option);
+	}
+	
+	/**
+	 * Follows the given option from the current Node.
+	 * 
+	 * @return false (without moving) if there's no such option
+	 */
+	public boolean choose(int option) {
+		if (option < 0 || option >= options()) {
+			return false;
+		}
+		
+		current = board.getOptionTarget(current, option);
+		return true;
+	}
+	
+	/**
+	 * Moves on from a Node that has no options.
+	 * 
+	 * @return false (without moving) if the current Node has options that need to be chosen from, or if the conversation is already finished
+	 */
+	public boolean advance() {
+		if (current == CompiledBoard.NONE || board.getOptionCount(current) > 0) {
+			return false;
+		}
+		
+		current = board.getNext(current);
+		return true;
+	}
+	
+}
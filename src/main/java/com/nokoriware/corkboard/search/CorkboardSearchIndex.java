@@ -0,0 +1,706 @@
+package com.nokoriware.corkboard.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.nokoriware.corkboard.Connection;
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.CorkboardProjectListener;
+import com.nokoriware.corkboard.Element;
+import com.nokoriware.corkboard.Node;
+
+/**
+ * A full-text index over the Nodes and Connections of one or more CorkboardProjects, for dialogue browsers, debug consoles, and editor tooling that need to find text
+ * across a whole game's boards without walking every Node.
+ * <br><br>
+ * Each Node is indexed by its label, the text of its body, and its attributes, and each Connection by its label. Text is split into lower case words (see
+ * {@link #search(String, int)} for the query syntax), and results are ranked with BM25, with words in labels counting double.
+ * <br><br>
+ * The index listens to the projects added to it, so edits made through the library (labels, bodies, attributes, and adding or removing elements) are picked up on their own.
+ * Changes are only noted as they happen, and the index catches up on them at the start of the next search, so bulk edits don't pay for re-indexing on every call. All methods
+ * are thread-safe.
+ * <br><br>
+ * Example:
+ * <pre>
+ * CorkboardSearchIndex index = new CorkboardSearchIndex();
+ * index.add(project);
+ * 
+ * for (SearchResult result : index.search("\"old lighthouse\" keep*", 10)) {
+ *     System.out.println(result.getNode().getLabel());
+ * }
+ * </pre>
+ */
+public class CorkboardSearchIndex {
+	
+	//BM25 tuning, at the usual defaults
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	
+	private static final int LABEL_WEIGHT = 2;
+	
+	//Sits between a document's fields, so phrases never match across the end of one field and the start of the next
+	private static final int FIELD_BREAK = -1;
+	
+	//Removed documents are left in the postings until there are at least this many, and as many as there are live ones
+	private static final int MIN_COMPACT_POSTINGS = 1024;
+	
+	private final TreeMap<String, Term> dictionary = new TreeMap<>();
+	private final ArrayList<Term> terms = new ArrayList<>();
+	
+	/*
+	 * Documents are numbered in the order they were indexed. A removed document keeps its number (with null tokens) until the next compaction.
+	 */
+	
+	private Element[] elements = new Element[64];
+	private CorkboardProject[] owners = new CorkboardProject[64];
+	private int[][] tokens = new int[64][];
+	private int[] lengths = new int[64];
+	private int documentCount;
+	
+	private final IdentityHashMap<Element, Integer> documents = new IdentityHashMap<>();
+	private int liveDocuments;
+	private long totalLength;
+	
+	private long livePostings;
+	private long deadPostings;
+	
+	private final IdentityHashMap<CorkboardProject, Listener> projects = new IdentityHashMap<>();
+	
+	//Changes that haven't been indexed yet
+	private final Set<Element> dirtyElements = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<CorkboardProject> dirtyProjects = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	//Scratch space for counting the words in a document, reused between documents
+	private final ArrayList<String> words = new ArrayList<>();
+	private int stamp;
+	
+	/*
+	 * 
+	 * Projects
+	 * 
+	 */
+	
+	/**
+	 * Indexes every Node and Connection in the project, and keeps them indexed as the project changes.
+	 */
+	public synchronized void add(CorkboardProject project) {
+		if (projects.containsKey(project)) {
+			return;
+		}
+		
+		Listener listener = new Listener();
+		projects.put(project, listener);
+		project.addListener(listener);
+		
+		for (Node node : project.getNodes()) {
+			index(node, project);
+		}
+		
+		for (Connection connection : project.getConnections()) {
+			index(connection, project);
+		}
+	}
+	
+	/**
+	 * Removes the project's Nodes and Connections from the index, and stops listening to it.
+	 */
+	public synchronized void remove(CorkboardProject project) {
+		Listener listener = projects.remove(project);
+		
+		if (listener == null) {
+			return;
+		}
+		
+		project.removeListener(listener);
+		dirtyProjects.remove(project);
+		
+		for (int doc = 0; doc < documentCount; doc++) {
+			if (owners[doc] == project && tokens[doc] != null) {
+				dirtyElements.remove(elements[doc]);
+				unindex(elements[doc]);
+			}
+		}
+		
+		compactIfNeeded();
+	}
+	
+	public synchronized boolean contains(CorkboardProject project) {
+		return projects.containsKey(project);
+	}
+	
+	/**
+	 * Indexes any changes made since the last search. Searches do this themselves, so this is only needed to get the work out of the way ahead of time.
+	 */
+	public synchronized void refresh() {
+		if (!dirtyProjects.isEmpty()) {
+			for (CorkboardProject project : dirtyProjects) {
+				refreshProject(project);
+			}
+			
+			dirtyProjects.clear();
+		}
+		
+		if (!dirtyElements.isEmpty()) {
+			for (Element element : dirtyElements) {
+				CorkboardProject project = element.getProject();
+				
+				if (documents.containsKey(element)) {
+					unindex(element);
+				}
+				
+				if (project != null && projects.containsKey(project)) {
+					index(element, project);
+				}
+			}
+			
+			dirtyElements.clear();
+		}
+		
+		compactIfNeeded();
+	}
+	
+	/**
+	 * Brings the index in line with a project that's had elements added or removed: new elements are indexed, and elements no longer in the project are dropped.
+	 */
+	private void refreshProject(CorkboardProject project) {
+		Set<Element> current = Collections.newSetFromMap(new IdentityHashMap<>());
+		
+		for (Node node : project.getNodes()) {
+			current.add(node);
+		}
+		
+		for (Connection connection : project.getConnections()) {
+			current.add(connection);
+		}
+		
+		for (int doc = 0; doc < documentCount; doc++) {
+			if (owners[doc] == project && tokens[doc] != null && !current.contains(elements[doc])) {
+				unindex(elements[doc]);
+			}
+		}
+		
+		for (Element element : current) {
+			if (!documents.containsKey(element)) {
+				index(element, project);
+				dirtyElements.remove(element);
+			}
+		}
+	}
+	
+	/*
+	 * 
+	 * Searching
+	 * 
+	 */
+	
+	/**
+	 * @see #search(String, int)
+	 */
+	public List<SearchResult> search(String query) {
+		return search(query, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Finds the elements that match every part of the query, best matches first. A query is made of:
+	 * <ul>
+	 * <li>Words, like <code>lighthouse keeper</code>, which match elements containing all of them (in any order).</li>
+	 * <li>Phrases in quotes, like <code>"old lighthouse"</code>, which match elements containing the words next to each other, in order.</li>
+	 * <li>Prefixes ending in <code>*</code>, like <code>light*</code>, which match any word starting with them.</li>
+	 * </ul>
+	 * Matching ignores case and punctuation.
+	 * 
+	 * @param limit - the most results to return
+	 * @return the matching elements, ranked by score.
+	 */
+	public synchronized List<SearchResult> search(String query, int limit) {
+		refresh();
+		
+		ArrayList<Clause> clauses = parse(query);
+		
+		if (clauses.isEmpty() || limit <= 0) {
+			return new ArrayList<>();
+		}
+		
+		//matched[doc] is how many clauses the document has matched so far, so a document only stays in the running while it matches every clause in turn
+		float[] scores = new float[documentCount];
+		int[] matched = new int[documentCount];
+		
+		float averageLength = (liveDocuments > 0 ? (float) totalLength / liveDocuments : 1f);
+		
+		for (int c = 0; c < clauses.size(); c++) {
+			if (!clauses.get(c).match(c, matched, scores, averageLength)) {
+				return new ArrayList<>();
+			}
+		}
+		
+		int clauseCount = clauses.size();
+		
+		//Keep the best results in a min-heap, so the weakest is always the one to go
+		PriorityQueue<Integer> best = new PriorityQueue<>((a, b) -> (scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(b, a)));
+		
+		for (int doc = 0; doc < documentCount; doc++) {
+			if (matched[doc] == clauseCount) {
+				best.add(doc);
+				
+				if (best.size() > limit) {
+					best.poll();
+				}
+			}
+		}
+		
+		SearchResult[] results = new SearchResult[best.size()];
+		
+		for (int i = results.length - 1; i >= 0; i--) {
+			int doc = best.poll();
+			results[i] = new SearchResult(elements[doc], owners[doc], scores[doc]);
+		}
+		
+		return new ArrayList<>(Arrays.asList(results));
+	}
+	
+	/**
+	 * @return how many Nodes and Connections are indexed.
+	 */
+	public synchronized int getDocumentCount() {
+		refresh();
+		return liveDocuments;
+	}
+	
+	/**
+	 * @return how many different words are indexed.
+	 */
+	public synchronized int getTermCount() {
+		refresh();
+		
+		int count = 0;
+		
+		for (Term term : dictionary.values()) {
+			if (term.liveCount > 0) {
+				count++;
+			}
+		}
+		
+		return count;
+	}
+	
+	/*
+	 * 
+	 * Queries
+	 * 
+	 */
+	
+	private ArrayList<Clause> parse(String query) {
+		ArrayList<Clause> clauses = new ArrayList<>();
+		
+		if (query == null) {
+			return clauses;
+		}
+		
+		//Every other piece is inside quotes
+		String[] pieces = query.split("\"", -1);
+		
+		for (int p = 0; p < pieces.length; p++) {
+			if (p % 2 == 1) {
+				addWords(clauses, SearchTokenizer.tokenize(pieces[p]));
+				continue;
+			}
+			
+			for (String part : pieces[p].trim().split("\\s+")) {
+				if (part.endsWith("*")) {
+					ArrayList<String> prefix = SearchTokenizer.tokenize(part);
+					
+					if (prefix.isEmpty()) {
+						continue;
+					}
+					
+					//Everything before the last word has to match exactly
+					String last = prefix.remove(prefix.size() - 1);
+					addWords(clauses, prefix);
+					clauses.add(new WordClause(last));
+				} else {
+					//Words joined by punctuation (like "keeper's-log") are kept together as a phrase
+					addWords(clauses, SearchTokenizer.tokenize(part));
+				}
+			}
+		}
+		
+		return clauses;
+	}
+	
+	private void addWords(ArrayList<Clause> clauses, ArrayList<String> words) {
+		if (words.size() == 1) {
+			clauses.add(new WordClause(words.get(0), true));
+		} else if (words.size() > 1) {
+			clauses.add(new PhraseClause(words));
+		}
+	}
+	
+	/**
+	 * One part of a query, which a document has to match to be a result.
+	 */
+	private abstract class Clause {
+		
+		/**
+		 * Moves every document that has matched all of the clauses before this one (<code>matched[doc] == index</code>) and matches this one on to <code>index + 1</code>,
+		 * adding to its score.
+		 * 
+		 * @return false if nothing could possibly match, to end the search early.
+		 */
+		abstract boolean match(int index, int[] matched, float[] scores, float averageLength);
+		
+	}
+	
+	private class WordClause extends Clause {
+		
+		private final String word;
+		private final boolean exact;
+		
+		public WordClause(String word) {
+			this(word, false);
+		}
+		
+		public WordClause(String word, boolean exact) {
+			this.word = word;
+			this.exact = exact;
+		}
+		
+		@Override
+		boolean match(int index, int[] matched, float[] scores, float averageLength) {
+			if (exact) {
+				Term term = dictionary.get(word);
+				
+				if (term == null || term.liveCount == 0) {
+					return false;
+				}
+				
+				matchTerm(term, index, matched, scores, averageLength);
+				return true;
+			}
+			
+			boolean any = false;
+			
+			//Every word starting with the prefix sorts between the prefix and the prefix followed by the highest char
+			for (Term term : dictionary.subMap(word, true, word + Character.MAX_VALUE, true).values()) {
+				if (term.liveCount > 0) {
+					matchTerm(term, index, matched, scores, averageLength);
+					any = true;
+				}
+			}
+			
+			return any;
+		}
+		
+		private void matchTerm(Term term, int index, int[] matched, float[] scores, float averageLength) {
+			float idf = idf(term.liveCount);
+			
+			for (int i = 0; i < term.size; i++) {
+				int doc = term.documents[i];
+				
+				//A document may already have matched this clause through another word with the same prefix
+				if (tokens[doc] != null && (matched[doc] == index || matched[doc] == index + 1)) {
+					matched[doc] = index + 1;
+					scores[doc] += score(term.frequencies[i], lengths[doc], idf, averageLength);
+				}
+			}
+		}
+		
+	}
+	
+	private class PhraseClause extends Clause {
+		
+		private final ArrayList<String> words;
+		
+		public PhraseClause(ArrayList<String> words) {
+			this.words = words;
+		}
+		
+		@Override
+		boolean match(int index, int[] matched, float[] scores, float averageLength) {
+			int[] phrase = new int[words.size()];
+			Term rarest = null;
+			float idf = 0;
+			
+			for (int w = 0; w < phrase.length; w++) {
+				Term term = dictionary.get(words.get(w));
+				
+				if (term == null || term.liveCount == 0) {
+					return false;
+				}
+				
+				phrase[w] = term.id;
+				idf += idf(term.liveCount);
+				
+				if (rarest == null || term.liveCount < rarest.liveCount) {
+					rarest = term;
+				}
+			}
+			
+			//Only documents with the rarest word can have the phrase, so check those against their tokens
+			for (int i = 0; i < rarest.size; i++) {
+				int doc = rarest.documents[i];
+				
+				if (tokens[doc] != null && matched[doc] == index) {
+					int count = countPhrase(tokens[doc], phrase);
+					
+					if (count > 0) {
+						matched[doc] = index + 1;
+						scores[doc] += score(count, lengths[doc], idf, averageLength);
+					}
+				}
+			}
+			
+			return true;
+		}
+		
+		private int countPhrase(int[] tokens, int[] phrase) {
+			int count = 0;
+			
+			search:
+			for (int t = 0; t + phrase.length <= tokens.length; t++) {
+				for (int w = 0; w < phrase.length; w++) {
+					if (tokens[t + w] != phrase[w]) {
+						continue search;
+					}
+				}
+				
+				count++;
+			}
+			
+			return count;
+		}
+		
+	}
+	
+	private float idf(int documentFrequency) {
+		return (float) Math.log(1.0 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+	}
+	
+	private static float score(int frequency, int length, float idf, float averageLength) {
+		return idf * (frequency * (K1 + 1)) / (frequency + K1 * (1 - B + B * length / averageLength));
+	}
+	
+	/*
+	 * 
+	 * Indexing
+	 * 
+	 */
+	
+	private void index(Element element, CorkboardProject project) {
+		words.clear();
+		SearchTokenizer.tokenize(element.getLabel(), words);
+		int labelLength = words.size();
+		
+		if (element instanceof Node) {
+			Node node = (Node) element;
+			
+			words.add(null);
+			
+			if (node.hasBody()) {
+				SearchTokenizer.tokenize(node.getBody().getText(), words);
+			}
+			
+			for (String attribute : node.getAttributes()) {
+				words.add(null);
+				SearchTokenizer.tokenize(attribute, words);
+			}
+		}
+		
+		int doc = newDocument();
+		int[] documentTokens = new int[words.size()];
+		int length = 0;
+		
+		stamp++;
+		ArrayList<Term> seen = new ArrayList<>();
+		
+		for (int i = 0; i < documentTokens.length; i++) {
+			String word = words.get(i);
+			
+			if (word == null) {
+				documentTokens[i] = FIELD_BREAK;
+				continue;
+			}
+			
+			Term term = dictionary.get(word);
+			
+			if (term == null) {
+				term = new Term(terms.size());
+				terms.add(term);
+				dictionary.put(word, term);
+			}
+			
+			if (term.stamp != stamp) {
+				term.stamp = stamp;
+				term.pending = 0;
+				seen.add(term);
+			}
+			
+			term.pending += (i < labelLength ? LABEL_WEIGHT : 1);
+			documentTokens[i] = term.id;
+			length++;
+		}
+		
+		for (Term term : seen) {
+			term.add(doc, term.pending);
+		}
+		
+		elements[doc] = element;
+		owners[doc] = project;
+		tokens[doc] = documentTokens;
+		lengths[doc] = length;
+		
+		documents.put(element, doc);
+		liveDocuments++;
+		totalLength += length;
+		livePostings += seen.size();
+	}
+	
+	private void unindex(Element element) {
+		Integer doc = documents.remove(element);
+		
+		if (doc == null) {
+			return;
+		}
+		
+		stamp++;
+		int removed = 0;
+		
+		for (int id : tokens[doc]) {
+			if (id == FIELD_BREAK) {
+				continue;
+			}
+			
+			Term term = terms.get(id);
+			
+			if (term.stamp != stamp) {
+				term.stamp = stamp;
+				term.liveCount--;
+				removed++;
+			}
+		}
+		
+		//The postings stay where they are, and are skipped by searches until the next compaction
+		elements[doc] = null;
+		owners[doc] = null;
+		tokens[doc] = null;
+		
+		liveDocuments--;
+		totalLength -= lengths[doc];
+		livePostings -= removed;
+		deadPostings += removed;
+	}
+	
+	private int newDocument() {
+		if (documentCount == elements.length) {
+			int capacity = elements.length * 2;
+			
+			elements = Arrays.copyOf(elements, capacity);
+			owners = Arrays.copyOf(owners, capacity);
+			tokens = Arrays.copyOf(tokens, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+		}
+		
+		return documentCount++;
+	}
+	
+	/**
+	 * Rebuilds the index from scratch once removed documents make up most of it. Edited elements are removed and indexed again, so this also drops words that nothing uses
+	 * anymore.
+	 */
+	private void compactIfNeeded() {
+		if (deadPostings < MIN_COMPACT_POSTINGS || deadPostings < livePostings) {
+			return;
+		}
+		
+		Element[] oldElements = elements;
+		CorkboardProject[] oldOwners = owners;
+		int oldCount = documentCount;
+		
+		dictionary.clear();
+		terms.clear();
+		documents.clear();
+		
+		elements = new Element[Math.max(64, liveDocuments)];
+		owners = new CorkboardProject[elements.length];
+		tokens = new int[elements.length][];
+		lengths = new int[elements.length];
+		
+		documentCount = 0;
+		liveDocuments = 0;
+		totalLength = 0;
+		livePostings = 0;
+		deadPostings = 0;
+		
+		for (int doc = 0; doc < oldCount; doc++) {
+			if (oldElements[doc] != null) {
+				index(oldElements[doc], oldOwners[doc]);
+			}
+		}
+	}
+	
+	private static class Term {
+		
+		private final int id;
+		
+		//Postings, in document order: each document the word appears in, and how often (with label words counted more)
+		private int[] documents = new int[2];
+		private int[] frequencies = new int[2];
+		private int size;
+		
+		//How many live documents have the word
+		private int liveCount;
+		
+		private int stamp;
+		private int pending;
+		
+		public Term(int id) {
+			this.id = id;
+		}
+		
+		private void add(int document, int frequency) {
+			if (size == documents.length) {
+				documents = Arrays.copyOf(documents, size * 2);
+				frequencies = Arrays.copyOf(frequencies, size * 2);
+			}
+			
+			documents[size] = document;
+			frequencies[size] = frequency;
+			size++;
+			liveCount++;
+		}
+		
+	}
+	
+	/*
+	 * 
+	 * Listening
+	 * 
+	 */
+	
+	/**
+	 * Notes changes to a project, to be indexed at the next search.
+	 */
+	private class Listener implements CorkboardProjectListener {
+		
+		@Override
+		public void elementChanged(Element element) {
+			synchronized (CorkboardSearchIndex.this) {
+				dirtyElements.add(element);
+			}
+		}
+		
+		@Override
+		public void elementsChanged(CorkboardProject project) {
+			synchronized (CorkboardSearchIndex.this) {
+				dirtyProjects.add(project);
+			}
+		}
+		
+	}
+	
+}
@@ -0,0 +1,60 @@
+package com.nokoriware.corkboard.search;
+
+import com.nokoriware.corkboard.Connection;
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.Element;
+import com.nokoriware.corkboard.Node;
+
+/**
+ * One match from a {@link CorkboardSearchIndex}: a Node or Connection, the project it belongs to, and how well it matched.
+ */
+public class SearchResult {
+	
+	private final Element element;
+	private final CorkboardProject project;
+	private final float score;
+	
+	SearchResult(Element element, CorkboardProject project, float score) {
+		this.element = element;
+		this.project = project;
+		this.score = score;
+	}
+	
+	/**
+	 * @return the matching Node or Connection.
+	 */
+	public Element getElement() {
+		return element;
+	}
+	
+	/**
+	 * @return the matching Node, or null if a Connection matched.
+	 */
+	public Node getNode() {
+		return (element instanceof Node ? (Node) element : null);
+	}
+	
+	/**
+	 * @return the matching Connection, or null if a Node matched.
+	 */
+	public Connection getConnection() {
+		return (element instanceof Connection ? (Connection) element : null);
+	}
+	
+	public CorkboardProject getProject() {
+		return project;
+	}
+	
+	/**
+	 * @return how relevant the match is (higher is better). Scores can be compared between results of the same search, but mean nothing on their own.
+	 */
+	public float getScore() {
+		return score;
+	}
+	
+	@Override
+	public String toString() {
+		return "Search Result: [" + project.getName() + "] [" + element.getClass().getSimpleName() + " " + element.getID() + ": " + element.getLabel() + "] [Score = " + score + "]";
+	}
+	
+}
@@ -0,0 +1,49 @@
+package com.nokoriware.corkboard.search;
+
+import java.util.ArrayList;
+
+/**
+ * Splits text into the words the search index works with: runs of letters and digits, in lower case. Apostrophes inside a word are dropped rather than splitting it, so
+ * "don't" and "dont" are the same word. Queries are split the same way, so they always line up with the index.
+ */
+class SearchTokenizer {
+	
+	private SearchTokenizer() {}
+	
+	static void tokenize(String text, ArrayList<String> words) {
+		if (text == null) {
+			return;
+		}
+		
+		StringBuilder word = new StringBuilder();
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			if (Character.isLetterOrDigit(c)) {
+				word.append(Character.toLowerCase(c));
+			} else if (isApostrophe(c) && word.length() > 0 && i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1))) {
+				//Part of the word, but not kept
+			} else if (word.length() > 0) {
+				words.add(word.toString());
+				word.setLength(0);
+			}
+		}
+		
+		if (word.length() > 0) {
+			words.add(word.toString());
+		}
+	}
+	
+	static ArrayList<String> tokenize(String text) {
+		ArrayList<String> words = new ArrayList<>();
+		tokenize(text, words);
+		return words;
+	}
+	
+	private static boolean isApostrophe(char c) {
+		//Straight or curly (right single quotation mark)
+		return c == '\'' || c == '\u2019';
+	}
+	
+}
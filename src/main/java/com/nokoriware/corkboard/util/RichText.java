@@ -10,6 +10,7 @@ import org.jsoup.select.NodeVisitor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -20,32 +21,131 @@ import java.util.List;
  */
 public class RichText {
 	
-	private Element body;
+	//Volatile because tokenized RichText objects build these lazily, and may be shared between threads
+	private volatile Element body;
 	
 	private String plainText;
-	private List<CharacterStyle> characterStyles;
+	private StyleRuns styleRuns;
+	private volatile List<CharacterStyle> characterStyles;
 	private CustomTag[] customTags;
 	
 	private List<String> codeBlocks;
+	
+	//Only kept for tokenized RichText objects, which build their body when it's first asked for
+	private String html;
+	private boolean extractCodeBlocks;
+	
+	//Only kept for RichText objects made by a RichTextCache, so that the CustomTag callbacks can be replayed when the cached object is reused.
+	//These are the objects that get shared, so they're read-only: getBody() hands out copies and the code blocks can't be changed.
+	private int[] tagEvents;
+	private int tagEventCount;
 
 	public RichText(String html) {
 		this(html, false);
 	}
 	
 	public RichText(String html, boolean extractCodeBlocks, CustomTag...customTags) {
-		this(Jsoup.parse(decodeHtml(html)), extractCodeBlocks, customTags);
+		this(parseDocument(html), extractCodeBlocks, false, customTags);
+	}
+	
+	private RichText(CustomTag[] customTags) {
+		this.customTags = customTags;
 	}
 	
-	private RichText(Document document, boolean extractCodeBlocks, CustomTag...customTags) {
+	RichText(Document document, boolean extractCodeBlocks, boolean recordTagEvents, CustomTag...customTags) {
 		this.customTags = customTags;
 		
+		if (recordTagEvents) {
+			tagEvents = new int[8];
+		}
+		
 		parse(document.body(), extractCodeBlocks, customTags);
+		
+		if (recordTagEvents && codeBlocks != null) {
+			codeBlocks = Collections.unmodifiableList(codeBlocks);
+		}
+	}
+	
+	public static RichText tokenize(String html) {
+		return tokenize(html, false);
+	}
+	
+	/**
+	 * Works the same as the constructor, but reads the html with a lightweight tokenizer instead of building a Jsoup document when it can. This is much quicker, and makes far less
+	 * garbage, for the simple markup Corkboard bodies are made of: p, b/strong, i/em, u, code, br, and CustomTags. Anything else falls back to Jsoup, so the results are always the same.
+	 * <br><br>
+	 * The body Element isn't built unless {@link #getBody()} or {@link #containsTag(String)} are used, and building it runs the replacer tags' replacement() again.
+	 */
+	public static RichText tokenize(String html, boolean extractCodeBlocks, CustomTag...customTags) {
+		RichText richText = new RichText(customTags);
+		String decodedHtml = decodeHtml(html);
+		
+		if (RichTextTokenizer.supports(customTags)) {
+			RichTextTokenizer tokenizer = new RichTextTokenizer(decodedHtml, extractCodeBlocks, customTags);
+			
+			//The dry run makes sure nothing is done unless the whole body can be tokenized
+			if (tokenizer.run(null, null)) {
+				StyleBuilder builder = richText.new StyleBuilder();
+				List<String> codeBlocks = (extractCodeBlocks ? new ArrayList<>() : null);
+				
+				tokenizer.run(builder, codeBlocks);
+				builder.finish();
+				
+				richText.codeBlocks = codeBlocks;
+				richText.html = html;
+				richText.extractCodeBlocks = extractCodeBlocks;
+				
+				return richText;
+			}
+		}
+		
+		richText.parse(Jsoup.parse(decodedHtml).body(), extractCodeBlocks, customTags);
+		return richText;
 	}
 	
 	private void parse(Element body, boolean extractCodeBlocks, CustomTag...customTags){
 		this.body = body;
 		
 		//Extract code blocks into this list to be run separately, and also remove them from the body
+		List<String> codeBlocks = prepare(body, extractCodeBlocks, customTags);
+		
+		if (extractCodeBlocks) {
+			this.codeBlocks = codeBlocks;
+		}
+		
+		StyleBuilder builder = new StyleBuilder();
+
+		// Traverse the nodes to build the plain text and keep track of styles
+		body.traverse(new NodeVisitor() {
+			
+			@Override
+			public void head(Node node, int depth) {
+				if (node instanceof Element) {
+					builder.start(((Element) node).tagName());
+				} else if (node instanceof TextNode) {
+					builder.text(((TextNode) node).text());
+				}
+			}
+
+			@Override
+			public void tail(Node node, int depth) {
+				if (node instanceof Element) {
+					builder.end(((Element) node).tagName());
+				}
+			}
+		});
+
+		builder.finish();
+	}
+	
+	/**
+	 * Extracts the code blocks (if asked to) and swaps the replacer tags for their text, ahead of the traversal.
+	 * 
+	 * @return the extracted code blocks, or null if they weren't extracted
+	 */
+	private static List<String> prepare(Element body, boolean extractCodeBlocks, CustomTag...customTags) {
+		List<String> codeBlocks = null;
+		
 		if (extractCodeBlocks) {
 			codeBlocks = extractCodeBlocks(body);
 		}
@@ -66,139 +166,179 @@ public class RichText {
 			}
 		}
 		
-		StringBuilder plainText = new StringBuilder();
-		List<CharacterStyle> characterStyles = new ArrayList<>();
-
-		// Traverse the nodes to build the plain text and keep track of styles
-		body.traverse(new NodeVisitor() {
-			
-			int currentIndex = 0;
-			
-			boolean isBold = false;
-			boolean isItalic = false;
-			boolean isUnderline = false;
-			boolean isCustomTag[] = new boolean[customTags.length];
-			
-			@Override
-			public void head(Node node, int depth) {
-				if (node instanceof Element) {
-					
-
-					Element element = (Element) node;
-					String tagName = element.tagName();
-
-					switch (tagName) {
-					case "strong":
-					case "b":
-						isBold = true;
-						break;
-					case "em":
-					case "i":
-						isItalic = true;
-						break;
-					case "u":
-						isUnderline = true;
-						break;
-					default:
-						
-						if (customTags != null) {
-							for (int i = 0; i < customTags.length; i++) {
-								CustomTag tag = customTags[i];
-								
-								if (tagName.equalsIgnoreCase(tag.name())) {
-									isCustomTag[i] = true;
-									tag.onStart(currentIndex);
-								}
-							}
-						}
+		return codeBlocks;
+	}
+	
+	/**
+	 * Builds the plain text and the style runs from a stream of start tags, text, and end tags, in document order. Both the Jsoup traversal and the {@link RichTextTokenizer} feed
+	 * into one of these, so they style text the same way.
+	 */
+	final class StyleBuilder {
+		
+		private final StringBuilder plainText = new StringBuilder();
+		private final StyleRuns styleRuns = new StyleRuns(customTags.length);
+		
+		private int currentIndex = 0;
+		
+		private boolean isBold = false;
+		private boolean isItalic = false;
+		private boolean isUnderline = false;
+		private final boolean isCustomTag[] = new boolean[customTags.length];
+		
+		void start(String tagName) {
+			switch (tagName) {
+			case "strong":
+			case "b":
+				isBold = true;
+				break;
+			case "em":
+			case "i":
+				isItalic = true;
+				break;
+			case "u":
+				isUnderline = true;
+				break;
+			default:
+				
+				if (customTags != null) {
+					for (int i = 0; i < customTags.length; i++) {
+						CustomTag tag = customTags[i];
 						
-						break;
-					}
-
-					
-				} else if (node instanceof TextNode) {
-					
-					TextNode textNode = (TextNode) node;
-					String text = textNode.text();
-					
-					if (!text.isEmpty()) {
-
-						//If the last style never found an endIndex, set one here.
-						if (!characterStyles.isEmpty()) {
-							CharacterStyle lastStyle = characterStyles.getLast();
-							
-							if (lastStyle.endIndex == 0) {
-								lastStyle.endIndex = currentIndex;
-							}
-
+						if (tagName.equalsIgnoreCase(tag.name())) {
+							isCustomTag[i] = true;
+							tag.onStart(currentIndex);
+							recordTagEvent(i, false, currentIndex);
 						}
-
-						//Create a new style here
-						plainText.append(text);
-						characterStyles.add(new CharacterStyle(currentIndex, isBold, isItalic, isUnderline, Arrays.copyOf(isCustomTag, isCustomTag.length)));
-						currentIndex += text.length();
 					}
-					
 				}
-			}
-
-			@Override
-			public void tail(Node node, int depth) {
 				
-				if (node instanceof Element) {
-					Element element = (Element) node;
-					String tagName = element.tagName();
+				break;
+			}
+		}
+		
+		void text(CharSequence text) {
+			if (text.length() > 0) {
 
-					switch (tagName) {
-					case "strong":
-					case "b":
-						isBold = false;
-						break;
-					case "em":
-					case "i":
-						isItalic = false;
-						break;
-					case "u":
-						isUnderline = false;
-						break;
-					default:
-						
-						if (customTags != null) {
-							for (int i = 0; i < customTags.length; i++) {
-								CustomTag tag = customTags[i];
-								
-								if (tagName.equalsIgnoreCase(tag.name())) {
-									isCustomTag[i] = false;
-									tag.onEnd(currentIndex);
-								}
-							}
-						}
-						
-						break;
-					}
+				//If the last style never found an endIndex, set one here.
+				styleRuns.closeLast(currentIndex);
 
-					// Update the end index of the most recent style if it matches the tag
-					if (!characterStyles.isEmpty()) {
-						CharacterStyle lastStyle = characterStyles.getLast();
+				//Create a new style here
+				plainText.append(text);
+				styleRuns.add(currentIndex, isBold, isItalic, isUnderline, isCustomTag);
+				currentIndex += text.length();
+			}
+		}
+		
+		void end(String tagName) {
+			switch (tagName) {
+			case "strong":
+			case "b":
+				isBold = false;
+				break;
+			case "em":
+			case "i":
+				isItalic = false;
+				break;
+			case "u":
+				isUnderline = false;
+				break;
+			default:
+				
+				if (customTags != null) {
+					for (int i = 0; i < customTags.length; i++) {
+						CustomTag tag = customTags[i];
 						
-						if (lastStyle.endIndex == 0) {
-							lastStyle.endIndex = currentIndex;
+						if (tagName.equalsIgnoreCase(tag.name())) {
+							isCustomTag[i] = false;
+							tag.onEnd(currentIndex);
+							recordTagEvent(i, true, currentIndex);
 						}
 					}
-
 				}
+				
+				break;
 			}
-		});
-
-		this.plainText = plainText.toString();
-		this.characterStyles = characterStyles;
 
+			// Update the end index of the most recent style if it matches the tag
+			styleRuns.closeLast(currentIndex);
+		}
+		
+		void finish() {
+			styleRuns.trim();
+			
+			RichText.this.plainText = plainText.toString();
+			RichText.this.styleRuns = styleRuns;
+		}
+		
+	}
+	
+	/**
+	 * Keeps track of a CustomTag callback so that it can be fired again by {@link #replayTagEvents()}.
+	 */
+	private void recordTagEvent(int customTagIndex, boolean isEnd, int charIndex) {
+		if (tagEvents == null) {
+			return;
+		}
+		
+		if (tagEventCount + 2 > tagEvents.length) {
+			tagEvents = Arrays.copyOf(tagEvents, tagEvents.length * 2);
+		}
+		
+		tagEvents[tagEventCount++] = (customTagIndex << 1) | (isEnd ? 1 : 0);
+		tagEvents[tagEventCount++] = charIndex;
+	}
+	
+	/**
+	 * Fires the CustomTag callbacks from parsing again, in the same order and with the same character indices.
+	 */
+	void replayTagEvents() {
+		for (int i = 0; i < tagEventCount; i += 2) {
+			CustomTag tag = customTags[tagEvents[i] >>> 1];
+			
+			if ((tagEvents[i] & 1) == 0) {
+				tag.onStart(tagEvents[i + 1]);
+			} else {
+				tag.onEnd(tagEvents[i + 1]);
+			}
+		}
 	}
 	
+	/**
+	 * @return the parsed body. RichText objects shared by a {@link RichTextCache} return a copy of it, so that callers can't change what every other caller sees.
+	 */
 	public Element getBody() {
+		Element body = this.body;
+		
+		if (body == null) {
+			body = parseDocument(html).body();
+			prepare(body, extractCodeBlocks, customTags);
+			
+			this.body = body;
+		}
+		
+		if (isShared()) {
+			synchronized (body) {
+				return body.clone();
+			}
+		}
+		
 		return body;
 	}
 	
+	/**
+	 * @return true if this RichText was made by a {@link RichTextCache}, and may be shared by every caller that asked it for the same HTML
+	 */
+	public boolean isShared() {
+		return tagEvents != null;
+	}
+	
+	/**
+	 * @return true if this RichText was read by the {@link RichTextTokenizer}, rather than falling back to Jsoup
+	 */
+	boolean isTokenized() {
+		return html != null;
+	}
+	
 	public String getPlainText() {
 		return plainText;
 	}
@@ -219,7 +359,14 @@ public class RichText {
 	}
 	
 	public boolean containsTag(String tag) {
-		return !body.select(tag).isEmpty();
+		if (isShared()) {
+			//No need to copy the body just to search it
+			synchronized (body) {
+				return !body.select(tag).isEmpty();
+			}
+		}
+		
+		return !getBody().select(tag).isEmpty();
 	}
 	
 	/*
@@ -238,41 +385,70 @@ public class RichText {
 	 * Character Style
 	 */
 	
+	/**
+	 * @return the styled runs of this RichText in their compact form, which can be searched and walked without allocating. Prefer this to the CharacterStyle list for anything that runs every frame.
+	 */
+	public StyleRuns getStyleRuns() {
+		return styleRuns;
+	}
+	
+	/**
+	 * @return the styled runs of this RichText as CharacterStyle objects. The list is built from {@link #getStyleRuns()} the first time it's asked for.
+	 */
 	public List<CharacterStyle> getCharacterStyles() {
+		List<CharacterStyle> characterStyles = this.characterStyles;
+		
+		if (characterStyles == null) {
+			List<CharacterStyle> styles = new ArrayList<>(styleRuns.size());
+			
+			for (int run = 0; run < styleRuns.size(); run++) {
+				boolean[] isCustomTag = new boolean[customTags.length];
+				
+				for (int i = 0; i < isCustomTag.length; i++) {
+					isCustomTag[i] = styleRuns.isCustomTag(run, i);
+				}
+				
+				styles.add(new CharacterStyle(styleRuns.getStart(run), styleRuns.getEnd(run), styleRuns.isBold(run), styleRuns.isItalic(run), styleRuns.isUnderlined(run), isCustomTag));
+			}
+			
+			//Two threads may both build the list the first time, but they build the same thing
+			characterStyles = Collections.unmodifiableList(styles);
+			this.characterStyles = characterStyles;
+		}
+		
 		return characterStyles;
 	}
 	
 	/**
 	 * @param charIndex
-	 * @return the style of the character at charIndex of this RichText
+	 * @return the style of the character at charIndex of this RichText, found with a binary search
 	 */
 	public CharacterStyle getCharacterStyleAt(int charIndex) {
-	    for (CharacterStyle style : characterStyles) {
-	    	
-	        if (charIndex >= style.startIndex && charIndex < style.endIndex) {
-	            return style;
-	        }
-	    }
-	    
-	    return null;
+		int run = styleRuns.indexAt(charIndex);
+		return (run >= 0 ? getCharacterStyles().get(run) : null);
 	}
 	
 
 	public class CharacterStyle {
-		int startIndex;
-		int endIndex;
+		final int startIndex;
+		final int endIndex;
 		
-		boolean isBold;
-		boolean isItalic;
-		boolean isUnderlined;
-		boolean isCustomTag[];
+		final boolean isBold;
+		final boolean isItalic;
+		final boolean isUnderlined;
+		final boolean isCustomTag[];
 
 		public CharacterStyle(int startIndex, boolean isBold, boolean isItalic, boolean isUnderlined, boolean[] isCustomTag) {
+			this(startIndex, 0, isBold, isItalic, isUnderlined, isCustomTag);
+		}
+		
+		CharacterStyle(int startIndex, int endIndex, boolean isBold, boolean isItalic, boolean isUnderlined, boolean[] isCustomTag) {
 			this.startIndex = startIndex;
+			this.endIndex = endIndex;
 			this.isBold = isBold;
 			this.isItalic = isItalic;
 			this.isUnderlined = isUnderlined;
-			this.isCustomTag = isCustomTag;
+			this.isCustomTag = isCustomTag.clone();
 		}
 		
 		public int getStartIndex() {
@@ -348,6 +524,13 @@ public class RichText {
         return codeBlocks;
 	}
 	
+	/**
+	 * Decodes and parses the given html, before any CustomTags are replaced or code blocks are extracted.
+	 */
+	static Document parseDocument(String html) {
+		return Jsoup.parse(decodeHtml(html));
+	}
+	
 	/**
 	 * Decode any html in the text, so that support for custom tags can be added.
 	 * @param html
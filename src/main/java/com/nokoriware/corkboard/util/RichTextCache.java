@@ -0,0 +1,285 @@
+package com.nokoriware.corkboard.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.jsoup.nodes.Document;
+
+import com.nokoriware.corkboard.util.RichText.CustomTag;
+
+/**
+ * A bounded cache of parsed RichText objects, so that bodies which are shown over and over (such as when a player revisits dialogue) are only parsed once.
+ * <br><br>
+ * Results are keyed by their HTML, whether code blocks were extracted, and the CustomTags they were parsed with. CustomTags are compared by identity, so reuse the same CustomTag
+ * objects between calls to get any hits.
+ * <br><br>
+ * When none of the CustomTags are replacers, the finished RichText is cached and shared by every caller, and is read-only: its {@link RichText#getBody()} returns a copy,
+ * and its code block list can't be modified. The tags' onStart/onEnd callbacks are replayed on each hit, exactly as they were fired during parsing. A replacer's replacement() can change from call to call, so when there are replacers, the document is cached
+ * from before anything was replaced instead, and each call does the replacement and styling on its own copy of it.
+ * <br><br>
+ * The cache holds up to a maximum total length of HTML, throwing out the least recently used entries to make room. The cache itself, and the shared
+ * RichText objects it hands out, are safe to use from multiple threads. Replaying the callbacks runs on the calling thread, so the CustomTags need to be safe to call from any
+ * thread that uses the cache.
+ */
+public class RichTextCache {
+	
+	/**
+	 * The default maximum weight: about four million characters of HTML.
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 4L * 1024L * 1024L;
+	
+	//Access-ordered, so the first entry is always the least recently used
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	
+	private final long maxWeight;
+	private long weight;
+	
+	private long hits;
+	private long misses;
+	private long evictions;
+	
+	public RichTextCache() {
+		this(DEFAULT_MAX_WEIGHT);
+	}
+	
+	/**
+	 * @param maxWeight - the most HTML (in characters) that the cache's entries can add up to
+	 */
+	public RichTextCache(long maxWeight) {
+		if (maxWeight < 1) {
+			throw new IllegalArgumentException("The maximum weight must be at least 1: " + maxWeight);
+		}
+		
+		this.maxWeight = maxWeight;
+	}
+	
+	public RichText get(String html) {
+		return get(html, false);
+	}
+	
+	/**
+	 * The cached equivalent of <code>new RichText(html, extractCodeBlocks, customTags)</code>.
+	 */
+	public RichText get(String html, boolean extractCodeBlocks, CustomTag...customTags) {
+		
+		if (!containsReplacer(customTags)) {
+			Key key = new Key(html, extractCodeBlocks, customTags);
+			RichText richText = (RichText) lookup(key);
+			
+			if (richText != null) {
+				richText.replayTagEvents();
+				return richText;
+			}
+			
+			richText = new RichText(RichText.parseDocument(html), extractCodeBlocks, true, customTags);
+			store(key, richText, html.length());
+			
+			return richText;
+		}
+		
+		/*
+		 * Replacers are applied to a fresh copy of the document every time
+		 */
+		
+		Key key = new Key(html, false, null);
+		Document document = (Document) lookup(key);
+		
+		if (document == null) {
+			document = RichText.parseDocument(html);
+			store(key, document, html.length());
+		}
+		
+		Document copy;
+		
+		synchronized (document) {
+			copy = document.clone();
+		}
+		
+		return new RichText(copy, extractCodeBlocks, false, customTags);
+	}
+	
+	private static boolean containsReplacer(CustomTag[] customTags) {
+		for (CustomTag tag : customTags) {
+			if (tag.isReplacer()) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private synchronized Object lookup(Key key) {
+		Entry entry = entries.get(key);
+		
+		if (entry != null) {
+			hits++;
+			return entry.value;
+		}
+		
+		misses++;
+		return null;
+	}
+	
+	private synchronized void store(Key key, Object value, int weight) {
+		
+		//Entries that could never fit aren't stored at all
+		if (weight > maxWeight) {
+			return;
+		}
+		
+		Entry previous = entries.put(key, new Entry(value, weight));
+		
+		if (previous != null) {
+			this.weight -= previous.weight;
+		}
+		
+		this.weight += weight;
+		
+		//Throw out the least recently used entries until everything fits again
+		Iterator<Entry> iterator = entries.values().iterator();
+		
+		while (this.weight > maxWeight && iterator.hasNext()) {
+			Entry eldest = iterator.next();
+			
+			this.weight -= eldest.weight;
+			iterator.remove();
+			evictions++;
+		}
+	}
+	
+	/*
+	 * 
+	 * Statistics
+	 * 
+	 */
+	
+	public synchronized long getHits() {
+		return hits;
+	}
+	
+	public synchronized long getMisses() {
+		return misses;
+	}
+	
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+	
+	/**
+	 * @return the fraction of lookups that were hits, from 0 to 1
+	 */
+	public synchronized double getHitRate() {
+		long lookups = hits + misses;
+		return (lookups > 0 ? (double) hits / lookups : 0.0);
+	}
+	
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * @return the total length of the HTML of every cached entry
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+	
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+	
+	/**
+	 * Empties the cache and resets its statistics.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+		
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+	
+	/*
+	 * 
+	 * Entries
+	 * 
+	 */
+	
+	private static class Entry {
+		
+		final Object value;
+		final int weight;
+		
+		Entry(Object value, int weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+		
+	}
+	
+	/**
+	 * Identifies a cached result. Keys without any CustomTags (null, not empty) are for the cached documents used with replacers.
+	 */
+	private static class Key {
+		
+		final String html;
+		final boolean extractCodeBlocks;
+		final CustomTag[] customTags;
+		final int hash;
+		
+		Key(String html, boolean extractCodeBlocks, CustomTag[] customTags) {
+			this.html = html;
+			this.extractCodeBlocks = extractCodeBlocks;
+			this.customTags = (customTags != null ? customTags.clone() : null);
+			
+			int hash = html.hashCode() * 31 + (extractCodeBlocks ? 1 : 0);
+			
+			if (customTags != null) {
+				for (CustomTag tag : customTags) {
+					hash = hash * 31 + System.identityHashCode(tag);
+				}
+			} else {
+				hash = ~hash;
+			}
+			
+			this.hash = hash;
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			
+			Key key = (Key) object;
+			
+			if (hash != key.hash || extractCodeBlocks != key.extractCodeBlocks || !html.equals(key.html)) {
+				return false;
+			}
+			
+			if (customTags == null || key.customTags == null) {
+				return customTags == key.customTags;
+			}
+			
+			if (customTags.length != key.customTags.length) {
+				return false;
+			}
+			
+			for (int i = 0; i < customTags.length; i++) {
+				if (customTags[i] != key.customTags[i]) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,586 @@
+package com.nokoriware.corkboard.util;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.jsoup.parser.Tag;
+
+import com.nokoriware.corkboard.util.RichText.CustomTag;
+import com.nokoriware.corkboard.util.RichText.StyleBuilder;
+
+/**
+ * Reads the small subset of HTML that Corkboard bodies are made of straight into a RichText, without building a Jsoup document first.
+ * <br><br>
+ * It understands p, b/strong, i/em, u, code and br, any tag that isn't an HTML tag (such as CustomTags), and the entities Corkboard writes (&amp;lt; &amp;gt; &amp;amp; &amp;quot;
+ * &amp;apos; &amp;nbsp; and numeric ones). Whitespace is collapsed per text node exactly like Jsoup does it. Anything else, or anything Jsoup would have to repair (like misnested
+ * tags or a p inside a p), makes {@link #run(StyleBuilder, List)} return false so that the caller can fall back to Jsoup.
+ * <br><br>
+ * A dry run (with no StyleBuilder) checks the whole body first, so nothing happens (CustomTag callbacks included) unless the body is fully understood.
+ */
+final class RichTextTokenizer {
+	
+	private static final int FAIL = -1;
+	private static final int LITERAL = 0;
+	private static final int TAG = 1;
+	
+	private final String html;
+	private final boolean extractCodeBlocks;
+	private final CustomTag[] customTags;
+	
+	private final StringBuilder text = new StringBuilder();
+	private final StringBuilder code = new StringBuilder();
+	
+	//The open elements
+	private String[] stack = new String[8];
+	private int depth;
+	
+	//The depth of the code block being extracted, and of the replacer whose content is being skipped
+	private int codeDepth;
+	private int skipDepth;
+	
+	//The last tag read by readTag()
+	private String tagName;
+	private boolean isEndTag;
+	private boolean isSelfClosing;
+	private int tagEnd;
+	
+	//The last code point read by readEntity()
+	private int entity;
+	
+	/**
+	 * @param html - the html, already run through RichText's decodeHtml()
+	 */
+	RichTextTokenizer(String html, boolean extractCodeBlocks, CustomTag[] customTags) {
+		this.html = html;
+		this.extractCodeBlocks = extractCodeBlocks;
+		this.customTags = customTags;
+	}
+	
+	/**
+	 * @return false if any of the CustomTags can't be handled by the tokenizer, which is the case for tags that share a name with an HTML tag.
+	 */
+	static boolean supports(CustomTag[] customTags) {
+		for (CustomTag tag : customTags) {
+			String name = tag.name();
+			
+			if (name == null || name.isEmpty() || !isAsciiLetter(name.charAt(0))) {
+				return false;
+			}
+			
+			for (int i = 1; i < name.length(); i++) {
+				if (!isTagNameChar(name.charAt(i))) {
+					return false;
+				}
+			}
+			
+			if (Tag.isKnownTag(name.toLowerCase(Locale.ENGLISH))) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Tokenizes the html, sending everything to <code>builder</code>. With a null builder, this is a dry run that only checks whether the html can be tokenized.
+	 * 
+	 * @param codeBlocks - where to put the extracted code blocks, when extracting them
+	 * @return false if the html uses something the tokenizer doesn't understand
+	 */
+	boolean run(StyleBuilder builder, List<String> codeBlocks) {
+		int length = html.length();
+		
+		depth = 0;
+		codeDepth = -1;
+		skipDepth = -1;
+		
+		//Jsoup drops or keeps whitespace before the first tag depending on what follows it
+		if (length > 0 && (isWhitespace(html.charAt(0)) || html.charAt(0) == '&' && (readEntity(0) == FAIL || isWhitespace(entity)))) {
+			return false;
+		}
+		
+		if (builder != null) {
+			builder.start("body");
+		}
+		
+		int textStart = 0;
+		int i = 0;
+		
+		while (i < length) {
+			char c = html.charAt(i);
+			
+			if (c == '<') {
+				int result = readTag(i);
+				
+				if (result == FAIL) {
+					return false;
+				}
+				
+				//Not actually a tag, so the '<' is part of the text
+				if (result == LITERAL) {
+					i++;
+					continue;
+				}
+				
+				if (!text(textStart, i, builder) || !(isEndTag ? endTag(builder, codeBlocks) : startTag(builder))) {
+					return false;
+				}
+				
+				i = tagEnd;
+				textStart = i;
+			} else if (c == '\0') {
+				return false;
+			} else {
+				i++;
+			}
+		}
+		
+		if (!text(textStart, length, builder)) {
+			return false;
+		}
+		
+		//Anything left open is closed at the end, like Jsoup does
+		while (depth > 0) {
+			close(builder, codeBlocks);
+		}
+		
+		if (builder != null) {
+			builder.end("body");
+		}
+		
+		return true;
+	}
+	
+	private boolean isEmitting(StyleBuilder builder) {
+		return builder != null && codeDepth < 0 && skipDepth < 0;
+	}
+	
+	/*
+	 * 
+	 * Elements
+	 * 
+	 */
+	
+	private boolean startTag(StyleBuilder builder) {
+		String name = tagName;
+		
+		switch (name) {
+		case "br":
+			
+			//Element.text() puts a space in code blocks for each br
+			if (codeDepth >= 0) {
+				if (code.length() > 0 && !endsWithSpace(code)) {
+					code.append(' ');
+				}
+			} else if (isEmitting(builder)) {
+				builder.start(name);
+				builder.end(name);
+			}
+			
+			return true;
+		case "p":
+			
+			//Jsoup closes whatever's open when a p starts inside of it
+			if (depth > 0) {
+				return false;
+			}
+			
+			break;
+		case "code":
+			for (int i = 0; i < depth; i++) {
+				if (stack[i].equals("code")) {
+					return false;
+				}
+			}
+			
+			break;
+		case "strong":
+		case "b":
+		case "em":
+		case "i":
+		case "u":
+			break;
+		default:
+			if (Tag.isKnownTag(name)) {
+				return false;
+			}
+			
+			break;
+		}
+		
+		if (isSelfClosing) {
+			return false;
+		}
+		
+		push(name);
+		
+		if (extractCodeBlocks && name.equals("code")) {
+			codeDepth = depth;
+			code.setLength(0);
+			return true;
+		}
+		
+		//Replacers are swapped for their text, and their content is skipped
+		if (codeDepth < 0 && skipDepth < 0) {
+			CustomTag replacer = getReplacer(name);
+			
+			if (replacer != null) {
+				skipDepth = depth;
+				
+				if (builder != null) {
+					String replacement = replacer.replacement();
+					
+					text.setLength(0);
+					normalize(replacement, 0, replacement.length(), false, text, false);
+					builder.text(text);
+				}
+				
+				return true;
+			}
+		}
+		
+		if (isEmitting(builder)) {
+			builder.start(name);
+		}
+		
+		return true;
+	}
+	
+	private boolean endTag(StyleBuilder builder, List<String> codeBlocks) {
+		
+		//Jsoup would have to repair the tree for anything but the innermost element
+		if (depth == 0 || !stack[depth - 1].equals(tagName)) {
+			return false;
+		}
+		
+		close(builder, codeBlocks);
+		return true;
+	}
+	
+	private void close(StyleBuilder builder, List<String> codeBlocks) {
+		String name = stack[depth - 1];
+		
+		if (depth == codeDepth) {
+			codeDepth = -1;
+			
+			if (builder != null) {
+				codeBlocks.add(code.toString().trim());
+			}
+		} else if (depth == skipDepth) {
+			skipDepth = -1;
+		} else if (isEmitting(builder)) {
+			builder.end(name);
+		}
+		
+		stack[--depth] = null;
+	}
+	
+	private void push(String name) {
+		if (depth == stack.length) {
+			String[] larger = new String[depth * 2];
+			System.arraycopy(stack, 0, larger, 0, depth);
+			stack = larger;
+		}
+		
+		stack[depth++] = name;
+	}
+	
+	private CustomTag getReplacer(String name) {
+		for (CustomTag tag : customTags) {
+			if (tag.isReplacer() && name.equalsIgnoreCase(tag.name())) {
+				return tag;
+			}
+		}
+		
+		return null;
+	}
+	
+	/*
+	 * 
+	 * Text
+	 * 
+	 */
+	
+	/**
+	 * Handles the text between two tags, which Jsoup would turn into a single TextNode.
+	 */
+	private boolean text(int start, int end, StyleBuilder builder) {
+		if (start == end) {
+			return true;
+		}
+		
+		//Code blocks are collected the way Element.text() does it, with whitespace collapsed across the whole block
+		if (codeDepth >= 0) {
+			return normalize(html, start, end, true, code, endsWithSpace(code));
+		}
+		
+		text.setLength(0);
+		
+		if (!normalize(html, start, end, true, text, false)) {
+			return false;
+		}
+		
+		if (isEmitting(builder)) {
+			builder.text(text);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Appends the text to <code>out</code>, collapsing each run of whitespace into a single space and dropping invisible characters (the same as Jsoup's StringUtil).
+	 * 
+	 * @return false if an entity couldn't be decoded
+	 */
+	private boolean normalize(String source, int start, int end, boolean decodeEntities, StringBuilder out, boolean lastWasWhite) {
+		int i = start;
+		
+		while (i < end) {
+			int codePoint = source.charAt(i);
+			
+			if (codePoint == '&' && decodeEntities) {
+				i = readEntity(i);
+				
+				if (i == FAIL) {
+					return false;
+				}
+				
+				codePoint = entity;
+			} else {
+				i++;
+			}
+			
+			if (isWhitespace(codePoint)) {
+				if (!lastWasWhite) {
+					out.append(' ');
+					lastWasWhite = true;
+				}
+			} else if (codePoint != 8203 && codePoint != 173) {
+				out.appendCodePoint(codePoint);
+				lastWasWhite = false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Reads the entity starting at <code>start</code> into {@link #entity}.
+	 * 
+	 * @return the index after the entity, or {@link #FAIL} if it's one the tokenizer doesn't know
+	 */
+	private int readEntity(int start) {
+		int length = html.length();
+		int i = start + 1;
+		
+		//Jsoup leaves an ampersand alone when it can't start an entity
+		if (i >= length || " \t\n\r\f<&".indexOf(html.charAt(i)) >= 0) {
+			entity = '&';
+			return i;
+		}
+		
+		if (html.charAt(i) == '#') {
+			return readNumericEntity(i + 1);
+		}
+		
+		int semicolon = html.indexOf(';', i);
+		
+		if (semicolon < 0 || semicolon - i > 4) {
+			return FAIL;
+		}
+		
+		switch (html.substring(i, semicolon)) {
+		case "lt": entity = '<'; break;
+		case "gt": entity = '>'; break;
+		case "amp": entity = '&'; break;
+		case "quot": entity = '"'; break;
+		case "apos": entity = '\''; break;
+		case "nbsp": entity = 160; break;
+		default: return FAIL;
+		}
+		
+		return semicolon + 1;
+	}
+	
+	private int readNumericEntity(int start) {
+		int length = html.length();
+		int i = start;
+		int radix = 10;
+		
+		if (i < length && (html.charAt(i) == 'x' || html.charAt(i) == 'X')) {
+			radix = 16;
+			i++;
+		}
+		
+		int digitsStart = i;
+		int value = 0;
+		
+		while (i < length && i - digitsStart < 7 && Character.digit(html.charAt(i), radix) >= 0) {
+			value = value * radix + Character.digit(html.charAt(i), radix);
+			i++;
+		}
+		
+		if (i == digitsStart || i >= length || html.charAt(i) != ';') {
+			return FAIL;
+		}
+		
+		//Jsoup swaps these for other characters
+		if (value < 0x20 && value != '\t' && value != '\n' && value != '\r' || value >= 0x7F && value <= 0x9F || value >= 0xD800 && value <= 0xDFFF || value > 0x10FFFF) {
+			return FAIL;
+		}
+		
+		entity = value;
+		return i + 1;
+	}
+	
+	/*
+	 * 
+	 * Tags
+	 * 
+	 */
+	
+	/**
+	 * Reads the tag starting at <code>start</code> into {@link #tagName}, {@link #isEndTag}, {@link #isSelfClosing}, and {@link #tagEnd}.
+	 * 
+	 * @return {@link #TAG}, {@link #LITERAL} if the '&lt;' doesn't start a tag, or {@link #FAIL} if it's something the tokenizer doesn't handle
+	 */
+	private int readTag(int start) {
+		int length = html.length();
+		int i = start + 1;
+		
+		if (i >= length) {
+			return LITERAL;
+		}
+		
+		char c = html.charAt(i);
+		
+		isEndTag = false;
+		isSelfClosing = false;
+		
+		if (c == '/') {
+			isEndTag = true;
+			i++;
+			
+			if (i >= length || !isAsciiLetter(html.charAt(i))) {
+				return FAIL;
+			}
+		} else if (!isAsciiLetter(c)) {
+			
+			//Comments, doctypes and processing instructions
+			return (c == '!' || c == '?' ? FAIL : LITERAL);
+		}
+		
+		int nameStart = i;
+		
+		while (i < length && isTagNameChar(html.charAt(i))) {
+			i++;
+		}
+		
+		if (i >= length) {
+			return FAIL;
+		}
+		
+		tagName = html.substring(nameStart, i).toLowerCase(Locale.ENGLISH);
+		c = html.charAt(i);
+		
+		if (isEndTag) {
+			while (i < length && isWhitespace(html.charAt(i))) {
+				i++;
+			}
+			
+			if (i >= length || html.charAt(i) != '>') {
+				return FAIL;
+			}
+			
+			tagEnd = i + 1;
+			return TAG;
+		}
+		
+		if (c == '>') {
+			tagEnd = i + 1;
+			return TAG;
+		}
+		
+		if (c == '/') {
+			if (i + 1 < length && html.charAt(i + 1) == '>') {
+				isSelfClosing = true;
+				tagEnd = i + 2;
+				return TAG;
+			}
+			
+			return FAIL;
+		}
+		
+		if (!isWhitespace(c)) {
+			return FAIL;
+		}
+		
+		/*
+		 * Attributes are skipped, since nothing is done with them
+		 */
+		
+		char quote = 0;
+		char previous = ' ';
+		
+		for (; i < length; i++) {
+			c = html.charAt(i);
+			
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+					previous = c;
+				}
+			} else if (c == '"' || c == '\'') {
+				
+				//Quotes only mean something at the start of a value
+				if (previous != '=') {
+					return FAIL;
+				}
+				
+				quote = c;
+			} else if (c == '>') {
+				tagEnd = i + 1;
+				return TAG;
+			} else if (c == '/') {
+				boolean afterAttribute = isWhitespace(html.charAt(i - 1)) || previous == '"' || previous == '\'';
+				
+				if (i + 1 < length && html.charAt(i + 1) == '>' && afterAttribute && previous != '=') {
+					isSelfClosing = true;
+					tagEnd = i + 2;
+					return TAG;
+				}
+				
+				return FAIL;
+			} else if (c == '<' || c == '\0') {
+				return FAIL;
+			} else if (!isWhitespace(c)) {
+				previous = c;
+			}
+		}
+		
+		return FAIL;
+	}
+	
+	/*
+	 * 
+	 * Characters
+	 * 
+	 */
+	
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == 160;
+	}
+	
+	private static boolean isAsciiLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+	
+	private static boolean isTagNameChar(char c) {
+		return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '-' || c == '_';
+	}
+	
+	private static boolean endsWithSpace(StringBuilder builder) {
+		return builder.length() > 0 && builder.charAt(builder.length() - 1) == ' ';
+	}
+	
+}
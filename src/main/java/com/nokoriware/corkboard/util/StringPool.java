@@ -0,0 +1,39 @@
+package com.nokoriware.corkboard.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates strings, so that equal strings from different places (such as the same attribute on many Nodes, or the same IDs in every localized copy of a board) are
+ * stored only once. Unlike <code>String.intern()</code>, the strings are only kept for as long as the pool is, and pools can be shared between any number of threads.
+ */
+public class StringPool {
+	
+	private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+	
+	/**
+	 * @return the pooled string equal to <code>string</code>, adding it to the pool if it's the first of its kind. Null is returned as null.
+	 */
+	public String intern(String string) {
+		if (string == null) {
+			return null;
+		}
+		
+		String pooled = strings.putIfAbsent(string, string);
+		return (pooled != null ? pooled : string);
+	}
+	
+	/**
+	 * @return how many distinct strings are in the pool.
+	 */
+	public int size() {
+		return strings.size();
+	}
+	
+	/**
+	 * Empties the pool. Strings already handed out are unaffected.
+	 */
+	public void clear() {
+		strings.clear();
+	}
+	
+}
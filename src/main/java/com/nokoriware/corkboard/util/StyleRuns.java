@@ -0,0 +1,235 @@
+package com.nokoriware.corkboard.util;
+
+import java.util.Arrays;
+
+/**
+ * A compact list of the styled runs of text in a RichText object, stored as parallel arrays rather than as separate objects.
+ * <br><br>
+ * Each run has a start index, an end index, and a set of style flags: {@link #BOLD}, {@link #ITALIC}, {@link #UNDERLINED}, and one flag for each of the RichText's CustomTags (see
+ * {@link #customTagFlag(int)}). Runs are sorted and don't overlap, so the run at a character index is found with a binary search, and the runs can be walked with a {@link Cursor}
+ * without allocating anything.
+ */
+public final class StyleRuns {
+	
+	public static final long BOLD = 1L;
+	public static final long ITALIC = 1L << 1;
+	public static final long UNDERLINED = 1L << 2;
+	
+	private static final int CUSTOM_TAG_SHIFT = 3;
+	
+	private int[] starts;
+	private int[] ends;
+	
+	//Each run's flags take up "stride" longs; one, unless there are more than 61 CustomTags
+	private long[] flags;
+	private final int stride;
+	
+	private int size;
+	
+	StyleRuns(int customTagCount) {
+		this.stride = (CUSTOM_TAG_SHIFT + customTagCount + 63) / 64;
+		
+		starts = new int[8];
+		ends = new int[8];
+		flags = new long[8 * stride];
+	}
+	
+	/**
+	 * @return the flag for the CustomTag at <code>customTagIndex</code> in the RichText's CustomTag array. Only the first 61 CustomTags have a flag that fits in {@link #getFlags(int)};
+	 * use {@link #isCustomTag(int, int)} for the rest.
+	 */
+	public static long customTagFlag(int customTagIndex) {
+		int bit = CUSTOM_TAG_SHIFT + customTagIndex;
+		return (bit < 64 ? 1L << bit : 0L);
+	}
+	
+	/*
+	 * 
+	 * Building
+	 * 
+	 */
+	
+	/**
+	 * Starts a new run at <code>startIndex</code>. Its end index stays 0 until {@link #closeLast(int)} is called.
+	 */
+	void add(int startIndex, boolean isBold, boolean isItalic, boolean isUnderlined, boolean[] isCustomTag) {
+		if (size == starts.length) {
+			int capacity = size * 2;
+			
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			flags = Arrays.copyOf(flags, capacity * stride);
+		}
+		
+		starts[size] = startIndex;
+		ends[size] = 0;
+		
+		int offset = size * stride;
+		
+		flags[offset] = (isBold ? BOLD : 0L) | (isItalic ? ITALIC : 0L) | (isUnderlined ? UNDERLINED : 0L);
+		
+		for (int i = 1; i < stride; i++) {
+			flags[offset + i] = 0L;
+		}
+		
+		for (int i = 0; i < isCustomTag.length; i++) {
+			if (isCustomTag[i]) {
+				int bit = CUSTOM_TAG_SHIFT + i;
+				flags[offset + (bit >>> 6)] |= 1L << (bit & 63);
+			}
+		}
+		
+		size++;
+	}
+	
+	/**
+	 * Gives the last run its end index, if it doesn't already have one.
+	 */
+	void closeLast(int endIndex) {
+		if (size > 0 && ends[size - 1] == 0) {
+			ends[size - 1] = endIndex;
+		}
+	}
+	
+	void trim() {
+		starts = Arrays.copyOf(starts, size);
+		ends = Arrays.copyOf(ends, size);
+		flags = Arrays.copyOf(flags, size * stride);
+	}
+	
+	/*
+	 * 
+	 * Runs
+	 * 
+	 */
+	
+	public int size() {
+		return size;
+	}
+	
+	public int getStart(int run) {
+		return starts[run];
+	}
+	
+	public int getEnd(int run) {
+		return ends[run];
+	}
+	
+	/**
+	 * @return the run's style flags: {@link #BOLD}, {@link #ITALIC}, {@link #UNDERLINED}, and {@link #customTagFlag(int)} for the first 61 CustomTags.
+	 */
+	public long getFlags(int run) {
+		return flags[run * stride];
+	}
+	
+	public boolean isBold(int run) {
+		return (getFlags(run) & BOLD) != 0;
+	}
+	
+	public boolean isItalic(int run) {
+		return (getFlags(run) & ITALIC) != 0;
+	}
+	
+	public boolean isUnderlined(int run) {
+		return (getFlags(run) & UNDERLINED) != 0;
+	}
+	
+	public boolean isCustomTag(int run, int customTagIndex) {
+		int bit = CUSTOM_TAG_SHIFT + customTagIndex;
+		return (flags[run * stride + (bit >>> 6)] & (1L << (bit & 63))) != 0;
+	}
+	
+	/**
+	 * Finds the run containing the given character with a binary search.
+	 * 
+	 * @return the index of the run, or -1 if the character isn't inside any run
+	 */
+	public int indexAt(int charIndex) {
+		int low = 0;
+		int high = size - 1;
+		
+		//Find the last run that starts at or before charIndex
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			
+			if (starts[middle] <= charIndex) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		
+		return (high >= 0 && charIndex < ends[high] ? high : -1);
+	}
+	
+	/**
+	 * @return the style flags of the run containing the given character, or 0 if it isn't inside any run.
+	 */
+	public long getFlagsAt(int charIndex) {
+		int run = indexAt(charIndex);
+		return (run >= 0 ? getFlags(run) : 0L);
+	}
+	
+	/**
+	 * @return a new Cursor over these runs. A Cursor can be kept and {@link Cursor#reset() reset} for each pass, so walking the runs never allocates.
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+	
+	/**
+	 * Walks the runs in order:
+	 * <pre>
+	 * cursor.reset();
+	 * while (cursor.next()) {
+	 *     draw(text, cursor.getStart(), cursor.getEnd(), cursor.getFlags());
+	 * }
+	 * </pre>
+	 */
+	public final class Cursor {
+		
+		private int run = -1;
+		
+		private Cursor() {}
+		
+		public void reset() {
+			run = -1;
+		}
+		
+		/**
+		 * Moves the cursor to the run containing the given character, so that the following call to {@link #next()} lands on it.
+		 */
+		public void seek(int charIndex) {
+			int index = indexAt(charIndex);
+			run = (index >= 0 ? index : size) - 1;
+		}
+		
+		public boolean next() {
+			if (run + 1 >= size) {
+				run = size;
+				return false;
+			}
+			
+			run++;
+			return true;
+		}
+		
+		public int getRun() {
+			return run;
+		}
+		
+		public int getStart() {
+			return starts[run];
+		}
+		
+		public int getEnd() {
+			return ends[run];
+		}
+		
+		public long getFlags() {
+			return StyleRuns.this.getFlags(run);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,101 @@
+package com.nokoriware.corkboard;
+
+import static com.nokoriware.corkboard.ProjectAssertions.assertProjectsEqual;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that exported projects read back in as the same project.
+ */
+public class CorkboardJSONExporterTest {
+	
+	@Test
+	public void roundTripMatchesTheOriginal() throws IOException {
+		CorkboardProject project = ProjectAssertions.generate(300, 600);
+		byte[] json = write(project);
+		
+		assertProjectsEqual(project, CorkboardJSONImporter.read("Exported", new ByteArrayInputStream(json)));
+		assertProjectsEqual(project, CorkboardJSONImporter.readStreaming("Exported", new ByteArrayInputStream(json)));
+	}
+	
+	@Test
+	public void roundTripOfEdits() throws IOException {
+		CorkboardProject project = ProjectAssertions.generate(100, 200);
+		
+		Node node = project.getNodeByID("node-1");
+		node.setBody(new Content("<p>Edited \"quote\", <b>bold</b> é ☃</p>"));
+		node.setLabel("Renamed \\ with a backslash");
+		node.getAttributes().add("new:attribute");
+		node.setX(12.5);
+		node.setWidth(201.25);
+		node.addConnection("New edge", project.getNodeByID("node-2"));
+		
+		project.getConnections().get(5).disconnect();
+		project.setStartingNode(project.getNodeByID("node-4"));
+		
+		assertProjectsEqual(project, CorkboardJSONImporter.read("Exported", new ByteArrayInputStream(write(project))));
+	}
+	
+	@Test
+	public void roundTripOfDocumentEdits() throws IOException {
+		CorkboardProject project = ProjectAssertions.generate(100, 200);
+		Node node = project.getNodeByID("node-1");
+		
+		node.setBody(new Content("<p>Hello</p>"));
+		node.getBody().getDocument().select("p").first().text("Edited");
+		node.getBody().getDocument().body().appendElement("p").appendElement("b").text("Added \"here\"");
+		
+		byte[] json = write(project);
+		CorkboardProject read = CorkboardJSONImporter.read("Exported", new ByteArrayInputStream(json));
+		
+		assertEquals("<p>Edited</p><p><b>Added \"here\"</b></p>", read.getNodeByID("node-1").getBody().getHTML());
+		assertProjectsEqual(project, read);
+		assertProjectsEqual(project, CorkboardJSONImporter.readStreaming("Exported", new ByteArrayInputStream(json)));
+	}
+	
+	@Test
+	public void outputIsStable() throws IOException {
+		byte[] json = write(ProjectAssertions.generate(100, 200));
+		byte[] again = write(CorkboardJSONImporter.read("Exported", new ByteArrayInputStream(json)));
+		
+		assertArrayEquals(json, again);
+	}
+	
+	@Test
+	public void filesRoundTrip(@TempDir Path directory) throws IOException {
+		CorkboardProject project = ProjectAssertions.generate(100, 200);
+		
+		Path json = directory.resolve("board.json");
+		Path gzip = directory.resolve("board.json.gz");
+		
+		CorkboardJSONExporter.write(project, json);
+		CorkboardJSONExporter.write(project, gzip);
+		
+		CorkboardProject fromJSON = CorkboardJSONImporter.read(json);
+		CorkboardProject fromGzip = CorkboardJSONImporter.read(gzip);
+		
+		assertProjectsEqual(project, fromJSON);
+		assertProjectsEqual(project, fromGzip);
+		assertEquals("board", fromGzip.getName());
+		
+		//Nothing is lost to the compression
+		assertArrayEquals(Files.readAllBytes(json), write(fromGzip));
+	}
+	
+	private static byte[] write(CorkboardProject project) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		CorkboardJSONExporter.write(project, outputStream);
+		
+		return outputStream.toByteArray();
+	}
+	
+}
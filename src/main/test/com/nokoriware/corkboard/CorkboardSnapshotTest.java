@@ -0,0 +1,118 @@
+package com.nokoriware.corkboard;
+
+import static com.nokoriware.corkboard.ProjectAssertions.assertProjectsEqual;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CorkboardSnapshotTest {
+	
+	@Test
+	public void roundTripMatchesTheOriginal() throws IOException {
+		CorkboardProject project = ProjectAssertions.generate(300, 600);
+		
+		assertProjectsEqual(project, CorkboardSnapshot.read(ByteBuffer.wrap(write(project))));
+	}
+	
+	@Test
+	public void roundTripOfAFrozenProject() throws IOException {
+		CorkboardProject project = ProjectAssertions.generate(100, 200);
+		byte[] before = write(project);
+		
+		project.freeze();
+		
+		//Freezing changes how the project is stored, but not what's in it
+		assertEquals(Arrays.toString(before), Arrays.toString(write(project)));
+		assertProjectsEqual(project, CorkboardSnapshot.read(ByteBuffer.wrap(before)));
+	}
+	
+	@Test
+	public void roundTripOfDocumentEdits() throws IOException {
+		CorkboardProject project = ProjectAssertions.generate(100, 200);
+		Node node = project.getNodeByID("node-1");
+		
+		node.setBody(new Content("<p>Hello</p>"));
+		node.getBody().getDocument().select("p").first().text("Edited");
+		
+		CorkboardProject read = CorkboardSnapshot.read(ByteBuffer.wrap(write(project)));
+		
+		assertEquals("<p>Edited</p>", read.getNodeByID("node-1").getBody().getHTML());
+		assertProjectsEqual(project, read);
+	}
+	
+	@Test
+	public void roundTripOfAnEmptyProject() throws IOException {
+		CorkboardProject project = new CorkboardProject("Empty", 1, 2, 3, new ArrayList<>(), new ArrayList<>());
+		
+		assertProjectsEqual(project, CorkboardSnapshot.read(ByteBuffer.wrap(write(project))));
+	}
+	
+	@Test
+	public void otherDataIsRejected() {
+		assertThrows(IOException.class, () -> CorkboardSnapshot.read(ByteBuffer.wrap(new byte[0])));
+		assertThrows(IOException.class, () -> CorkboardSnapshot.read(ByteBuffer.wrap("{\"nodes\": []}".getBytes())));
+	}
+	
+	@Test
+	public void truncatedSnapshotsAreRejected() throws IOException {
+		byte[] snapshot = write(ProjectAssertions.generate(50, 100));
+		
+		for (int length = 0; length < snapshot.length; length += 7) {
+			byte[] truncated = Arrays.copyOf(snapshot, length);
+			assertThrows(IOException.class, () -> CorkboardSnapshot.read(ByteBuffer.wrap(truncated)), "Truncated to " + length + " bytes");
+		}
+	}
+	
+	/**
+	 * Corrupted snapshots either load or throw an IOException, never anything else (like an OutOfMemoryError from a garbage count).
+	 */
+	@Test
+	public void corruptedSnapshotsOnlyThrowIOExceptions() throws IOException {
+		byte[] snapshot = write(ProjectAssertions.generate(50, 100));
+		Random random = new Random(3);
+		
+		//Unknown Node types are warned about, which isn't useful here
+		PrintStream err = System.err;
+		System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+		
+		try {
+			for (int i = 0; i < 2000; i++) {
+				byte[] corrupted = snapshot.clone();
+				int changes = 1 + random.nextInt(4);
+				
+				for (int c = 0; c < changes; c++) {
+					corrupted[random.nextInt(corrupted.length)] = (byte) random.nextInt(256);
+				}
+				
+				try {
+					CorkboardSnapshot.read(ByteBuffer.wrap(corrupted));
+				} catch (IOException e) {
+					//Expected
+				} catch (Throwable e) {
+					fail("Corrupted snapshot " + i + " threw " + e, e);
+				}
+			}
+		} finally {
+			System.setErr(err);
+		}
+	}
+	
+	private static byte[] write(CorkboardProject project) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		CorkboardSnapshot.write(project, outputStream);
+		
+		return outputStream.toByteArray();
+	}
+	
+}
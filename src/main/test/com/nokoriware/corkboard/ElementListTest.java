@@ -0,0 +1,178 @@
+package com.nokoriware.corkboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.nokoriware.corkboard.Element.ElementSearch;
+
+/**
+ * Checks that the ID and label index kept by <code>ElementList</code> always gives the same answer as searching the list with <code>Element.getElement()</code>, however the list
+ * is changed.
+ */
+public class ElementListTest {
+	
+	@Test
+	public void lookupsFollowAppendAndRemove() {
+		CorkboardProject project = emptyProject();
+		
+		Node a = node("a", "Greeting");
+		Node b = node("b", "Greeting");
+		
+		project.getNodes().add(a);
+		project.getNodes().add(b);
+		
+		assertSame(a, project.getNodeByID("a"));
+		assertSame(a, project.getNodeByLabel("Greeting"));
+		
+		//The next match in list order takes over once the first is removed
+		project.getNodes().remove(a);
+		
+		assertNull(project.getNodeByID("a"));
+		assertSame(b, project.getNodeByLabel("Greeting"));
+	}
+	
+	@Test
+	public void lookupsFollowRename() {
+		CorkboardProject project = emptyProject();
+		
+		Node a = node("a", "Greeting");
+		Node b = node("b", "Greeting");
+		
+		project.getNodes().add(a);
+		project.getNodes().add(b);
+		
+		a.setLabel("Farewell");
+		
+		assertSame(a, project.getNodeByLabel("Farewell"));
+		assertSame(b, project.getNodeByLabel("Greeting"));
+		
+		//Renaming back puts the earlier Node first again
+		a.setLabel("Greeting");
+		
+		assertSame(a, project.getNodeByLabel("Greeting"));
+		assertNull(project.getNodeByLabel("Farewell"));
+	}
+	
+	@Test
+	public void repeatedIDsResolveToTheFirstMatch() {
+		CorkboardProject project = emptyProject();
+		
+		Node first = node("same", "First");
+		Node second = node("same", "Second");
+		
+		project.getNodes().add(first);
+		project.getNodes().add(second);
+		
+		assertSame(first, project.getNodeByID("same"));
+		
+		project.getNodes().remove(0);
+		
+		assertSame(second, project.getNodeByID("same"));
+	}
+	
+	@Test
+	public void removedNodesNoLongerUpdateTheIndex() {
+		CorkboardProject project = emptyProject();
+		
+		Node a = node("a", "Greeting");
+		
+		project.getNodes().add(a);
+		project.getNodes().remove(a);
+		
+		a.setLabel("Farewell");
+		
+		assertNull(project.getNodeByLabel("Farewell"));
+		assertNull(project.getNodeByLabel("Greeting"));
+	}
+	
+	/**
+	 * Runs random adds, inserts, renames, removals, shuffles, and repeats of the same Node, checking every lookup against a plain search of the list as it goes.
+	 */
+	@Test
+	public void randomChangesMatchLinearSearch() {
+		Random random = new Random(1);
+		
+		for (int trial = 0; trial < 100; trial++) {
+			CorkboardProject project = emptyProject();
+			ArrayList<Node> nodes = project.getNodes();
+			
+			int nextID = 0;
+			
+			for (int change = 0; change < 200; change++) {
+				int kind = random.nextInt(10);
+				
+				if (kind < 3 || nodes.isEmpty()) {
+					//Some IDs are reused, so there are duplicates to resolve
+					String ID = "n" + (random.nextInt(3) == 0 ? random.nextInt(20) : nextID++);
+					nodes.add(node(ID, "L" + random.nextInt(8)));
+				} else if (kind < 5) {
+					nodes.get(random.nextInt(nodes.size())).setLabel("L" + random.nextInt(8));
+				} else if (kind == 5) {
+					nodes.remove(random.nextInt(nodes.size()));
+				} else if (kind == 6) {
+					String label = "L" + random.nextInt(8);
+					nodes.removeIf(node -> node.getLabel().equals(label) && random.nextBoolean());
+				} else if (kind == 7) {
+					nodes.add(random.nextInt(nodes.size()), node("n" + nextID++, "L" + random.nextInt(8)));
+				} else if (kind == 8 && random.nextInt(10) == 0) {
+					Collections.shuffle(nodes, random);
+				} else if (kind == 9 && random.nextInt(5) == 0) {
+					nodes.add(random.nextInt(nodes.size()), nodes.get(random.nextInt(nodes.size())));
+				}
+				
+				for (int i = 0; i < 25; i++) {
+					String ID = "n" + i;
+					assertSame(Element.getElement(ElementSearch.ID, nodes, ID), project.getNodeByID(ID), "Trial " + trial + ", change " + change + ": ID " + ID);
+				}
+				
+				for (int i = 0; i < 9; i++) {
+					String label = "L" + i;
+					assertSame(Element.getElement(ElementSearch.LABEL, nodes, label), project.getNodeByLabel(label), "Trial " + trial + ", change " + change + ": label " + label);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void connectionsAreIndexedToo() {
+		CorkboardProject project = emptyProject();
+		
+		Node a = node("a", "A");
+		Node b = node("b", "B");
+		
+		project.getNodes().add(a);
+		project.getNodes().add(b);
+		
+		Connection connection = new Connection("c", "Next", a, b);
+		project.getConnections().add(connection);
+		
+		assertSame(connection, project.getConnectionByID("c"));
+		assertSame(connection, project.getConnectionByLabel("Next"));
+		
+		connection.setLabel("Continue");
+		
+		assertSame(connection, project.getConnectionByLabel("Continue"));
+		assertNull(project.getConnectionByLabel("Next"));
+		
+		project.getConnections().remove(connection);
+		
+		assertNull(project.getConnectionByID("c"));
+		assertEquals(0, project.getConnections().size());
+	}
+	
+	private static CorkboardProject emptyProject() {
+		return new CorkboardProject("Test", 0, 0, 1, new ArrayList<>(), new ArrayList<>());
+	}
+	
+	private static Node node(String ID, String label) {
+		return new Node(ID, NodeType.TEXT_AREA, 0, 0, 100, 100, label, null, new String[0]);
+	}
+	
+}
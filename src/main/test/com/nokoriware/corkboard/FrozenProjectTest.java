@@ -0,0 +1,190 @@
+package com.nokoriware.corkboard;
+
+import static com.nokoriware.corkboard.ProjectAssertions.assertProjectsEqual;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Checks that freezing a project keeps everything in it, and that nothing in a frozen project can be changed afterwards.
+ */
+public class FrozenProjectTest {
+	
+	@Test
+	public void freezingKeepsTheContents() {
+		CorkboardProject project = ProjectAssertions.generate(200, 400);
+		project.freeze();
+		
+		assertTrue(project.isFrozen());
+		assertProjectsEqual(ProjectAssertions.generate(200, 400), project);
+		
+		//Lookups still work, from the prebuilt index
+		Node node = project.getNodes().get(10);
+		assertSame(node, project.getNodeByID(node.getID()));
+		assertSame(node, project.getNodeByLabel(node.getLabel()));
+	}
+	
+	@Test
+	public void copiesCanBeChanged() {
+		CorkboardProject project = ProjectAssertions.generate(100, 200).freeze();
+		CorkboardProject copy = project.copy();
+		
+		assertFalse(copy.isFrozen());
+		assertProjectsEqual(project, copy);
+		
+		copy.getNodes().get(0).setLabel("Changed");
+		copy.getConnections().get(0).disconnect();
+		
+		assertEquals("Changed", copy.getNodes().get(0).getLabel());
+		assertNotSame(project.getNodes().get(0), copy.getNodes().get(0));
+		assertEquals(project.getConnections().size() - 1, copy.getConnections().size());
+	}
+	
+	@Test
+	public void everyEditIsRejected() {
+		CorkboardProject project = ProjectAssertions.generate(100, 200).freeze();
+		
+		Node node = project.getNodeByID("node-1");
+		Connection connection = project.getConnections().get(0);
+		
+		assertRejected(() -> project.setName("Changed"));
+		assertRejected(() -> project.setStartingNode(null));
+		assertRejected(() -> project.getNodes().remove(0));
+		assertRejected(() -> project.getNodes().add(node));
+		assertRejected(() -> project.getConnections().clear());
+		assertRejected(() -> project.patch(ProjectAssertions.generate(100, 200)));
+		
+		assertRejected(() -> node.setX(1));
+		assertRejected(() -> node.setLabel("Changed"));
+		assertRejected(() -> node.setBody(null));
+		assertRejected(() -> node.getAttributes().add("Changed"));
+		assertRejected(() -> node.getComponents().clear());
+		assertRejected(() -> node.addConnection("Changed", node));
+		assertRejected(() -> node.getIncomingConnections().add(connection));
+		assertRejected(() -> node.getOutgoingConnections().clear());
+		
+		assertRejected(() -> connection.setLabel("Changed"));
+		assertRejected(() -> connection.disconnect());
+		assertRejected(() -> new Connection("new-edge", "Changed", node, node));
+		
+		//Nothing was changed on the way
+		assertProjectsEqual(ProjectAssertions.generate(100, 200), project);
+	}
+	
+	/**
+	 * Frozen Nodes keep their Connections in a pool shared by the whole project, so it mustn't be possible to add to it, even from inside the package.
+	 */
+	@Test
+	public void pooledConnectionsAreReadOnly() {
+		CorkboardProject project = ProjectAssertions.generate(100, 200).freeze();
+		
+		Node node = project.getNodeByID("node-1");
+		Node other = project.getNodeByID("node-2");
+		
+		//Built without the frozen Nodes knowing about it, as the importer and LazyCorkboardProject do
+		Connection connection = new Connection("new-edge", "", null, null);
+		
+		assertRejected(() -> node.connect(connection, true, false));
+		assertRejected(() -> other.connect(connection, false, true));
+		assertRejected(() -> node.disconnect(project.getConnections().get(0)));
+		assertRejected(() -> node.relabel(project.getConnections().get(0)));
+		assertRejected(() -> node.getConnections().add(connection));
+		assertRejected(() -> node.getOutgoingConnectionsByLabel(Node.LabelType.UNLABELLED).add(connection));
+		
+		for (Node n : project.getNodes()) {
+			assertFalse(n.getConnections().contains(connection));
+		}
+	}
+	
+	/**
+	 * Frozen Nodes pick their direction and label lists out of their run of the pool as they're read, which has to give the same lists as before, loops included.
+	 */
+	@Test
+	public void pooledConnectionsMatchTheLists() {
+		CorkboardProject project = ProjectAssertions.generate(200, 400);
+		
+		Node loop = project.getNodeByID("node-3");
+		loop.addConnection("Again", loop);
+		loop.addConnection("", loop);
+		loop.addConnection("Out", project.getNodeByID("node-4"));
+		project.getNodeByID("node-5").addConnection(" ", loop);
+		
+		ArrayList<String> before = describeConnections(project);
+		project.freeze();
+		
+		assertEquals(before, describeConnections(project));
+	}
+	
+	private static ArrayList<String> describeConnections(CorkboardProject project) {
+		ArrayList<String> descriptions = new ArrayList<>();
+		
+		for (Node node : project.getNodes()) {
+			StringBuilder builder = new StringBuilder(node.getID());
+			
+			describe(builder, "all", node.getConnections());
+			describe(builder, "in", node.getIncomingConnections());
+			describe(builder, "out", node.getOutgoingConnections());
+			describe(builder, "self", node.getSelfConnections());
+			
+			for (Node.LabelType labelType : Node.LabelType.values()) {
+				describe(builder, "all " + labelType, node.getConnectionsByLabel(labelType));
+				describe(builder, "in " + labelType, node.getIncomingConnectionsByLabel(labelType));
+				describe(builder, "out " + labelType, node.getOutgoingConnectionsByLabel(labelType));
+				describe(builder, "self " + labelType, node.getSelfConnectionsByLabel(labelType));
+			}
+			
+			builder.append(" | ").append(node.hasConnections()).append(node.hasSourceConnections()).append(node.hasTargetConnections());
+			builder.append(node.hasLabelledSourceConnections()).append(node.hasLabelledTargetConnections());
+			
+			descriptions.add(builder.toString());
+		}
+		
+		return descriptions;
+	}
+	
+	private static void describe(StringBuilder builder, String name, List<Connection> connections) {
+		builder.append(" | ").append(name).append(':');
+		
+		for (int i = 0; i < connections.size(); i++) {
+			builder.append(' ').append(connections.get(i).getID());
+		}
+		
+		//Read both ways, since the views search their run for each Connection
+		for (Connection connection : connections) {
+			builder.append(' ').append(connection.getID());
+		}
+	}
+	
+	@Test
+	public void sharedSnapshotsAreFrozen() {
+		SharedCorkboardProject shared = new SharedCorkboardProject(ProjectAssertions.generate(100, 200));
+		CorkboardProject first = shared.get();
+		
+		assertTrue(first.isFrozen());
+		assertRejected(() -> first.getNodeByID("node-1").setLabel("Changed"));
+		
+		CorkboardProject second = shared.update(project -> project.getNodeByID("node-1").setLabel("Changed"));
+		
+		assertSame(second, shared.get());
+		assertTrue(second.isFrozen());
+		assertEquals(1, shared.getVersion());
+		
+		//The old snapshot is left as it was
+		assertEquals("Changed", second.getNodeByID("node-1").getLabel());
+		assertEquals("Node 1", first.getNodeByID("node-1").getLabel());
+	}
+	
+	private static void assertRejected(Executable edit) {
+		assertThrows(UnsupportedOperationException.class, edit);
+	}
+	
+}
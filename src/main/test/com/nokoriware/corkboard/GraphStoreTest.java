@@ -0,0 +1,104 @@
+package com.nokoriware.corkboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the GraphStore's numbers and adjacency against the Node and Connection objects it was built from.
+ */
+public class GraphStoreTest {
+	
+	@Test
+	public void storeMatchesTheProject() {
+		CorkboardProject project = ProjectAssertions.generate(300, 600);
+		project.getNodeByID("node-3").addConnection("Loop", project.getNodeByID("node-3"));
+		
+		GraphStore graph = project.getGraphStore();
+		
+		assertEquals(project.getNodes().size(), graph.getNodeCount());
+		assertEquals(project.getConnections().size(), graph.getConnectionCount());
+		
+		for (int n = 0; n < graph.getNodeCount(); n++) {
+			Node node = project.getNodes().get(n);
+			
+			assertSame(node, graph.getNode(n));
+			assertEquals(n, graph.getNodeNumber(node));
+			assertEquals(node.getID(), graph.getNodeID(n));
+			assertEquals(node.getLabel(), graph.getNodeLabel(n));
+			
+			//Loops are listed on both sides in the store, but only as self Connections on the Node
+			assertEquals(getIDs(node.getOutgoingConnections(), node.getSelfConnections()), getOutIDs(graph, n));
+		}
+		
+		for (int c = 0; c < graph.getConnectionCount(); c++) {
+			Connection connection = project.getConnections().get(c);
+			
+			assertEquals(connection.getID(), graph.getConnectionID(c));
+			assertEquals(connection.getLabel(), graph.getConnectionLabel(c));
+			assertEquals(graph.getNodeNumber(connection.getSource()), graph.getSource(c));
+			assertEquals(graph.getNodeNumber(connection.getTarget()), graph.getTarget(c));
+		}
+		
+		Node outsider = new Node("outsider", NodeType.TEXT_AREA, 0, 0, 0, 0, "Outsider", null, new String[0]);
+		
+		assertEquals(-1, graph.getNodeNumber(outsider));
+		assertEquals(-1, graph.getNodeNumber(null));
+	}
+	
+	@Test
+	public void storeIsRebuiltAfterChanges() {
+		CorkboardProject project = ProjectAssertions.generate(50, 100);
+		GraphStore graph = project.getGraphStore();
+		
+		assertSame(graph, project.getGraphStore());
+		
+		project.getNodeByID("node-1").setLabel("Renamed");
+		
+		GraphStore rebuilt = project.getGraphStore();
+		assertNotSame(graph, rebuilt);
+		assertEquals("Renamed", rebuilt.getNodeLabel(rebuilt.getNodeNumber(project.getNodeByID("node-1"))));
+		
+		//Frozen projects build it when it's first asked for, then keep it
+		project.freeze();
+		assertSame(project.getGraphStore(), project.getGraphStore());
+	}
+	
+	/**
+	 * @return the IDs of the Connections, sorted by where they are in the project, the same order as the store's adjacency
+	 */
+	@SafeVarargs
+	private static List<String> getIDs(List<Connection>...lists) {
+		ArrayList<Connection> connections = new ArrayList<>();
+		
+		for (List<Connection> list : lists) {
+			connections.addAll(list);
+		}
+		
+		connections.sort((a, b) -> Integer.compare(a.getProject().getConnections().indexOf(a), b.getProject().getConnections().indexOf(b)));
+		
+		ArrayList<String> IDs = new ArrayList<>();
+		
+		for (Connection connection : connections) {
+			IDs.add(connection.getID());
+		}
+		
+		return IDs;
+	}
+	
+	private static List<String> getOutIDs(GraphStore graph, int node) {
+		ArrayList<String> IDs = new ArrayList<>();
+		
+		for (int i = 0; i < graph.getOutDegree(node); i++) {
+			IDs.add(graph.getConnectionID(graph.getOutConnection(node, i)));
+		}
+		
+		return IDs;
+	}
+	
+}
@@ -0,0 +1,218 @@
+package com.nokoriware.corkboard;
+
+import static com.nokoriware.corkboard.ProjectAssertions.assertProjectsEqual;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.nokoriware.corkboard.CorkboardImportListener.Reference;
+
+/**
+ * Checks that Nodes loaded one at a time by a LazyCorkboardProject match the same board imported all at once.
+ */
+public class LazyCorkboardProjectTest {
+	
+	@TempDir
+	Path directory;
+	
+	private Path board;
+	private CorkboardProject eager;
+	
+	@BeforeEach
+	public void writeBoard() throws IOException {
+		board = directory.resolve("board.json");
+		Files.write(board, ProjectAssertions.generateJSON(300, 600));
+		
+		eager = CorkboardJSONImporter.read(board);
+	}
+	
+	@Test
+	public void lazyNodesMatchTheEagerImport() throws IOException {
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(board)) {
+			assertMatchesEager(lazy);
+		}
+	}
+	
+	/**
+	 * With a tiny cache, Nodes are dropped and loaded again all the time, including the Nodes at the other end of a Connection while it's being followed.
+	 */
+	@Test
+	public void nodesReloadedFromATinyCacheMatchToo() throws IOException {
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(board)) {
+			lazy.setCacheSize(3);
+			assertMatchesEager(lazy);
+			
+			assertTrue(lazy.getCachedNodeCount() <= 3);
+			assertTrue(lazy.getLoadCount() > eager.getNodes().size());
+		}
+	}
+	
+	@Test
+	public void savedIndexesAreReused() throws IOException {
+		Path indexPath = directory.resolve("board.json.index");
+		
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(board, indexPath)) {
+			assertTrue(Files.exists(indexPath));
+		}
+		
+		long saved = Files.getLastModifiedTime(indexPath).toMillis();
+		
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(board, indexPath)) {
+			assertMatchesEager(lazy);
+		}
+		
+		assertEquals(saved, Files.getLastModifiedTime(indexPath).toMillis());
+	}
+	
+	@Test
+	public void loadReadsTheWholeBoard() throws IOException {
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(board)) {
+			assertProjectsEqual(eager, lazy.load());
+		}
+	}
+	
+	@Test
+	public void lazyNodesAreReadOnly() throws IOException {
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(board)) {
+			Node node = lazy.getNodeByID(getConnected().getID());
+			
+			assertThrows(UnsupportedOperationException.class, () -> node.setLabel("Changed"));
+			assertThrows(UnsupportedOperationException.class, () -> node.getConnections().get(0).setLabel("Changed"));
+			assertThrows(UnsupportedOperationException.class, () -> node.addConnection("Changed", node));
+		}
+	}
+	
+	@Test
+	public void compressedBoardsAreRejected() throws IOException {
+		Path gzip = directory.resolve("board.json.gz");
+		CorkboardJSONExporter.write(eager, gzip);
+		
+		assertThrows(IOException.class, () -> CorkboardJSONImporter.readLazy(gzip));
+	}
+	
+	@Test
+	public void missingReferencesAreReportedToTheListener() throws IOException {
+		Node node = node("node", NodeType.TEXT_AREA, "Node");
+		Node jumper = node("jumper", NodeType.JUMPER, "Nowhere");
+		
+		//Not on the board, so only its ID is written
+		node.getComponents().add(node("ghost", NodeType.TEXT_AREA, "Ghost"));
+		
+		Path path = write(node, jumper);
+		
+		List<String> unresolved = new ArrayList<>();
+		CorkboardImportSettings settings = new CorkboardImportSettings();
+		
+		settings.setListener(new CorkboardImportListener() {
+			
+			@Override
+			public void unresolved(CorkboardImportStats stats, Reference reference, String elementID, String missingID) {
+				unresolved.add(reference + " " + elementID + " " + missingID);
+			}
+			
+		});
+		
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(path, null, settings)) {
+			assertTrue(lazy.getNodeByID("node").getComponents().isEmpty());
+			assertNull(lazy.getNodeByID("jumper").getJumperTarget());
+		}
+		
+		assertEquals(List.of("COMPONENT node ghost", "JUMPER_TARGET jumper Nowhere"), unresolved);
+	}
+	
+	/**
+	 * Each Node is a component of the one before it, so loading the first loads them all.
+	 */
+	@Test
+	public void longChainsOfComponentsLoad() throws IOException {
+		int length = 50_000;
+		Node[] nodes = new Node[length];
+		
+		for (int i = length - 1; i >= 0; i--) {
+			nodes[i] = node("chain-" + i, NodeType.TEXT_AREA, "Chain " + i);
+			
+			if (i < length - 1) {
+				nodes[i].getComponents().add(nodes[i + 1]);
+			}
+		}
+		
+		try (LazyCorkboardProject lazy = CorkboardJSONImporter.readLazy(write(nodes))) {
+			Node node = lazy.getNode(0);
+			
+			for (int i = 1; i < length; i++) {
+				node = node.getComponents().get(0);
+				assertEquals("chain-" + i, node.getID());
+			}
+			
+			assertTrue(node.getComponents().isEmpty());
+			assertEquals(length, lazy.getLoadCount());
+		}
+	}
+	
+	private Path write(Node...nodes) throws IOException {
+		Path path = directory.resolve("written.json");
+		CorkboardJSONExporter.write(new CorkboardProject("Written", 0, 0, 1, new ArrayList<>(List.of(nodes)), new ArrayList<>()), path);
+		
+		return path;
+	}
+	
+	private static Node node(String ID, NodeType type, String label) {
+		return new Node(ID, type, 0, 0, 100, 100, label, null, new String[0]);
+	}
+	
+	/**
+	 * @return the first Node with any Connections
+	 */
+	private Node getConnected() {
+		for (Node node : eager.getNodes()) {
+			if (node.hasConnections()) {
+				return node;
+			}
+		}
+		
+		return null;
+	}
+	
+	private void assertMatchesEager(LazyCorkboardProject lazy) {
+		assertEquals(eager.getNodes().size(), lazy.getNodeCount());
+		assertEquals(eager.getConnections().size(), lazy.getConnectionCount());
+		
+		assertEquals(eager.getViewportX(), lazy.getViewportX());
+		assertEquals(eager.getViewportY(), lazy.getViewportY());
+		assertEquals(eager.getViewportZoom(), lazy.getViewportZoom());
+		assertEquals(eager.getStartingNode().getID(), lazy.getStartingNode().getID());
+		
+		for (int i = 0; i < eager.getNodes().size(); i++) {
+			Node node = eager.getNodes().get(i);
+			Node lazyNode = lazy.getNode(i);
+			
+			assertEquals(node.getID(), lazy.getNodeID(i));
+			assertEquals(node.getLabel(), lazy.getNodeLabel(i));
+			assertEquals(ProjectAssertions.describe(node), ProjectAssertions.describe(lazyNode));
+			
+			//Following the Connections loads the Nodes at the other end
+			assertEquals(node.getConnections().size(), lazyNode.getConnections().size());
+			
+			for (int c = 0; c < node.getConnections().size(); c++) {
+				assertEquals(ProjectAssertions.describe(node.getConnections().get(c)), ProjectAssertions.describe(lazyNode.getConnections().get(c)));
+			}
+			
+			assertEquals(node.getID(), lazy.getNodeByID(node.getID()).getID());
+		}
+		
+		assertEquals(eager.getNodeByLabel("Node 10").getID(), lazy.getNodeByLabel("Node 10").getID());
+		assertNull(lazy.getNodeByID("missing"));
+	}
+	
+}
@@ -0,0 +1,104 @@
+package com.nokoriware.corkboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+
+import com.nokoriware.corkboard.test.SyntheticBoardGenerator;
+
+/**
+ * Shared helpers for the tests: generating boards, and comparing whole projects.
+ */
+class ProjectAssertions {
+	
+	/**
+	 * @return a generated board, imported the usual way
+	 */
+	static CorkboardProject generate(int nodeCount, int edgeCount) {
+		return CorkboardJSONImporter.read("Generated", new ByteArrayInputStream(generateJSON(nodeCount, edgeCount)));
+	}
+	
+	/**
+	 * @return the JSON export of a generated board, with a few of its Nodes as components and jumpers
+	 */
+	static byte[] generateJSON(int nodeCount, int edgeCount) {
+		SyntheticBoardGenerator generator = new SyntheticBoardGenerator();
+		generator.setNodeCount(nodeCount);
+		generator.setEdgeCount(edgeCount);
+		generator.setComponentCount(nodeCount / 10);
+		generator.setJumperCount(nodeCount / 20);
+		generator.setBodyWords(12);
+		
+		return generator.generate();
+	}
+	
+	/**
+	 * Checks that two projects hold the same Nodes and Connections, in the same order, connected the same way.
+	 */
+	static void assertProjectsEqual(CorkboardProject expected, CorkboardProject actual) {
+		assertEquals(expected.getViewportX(), actual.getViewportX());
+		assertEquals(expected.getViewportY(), actual.getViewportY());
+		assertEquals(expected.getViewportZoom(), actual.getViewportZoom());
+		assertEquals(getID(expected.getStartingNode()), getID(actual.getStartingNode()));
+		
+		assertEquals(expected.getNodes().size(), actual.getNodes().size());
+		
+		for (int i = 0; i < expected.getNodes().size(); i++) {
+			assertEquals(describe(expected.getNodes().get(i)), describe(actual.getNodes().get(i)));
+		}
+		
+		assertEquals(expected.getConnections().size(), actual.getConnections().size());
+		
+		for (int i = 0; i < expected.getConnections().size(); i++) {
+			assertEquals(describe(expected.getConnections().get(i)), describe(actual.getConnections().get(i)));
+		}
+	}
+	
+	/**
+	 * @return everything about the Node that should survive being written out and read back in, on one line
+	 */
+	static String describe(Node node) {
+		StringBuilder builder = new StringBuilder();
+		
+		builder.append(node.getID()).append(" | ").append(node.getType()).append(" | ");
+		builder.append(node.getX()).append(", ").append(node.getY()).append(", ").append(node.getWidth()).append(", ").append(node.getHeight()).append(" | ");
+		builder.append(node.getLabel()).append(" | ").append(node.hasBody() ? node.getBody().getHTML() : null).append(" | ").append(node.getAttributes());
+		
+		builder.append(" | components:");
+		
+		for (Node component : node.getComponents()) {
+			builder.append(' ').append(component.getID());
+		}
+		
+		builder.append(" | jumper: ").append(node.hasJumperTarget() ? node.getJumperTarget().getID() : null);
+		
+		builder.append(" | out:");
+		
+		for (Connection connection : node.getOutgoingConnections()) {
+			builder.append(' ').append(connection.getID());
+		}
+		
+		builder.append(" | in:");
+		
+		for (Connection connection : node.getIncomingConnections()) {
+			builder.append(' ').append(connection.getID());
+		}
+		
+		builder.append(" | self:");
+		
+		for (Connection connection : node.getSelfConnections()) {
+			builder.append(' ').append(connection.getID());
+		}
+		
+		return builder.toString();
+	}
+	
+	static String describe(Connection connection) {
+		return connection.getID() + " | " + connection.getLabel() + " | " + getID(connection.getSource()) + " -> " + getID(connection.getTarget());
+	}
+	
+	private static String getID(Element element) {
+		return (element != null ? element.getID() : null);
+	}
+	
+}
@@ -0,0 +1,178 @@
+package com.nokoriware.corkboard;
+
+import static com.nokoriware.corkboard.ProjectAssertions.assertProjectsEqual;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that patching a project by ID keeps every unchanged Node and Connection, and reports exactly what changed.
+ */
+public class ProjectPatcherTest {
+	
+	private static final byte[] BOARD = ProjectAssertions.generateJSON(200, 400);
+	
+	@Test
+	public void reloadingTheSameBoardChangesNothing() {
+		CorkboardProject project = read();
+		
+		List<Node> nodes = new ArrayList<>(project.getNodes());
+		List<Connection> connections = new ArrayList<>(project.getConnections());
+		
+		CorkboardChangeSet changes = CorkboardJSONImporter.reload(project, new ByteArrayInputStream(BOARD));
+		
+		assertTrue(changes.isEmpty(), changes.toString());
+		
+		for (int i = 0; i < nodes.size(); i++) {
+			assertSame(nodes.get(i), project.getNodes().get(i));
+		}
+		
+		for (int i = 0; i < connections.size(); i++) {
+			assertSame(connections.get(i), project.getConnections().get(i));
+		}
+		
+		assertProjectsEqual(read(), project);
+	}
+	
+	@Test
+	public void changedElementsKeepTheirIdentity() {
+		CorkboardProject project = read();
+		
+		IdentityHashMap<Node, String> originalNodes = new IdentityHashMap<>();
+		
+		for (Node node : project.getNodes()) {
+			originalNodes.put(node, node.getID());
+		}
+		
+		Node renamed = project.getNodeByID("node-5");
+		Node moved = project.getNodeByID("node-6");
+		Node removed = project.getNodeByID("node-7");
+		Connection relabelled = getRelabelled(project);
+		
+		CorkboardProject update = read();
+		edit(update);
+		
+		CorkboardProject expected = read();
+		edit(expected);
+		
+		CorkboardChangeSet changes = project.patch(update);
+		
+		assertProjectsEqual(expected, project);
+		
+		//Changed Nodes and Connections are updated in place, rather than replaced
+		assertSame(renamed, project.getNodeByID("node-5"));
+		assertEquals("Renamed", renamed.getLabel());
+		assertSame(moved, project.getNodeByID("node-6"));
+		assertEquals(123.0, moved.getX());
+		assertSame(relabelled, project.getConnectionByID(relabelled.getID()));
+		assertEquals("Relabelled", relabelled.getLabel());
+		
+		//And so are the rest
+		for (Node node : project.getNodes()) {
+			if (!node.getID().equals("new-node")) {
+				assertEquals(node.getID(), originalNodes.get(node), "Node " + node.getID() + " was replaced");
+			}
+		}
+		
+		assertTrue(changes.getUpdatedNodes().contains(renamed));
+		assertTrue(changes.getUpdatedNodes().contains(moved));
+		assertTrue(changes.getUpdatedConnections().contains(relabelled));
+		
+		assertEquals(List.of(removed), changes.getRemovedNodes());
+		assertNull(project.getNodeByID("node-7"));
+		
+		assertEquals(1, changes.getAddedNodes().size());
+		assertSame(project.getNodeByID("new-node"), changes.getAddedNodes().get(0));
+		assertFalse(changes.getAddedConnections().isEmpty());
+		
+		//The update is taken apart
+		assertTrue(update.getNodes().isEmpty());
+		assertTrue(update.getConnections().isEmpty());
+	}
+	
+	@Test
+	public void retargetedConnectionsAreReplaced() {
+		CorkboardProject project = read();
+		Connection connection = project.getConnections().get(0);
+		
+		CorkboardProject update = read();
+		Connection updateConnection = update.getConnections().get(0);
+		
+		//Connections can't be moved, so the update's has to be swapped out for one pointing somewhere else
+		Node newTarget = (updateConnection.getTarget() != update.getNodeByID("node-0") ? update.getNodeByID("node-0") : update.getNodeByID("node-1"));
+		
+		//Disconnecting also takes it out of the project
+		updateConnection.disconnect();
+		update.getConnections().add(0, new Connection(updateConnection.getID(), updateConnection.getLabel(), updateConnection.getSource(), newTarget));
+		
+		CorkboardChangeSet changes = project.patch(update);
+		Connection patched = project.getConnectionByID(connection.getID());
+		
+		assertNotSame(connection, patched);
+		assertSame(project.getNodeByID(newTarget.getID()), patched.getTarget());
+		assertEquals(List.of(connection), changes.getRemovedConnections());
+		assertEquals(List.of(patched), changes.getAddedConnections());
+		
+		assertFalse(connection.getSource().getConnections().contains(connection));
+	}
+	
+	/**
+	 * Makes the same changes to any import of {@link #BOARD}.
+	 */
+	private static void edit(CorkboardProject project) {
+		project.getNodeByID("node-5").setLabel("Renamed");
+		project.getNodeByID("node-6").setX(123);
+		
+		//Remove node-7, along with everything that points to it
+		Node removed = project.getNodeByID("node-7");
+		
+		for (Connection connection : new ArrayList<>(removed.getConnections())) {
+			connection.disconnect();
+		}
+		
+		for (Node node : project.getNodes()) {
+			node.getComponents().remove(removed);
+			
+			if (node.getJumperTarget() == removed) {
+				node.setJumperTarget(null);
+			}
+		}
+		
+		project.getNodes().remove(removed);
+		
+		//Add a new Node, connected to an old one
+		Node added = new Node("new-node", NodeType.TEXT_AREA, 10, 20, 200, 100, "New", new Content("<p>Hello</p>"), new String[0]);
+		project.getNodes().add(added);
+		project.getConnections().add(new Connection("new-edge", "To the new Node", project.getNodeByID("node-5"), added));
+		
+		getRelabelled(project).setLabel("Relabelled");
+	}
+	
+	/**
+	 * @return the first Connection that doesn't touch node-7, which {@link #edit(CorkboardProject)} relabels
+	 */
+	private static Connection getRelabelled(CorkboardProject project) {
+		for (Connection connection : project.getConnections()) {
+			if (!connection.getSource().getID().equals("node-7") && !connection.getTarget().getID().equals("node-7")) {
+				return connection;
+			}
+		}
+		
+		return null;
+	}
+	
+	private static CorkboardProject read() {
+		return CorkboardJSONImporter.read("Generated", new ByteArrayInputStream(BOARD));
+	}
+	
+}
@@ -0,0 +1,181 @@
+package com.nokoriware.corkboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the project's rectangle and point queries against a plain scan of every Node, including after Nodes are moved, resized, removed, and reordered.
+ */
+public class SpatialIndexTest {
+	
+	@Test
+	public void queriesFollowMovedNodes() {
+		Node a = node("a", 0, 0, 100, 100);
+		Node b = node("b", 50, 50, 100, 100);
+		
+		CorkboardProject project = project(a, b);
+		
+		assertEquals(List.of(a, b), project.getNodesInRect(60, 60, 10, 10));
+		assertSame(b, project.getNodeAt(75, 75));
+		assertSame(a, project.getNodeAt(10, 10));
+		
+		//Far enough to land in other cells of the grid
+		b.setX(5000);
+		b.setY(-3000);
+		
+		assertEquals(List.of(a), project.getNodesInRect(60, 60, 10, 10));
+		assertSame(a, project.getNodeAt(75, 75));
+		assertSame(b, project.getNodeAt(5050, -2950));
+		assertNull(project.getNodeAt(1000, 1000));
+		
+		a.setWidth(2000);
+		
+		assertSame(a, project.getNodeAt(1000, 50));
+	}
+	
+	@Test
+	public void edgesCount() {
+		Node a = node("a", 0, 0, 100, 100);
+		CorkboardProject project = project(a);
+		
+		assertSame(a, project.getNodeAt(100, 100));
+		assertEquals(List.of(a), project.getNodesInRect(100, 100, 50, 50));
+		assertEquals(List.of(), project.getNodesInRect(100.5, 0, 50, 50));
+	}
+	
+	@Test
+	public void visibleNodesUseTheViewport() {
+		Node onScreen = node("on", 100, 100, 50, 50);
+		Node offScreen = node("off", 3000, 100, 50, 50);
+		
+		CorkboardProject project = project(onScreen, offScreen);
+		
+		project.setViewportZoom(0.5);
+		project.setViewportX(-20);
+		
+		assertEquals(List.of(onScreen), project.getVisibleNodes(1280, 720));
+		assertSame(onScreen, project.getNodeAtScreen(100 * 0.5 - 20 + 1, 100 * 0.5 + 1));
+		
+		//Panning left brings the other one into view
+		project.setViewportX(-1400);
+		
+		assertEquals(List.of(offScreen), project.getVisibleNodes(1280, 720));
+	}
+	
+	/**
+	 * Rectangles spanning the whole grid have more cells than an int can count, which once sent these through every cell one by one.
+	 */
+	@Test
+	public void hugeRectanglesAreQuick() {
+		ArrayList<Node> nodes = new ArrayList<>();
+		
+		for (int i = 0; i < 10; i++) {
+			nodes.add(node("n" + i, i * 200, 0, 100, 100));
+		}
+		
+		CorkboardProject project = new CorkboardProject("Spatial", 0, 0, 1, nodes, new ArrayList<>());
+		
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+			assertEquals(nodes, project.getNodesInRect(-1e300, 0, 2e300, 100));
+			assertEquals(nodes, project.getNodesInRect(-1e300, -1e300, 2e300, 2e300));
+			
+			project.setViewportZoom(1e-300);
+			assertEquals(nodes, project.getVisibleNodes(1280, 720));
+		});
+	}
+	
+	@Test
+	public void randomChangesMatchLinearScan() {
+		Random random = new Random(3);
+		ArrayList<Node> nodes = new ArrayList<>();
+		
+		for (int i = 0; i < 2000; i++) {
+			nodes.add(node("n" + i, random.nextDouble() * 20000 - 5000, random.nextDouble() * 20000 - 5000, 100 + random.nextInt(150), 60 + random.nextInt(100)));
+		}
+		
+		//One Node much bigger than the grid's cells
+		nodes.add(node("big", -100000, -100000, 300000, 300000));
+		
+		CorkboardProject project = new CorkboardProject("Spatial", 0, 0, 1, nodes, new ArrayList<>());
+		
+		for (int round = 0; round < 200; round++) {
+			double x = random.nextDouble() * 20000 - 6000;
+			double y = random.nextDouble() * 20000 - 6000;
+			double width = random.nextDouble() * 3000;
+			double height = random.nextDouble() * 3000;
+			
+			List<Node> expected = new ArrayList<>();
+			
+			for (Node node : project.getNodes()) {
+				if (intersects(node, x, y, x + width, y + height)) {
+					expected.add(node);
+				}
+			}
+			
+			assertEquals(expected, project.getNodesInRect(x, y, width, height), "Round " + round);
+			
+			double pointX = random.nextDouble() * 20000 - 5000;
+			double pointY = random.nextDouble() * 20000 - 5000;
+			
+			Node top = null;
+			
+			for (Node node : project.getNodes()) {
+				if (intersects(node, pointX, pointY, pointX, pointY)) {
+					top = node;
+				}
+			}
+			
+			assertSame(top, project.getNodeAt(pointX, pointY), "Round " + round);
+			
+			for (int i = 0; i < 20; i++) {
+				Node node = project.getNodes().get(random.nextInt(project.getNodes().size()));
+				
+				switch (random.nextInt(4)) {
+				case 0:
+					node.setX(node.getX() + random.nextGaussian() * 500);
+					break;
+				case 1:
+					node.setY(node.getY() + random.nextGaussian() * 500);
+					break;
+				case 2:
+					node.setWidth(random.nextInt(3000));
+					break;
+				default:
+					node.setHeight(random.nextInt(300));
+					break;
+				}
+			}
+			
+			if (round % 50 == 49) {
+				project.getNodes().remove(random.nextInt(project.getNodes().size()));
+				Collections.swap(project.getNodes(), 0, project.getNodes().size() - 1);
+			}
+		}
+	}
+	
+	private static boolean intersects(Node node, double x0, double y0, double x1, double y1) {
+		return node.getX() <= x1 && node.getX() + node.getWidth() >= x0 && node.getY() <= y1 && node.getY() + node.getHeight() >= y0;
+	}
+	
+	private static CorkboardProject project(Node...nodes) {
+		ArrayList<Node> nodeList = new ArrayList<>();
+		Collections.addAll(nodeList, nodes);
+		
+		return new CorkboardProject("Spatial", 0, 0, 1, nodeList, new ArrayList<>());
+	}
+	
+	private static Node node(String ID, double x, double y, double width, double height) {
+		return new Node(ID, NodeType.TEXT_AREA, x, y, width, height, ID, null, new String[0]);
+	}
+	
+}
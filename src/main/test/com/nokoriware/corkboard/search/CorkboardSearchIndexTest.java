@@ -0,0 +1,165 @@
+package com.nokoriware.corkboard.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.nokoriware.corkboard.Connection;
+import com.nokoriware.corkboard.Content;
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.Element;
+import com.nokoriware.corkboard.Node;
+import com.nokoriware.corkboard.NodeType;
+
+public class CorkboardSearchIndexTest {
+	
+	private CorkboardProject project;
+	private CorkboardSearchIndex index;
+	
+	private Node keeper, harbor, storm, road, split, lantern;
+	
+	@BeforeEach
+	public void createIndex() {
+		project = new CorkboardProject("Search", 0, 0, 1, new ArrayList<>(), new ArrayList<>());
+		
+		keeper = add("keeper", "Lighthouse", "<p>The old lighthouse keeper said nothing.</p>");
+		harbor = add("harbor", "Harbor", "<p>A ship in the harbor. The keeper of the old road.</p>");
+		storm = add("storm", "Storm", "<p>Lighthouse, lighthouse, lighthouse!</p>");
+		road = add("road", "Road", "<p>The old road north.</p>", "speaker:keeper");
+		
+		//The end of the label and the start of the body make "old road", but they're different fields
+		split = add("split", "Very old", "<p>Road works ahead.</p>");
+		
+		lantern = add("lantern", "Lantern", "<p>A lantern by the door.</p>");
+		add("door", "Door", "<p>A lantern by the door.</p>");
+		
+		project.getConnections().add(new Connection("edge", "Follow the old road", keeper, road));
+		
+		index = new CorkboardSearchIndex();
+		index.add(project);
+	}
+	
+	@Test
+	public void wordsIgnoreCaseAndPunctuation() {
+		assertMatches("LIGHTHOUSE", keeper, storm);
+		assertMatches("lighthouse!", keeper, storm);
+	}
+	
+	@Test
+	public void everyWordHasToMatch() {
+		assertMatches("old keeper", keeper, harbor, road);
+		assertMatches("old keeper ship", harbor);
+		assertMatches("old keeper zebra");
+	}
+	
+	@Test
+	public void prefixesMatchAnyWordStartingWithThem() {
+		assertMatches("light*", keeper, storm);
+		assertMatches("har*", harbor);
+	}
+	
+	@Test
+	public void phrasesMatchWordsInOrder() {
+		assertMatches("\"old road\"", harbor, road, project.getConnectionByID("edge"));
+		assertMatches("\"road old\"");
+		assertMatches("\"keeper said nothing\"", keeper);
+		assertMatches("\"keeper said\" ship");
+	}
+	
+	@Test
+	public void phrasesDontCrossFields() {
+		assertMatches("old road", harbor, road, split, project.getConnectionByID("edge"));
+		assertFalse(getElements(index.search("\"old road\"")).contains(split));
+	}
+	
+	@Test
+	public void attributesAreSearched() {
+		assertMatches("speaker", road);
+		assertMatches("speaker keeper", road);
+	}
+	
+	@Test
+	public void resultsAreRankedByScore() {
+		List<SearchResult> results = index.search("lantern");
+		
+		//Both bodies are the same, but a word in the label counts double
+		assertEquals(2, results.size());
+		assertSame(lantern, results.get(0).getNode());
+		assertTrue(results.get(0).getScore() > results.get(1).getScore());
+		
+		//The more often a word comes up, the better, once length is accounted for
+		results = index.search("lighthouse");
+		assertSame(storm, results.get(0).getNode());
+		
+		//Rarer words are worth more: "ship" is only in one document, "old" in several
+		float ship = index.search("ship").get(0).getScore();
+		float old = index.search("old").stream().filter(result -> result.getNode() == harbor).findFirst().get().getScore();
+		assertTrue(ship > old);
+	}
+	
+	@Test
+	public void limitKeepsTheBestResults() {
+		List<SearchResult> all = index.search("old");
+		List<SearchResult> best = index.search("old", 2);
+		
+		assertEquals(2, best.size());
+		assertSame(all.get(0).getElement(), best.get(0).getElement());
+		assertSame(all.get(1).getElement(), best.get(1).getElement());
+		
+		for (int i = 1; i < all.size(); i++) {
+			assertTrue(all.get(i - 1).getScore() >= all.get(i).getScore());
+		}
+	}
+	
+	@Test
+	public void editsAreReindexed() {
+		storm.setLabel("Quiet harbor");
+		keeper.setBody(new Content("<p>Nothing to see.</p>"));
+		project.getNodes().remove(harbor);
+		road.getAttributes().add("quest:ferry");
+		
+		assertMatches("lighthouse", keeper, storm);
+		assertMatches("harbor", storm);
+		assertMatches("\"keeper said\"");
+		assertMatches("ferry", road);
+		
+		index.remove(project);
+		assertEquals(0, index.getDocumentCount());
+		assertMatches("lantern");
+	}
+	
+	private void assertMatches(String query, Element...expected) {
+		List<Element> results = getElements(index.search(query));
+		
+		assertEquals(expected.length, results.size(), "Results for " + query + ": " + results);
+		
+		for (Element element : expected) {
+			assertTrue(results.contains(element), "Missing " + element.getID() + " for " + query);
+		}
+	}
+	
+	private static List<Element> getElements(List<SearchResult> results) {
+		List<Element> elements = new ArrayList<>();
+		
+		for (SearchResult result : results) {
+			elements.add(result.getElement());
+		}
+		
+		return elements;
+	}
+	
+	private Node add(String ID, String label, String body, String...attributes) {
+		Node node = new Node(ID, NodeType.TEXT_AREA, 0, 0, 100, 100, label, new Content(body), attributes);
+		project.getNodes().add(node);
+		
+		return node;
+	}
+	
+}
@@ -0,0 +1,183 @@
+package com.nokoriware.corkboard.test;
+
+import java.io.File;
+import java.util.Scanner;
+
+import javax.swing.JFileChooser;
+import javax.swing.UIManager;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import com.nokoriware.corkboard.CorkboardJSONImporter;
+import com.nokoriware.corkboard.CorkboardProject;
+import com.nokoriware.corkboard.Node;
+import com.nokoriware.corkboard.runtime.CompiledBoard;
+import com.nokoriware.corkboard.runtime.DialogueCursor;
+
+/**
+ * The same console dialogue as <code>JCorkboardHelloWorldExample</code>, but played through the compiled runtime: the project is compiled into a <code>CompiledBoard</code> once,
+ * and a <code>DialogueCursor</code> steps through it. This is how you'd run many conversations at once (for example, one cursor per NPC on a server), since stepping a cursor
+ * doesn't allocate or walk the Node graph.
+ */
+public class JCorkboardCompiledDialogueExample {
+	
+	public static void main(String[] args) {
+		System.out.println("Hello world. Select an Corkboard JSON file to test.");
+		
+		/*
+		 * Set look and feel because I'm OCD
+		 */
+		
+		try {
+			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		
+		/*
+		 * Select the Corkboard file to test.
+		 */
+
+        JFileChooser chooser = new JFileChooser();
+
+        chooser.setCurrentDirectory(new File(System.getProperty("user.dir")));
+
+        FileNameExtensionFilter filter = new FileNameExtensionFilter("Corkboard JSON Files", "json");
+        chooser.setFileFilter(filter);
+
+        int returnVal = chooser.showOpenDialog(null);
+
+        if(returnVal == JFileChooser.APPROVE_OPTION) {
+        	File f = chooser.getSelectedFile();
+
+        	/*
+        	 * Run the program.
+        	 */
+
+    		try {
+    			CorkboardProject project = CorkboardJSONImporter.read(f);
+
+    			System.out.println("Corkboard Project successfully imported and processed.");
+
+    			compiledDialogueProgram(project);
+	
+    		} catch (Exception e) {
+    			e.printStackTrace();
+    		}
+	
+        } else {
+        	System.out.println("No file selected. Terminating program.");
+        	System.exit(1);
+        }
+	}
+	
+	public static void compiledDialogueProgram(CorkboardProject project) {
+		
+		/*
+		 * Welcome text
+		 */
+		
+		System.out.println("Beginning dialogue test."
+				+ "\n\nThe selected project is \"" + project.getName() + ".\""
+				+ "\nThe dialogue will begin at the Starting Element, and will be played through the compiled runtime.\n");
+		
+		/*
+		 * Begin dialogue
+		 */
+		
+		Scanner scanner = new Scanner(System.in);
+		
+		//Get starting node
+		Node currentNode = project.getStartingNode();
+		
+		if (currentNode != null) {
+			System.out.println("Starting Node: " + currentNode.getLabel());
+		} else {
+			System.out.println("Project has no starting node and will not work with this example project.");
+		}
+		
+		/*
+		 * Compile the project and play dialogue
+		 */
+		
+		CompiledBoard board = CompiledBoard.compile(project);
+		
+		playDialogue(scanner, board.newCursor());
+		
+		/*
+		 * Close Program
+		 */
+		
+		System.out.println("Terminating program.");
+		scanner.close();
+		System.exit(0);
+	}
+	
+	private static void playDialogue(Scanner scanner, DialogueCursor cursor) {
+		
+		while (!cursor.isFinished()) {
+			
+			Node currentNode = cursor.current();
+			
+			//Print dialogue
+			if (currentNode.hasBody() && !currentNode.getBody().isBlank()) {
+				System.out.println("\"" + currentNode.getBody() + "\"");
+			}
+			
+			//If the connections contain labels, we'll print them as selectable options.
+			if (cursor.options() > 0) {
+				
+				System.out.println();
+				
+				for (int i = 0; i < cursor.options(); i++) {
+					System.out.println(i + ": " + cursor.optionLabel(i));
+				}
+				
+				//Obtain user response
+				int response = obtainUserResponse(scanner);
+				
+				if (response >= 0 && response < cursor.options()) {
+					System.out.println("\n>" + cursor.optionLabel(response) + ".");
+					
+					//Proceed to next element
+					cursor.choose(response);
+					
+				} else {
+					System.err.println("Please input an available response number.\n");
+				}
+				
+				
+			} else {
+				
+				//Warning in case there are unlabelled connection outputs
+				if (cursor.getBoard().getEdgeCount(cursor.currentIndex()) > 1) {
+					System.err.println("Warning: There are only unlabelled connections present in \"" + currentNode.getLabel() + "\". The next node will be the first detected target.");
+				}
+				
+				//Otherwise if there are no responses available, we'll skip straight to the next element.
+				//If there's no output connections, the cursor will follow the jumper. If there's no jumper, it'll end up finished (end of conversation).
+				cursor.advance();
+				
+			}
+		}
+		
+		System.out.println("\nEnd of dialogue.\n");
+		
+	}
+	
+	private static int obtainUserResponse(Scanner scanner) {
+		System.out.println("\nType the corresponding number of the response you want to reply with:");
+		String response = scanner.nextLine();
+		
+		try {
+			
+			int chosenOption = Integer.parseInt(response);
+			return chosenOption;
+			
+		} catch (NumberFormatException e) {
+			
+			System.err.println("Invalid number.");
+			return -1;
+		}
+	}
+	
+}
@@ -1,7 +1,7 @@
 package com.nokoriware.corkboard.test;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 import javax.swing.JFileChooser;
@@ -118,7 +118,8 @@ public class JCorkboardHelloWorldExample {
 				System.out.println("\"" + currentNode.getBody() + "\"");
 			}
 			
-			ArrayList<Connection> options = currentNode.getTargetConnectionsByLabel(LabelType.LABELLED);
+			//The outgoing views are read straight from the Node, so no new lists are made each step
+			List<Connection> options = currentNode.getOutgoingConnectionsByLabel(LabelType.LABELLED);
 			
 			//If the connections contain labels, we'll print them as selectable options.
 			if (options.size() > 0) {
@@ -148,10 +149,10 @@ public class JCorkboardHelloWorldExample {
 			} else {
 				
 				//Otherwise if there are no responses available, we'll skip straight to the next element.
-				ArrayList<Connection> outputs = currentNode.getTargetConnections();
+				List<Connection> outputs = currentNode.getOutgoingConnections();
 				
 				//Warning in case there are unlabelled connection outputs
-				if (currentNode.getTargetConnectionsByLabel(LabelType.UNLABELLED).size() > 1) {
+				if (currentNode.getOutgoingConnectionsByLabel(LabelType.UNLABELLED).size() > 1) {
 					System.err.println("Warning: There are only unlabelled connections present in \"" + currentNode.getLabel() + "\". The next node will be the first detected target.");
 				}
 				
@@ -0,0 +1,207 @@
+package com.nokoriware.corkboard.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.nokoriware.corkboard.util.RichText.CharacterStyle;
+import com.nokoriware.corkboard.util.RichText.CustomTag;
+
+/**
+ * Checks that RichText read by the tokenizer is exactly the same as RichText read through Jsoup: the plain text, styles, code blocks, CustomTag callbacks, and body.
+ */
+public class RichTextTokenizerTest {
+	
+	private static final String[] WORDS = {
+		"Hello", "world", "it's", "a", "<", ">", "&", "\"", "  ", " ", "\n", "\t", "\u00e9", "\u2603", "x=1;", "&lt;", "&gt;", "&amp;", "&quot;", "&apos;", "&nbsp;", "&#65;", "&#x263A;",
+		"&copy;", "&bogus", "& ", "a < b", "<3"
+	};
+	
+	private static final String[] TAGS = {
+		"p", "b", "strong", "i", "em", "u", "code", "speaker", "name", "span"
+	};
+	
+	@Test
+	public void simpleBodiesAreTokenized() {
+		assertSame("<p>Plain text.</p>", true);
+		assertSame("<p>This is <b>bold</b>, <i>italic</i> and <u>underlined</u>, and <strong><em>both</em></strong>.</p><p>Second&nbsp;paragraph.<br>New line.</p>", true);
+		assertSame("<p><speaker>Ann</speaker>: Hello, <name></name>!</p>", true);
+		assertSame("<p>Run this: <code>x = 1;<br>y = 2;</code> now.</p>", true);
+		//Escaped tags are decoded into real ones before either path reads them
+		assertSame("<p>Entities: &lt;b&gt;bold&lt;/b&gt; &amp; &quot;quoted&quot; &#65;&#x263A;</p>", true);
+		assertSame("<p>Lots   of \n\t whitespace </p>  <p> here </p>", true);
+	}
+	
+	@Test
+	public void unusualBodiesFallBackToJsoup() {
+		assertSame("<p>Misnested <b>bold <i>and</b> italic</i></p>", false);
+		assertSame("<p>A p <p>in a p</p></p>", false);
+		assertSame("<p><!-- comment -->Text</p>", false);
+		assertSame("<p>An &copy; entity</p>", false);
+		assertSame("<div>Not in the subset</div>", false);
+		assertSame("  <p>Leading whitespace</p>", false);
+	}
+	
+	/**
+	 * Random bodies built from the tags, entities and odd characters above. Some are well formed and get tokenized, and the rest fall back; either way they have to match.
+	 */
+	@Test
+	public void randomBodiesMatchJsoup() {
+		Random random = new Random(12);
+		int tokenized = 0;
+		
+		for (int i = 0; i < 20000; i++) {
+			String html = randomHTML(random);
+			
+			if (assertSame(html, null)) {
+				tokenized++;
+			}
+		}
+		
+		//Make sure the tokenizer was actually tested, and not just the fallback
+		assertTrue(tokenized > 2000, "Only " + tokenized + " bodies were tokenized");
+	}
+	
+	/**
+	 * Builds the same html both ways and compares the results.
+	 *
+	 * @param tokenized - whether the tokenizer is expected to handle the html itself, or null if either is fine
+	 * @return true if the tokenizer handled the html itself
+	 */
+	private static boolean assertSame(String html, Boolean tokenized) {
+		for (boolean extractCodeBlocks : new boolean[] {false, true}) {
+			List<String> jsoupEvents = new ArrayList<>();
+			List<String> tokenizerEvents = new ArrayList<>();
+			
+			RichText jsoup = new RichText(html, extractCodeBlocks, customTags(jsoupEvents));
+			RichText tokenizer = RichText.tokenize(html, extractCodeBlocks, customTags(tokenizerEvents));
+			
+			String message = html + (extractCodeBlocks ? " (extracting code blocks)" : "");
+			
+			if (tokenized != null) {
+				assertEquals(tokenized, tokenizer.isTokenized(), message);
+			}
+			
+			assertFalse(jsoup.isTokenized());
+			
+			assertEquals(jsoup.getPlainText(), tokenizer.getPlainText(), message);
+			assertEquals(describe(jsoup), describe(tokenizer), message);
+			assertEquals(jsoup.getCodeBlocks(), tokenizer.getCodeBlocks(), message);
+			assertEquals(jsoupEvents, tokenizerEvents, message);
+			assertEquals(jsoup.getBody().outerHtml(), tokenizer.getBody().outerHtml(), message);
+			
+			if (!tokenizer.isTokenized()) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static String describe(RichText richText) {
+		StringBuilder builder = new StringBuilder();
+		
+		for (CharacterStyle style : richText.getCharacterStyles()) {
+			builder.append(style.getStartIndex()).append('-').append(style.getEndIndex());
+			builder.append(style.isBold() ? " b" : "").append(style.isItalic() ? " i" : "").append(style.isUnderlined() ? " u" : "");
+			builder.append(style.isCustomTag("speaker") ? " speaker" : "").append('\n');
+		}
+		
+		return builder.toString();
+	}
+	
+	private static String randomHTML(Random random) {
+		StringBuilder html = new StringBuilder();
+		int paragraphs = 1 + random.nextInt(3);
+		
+		for (int p = 0; p < paragraphs; p++) {
+			html.append("<p>");
+			
+			ArrayList<String> open = new ArrayList<>();
+			int parts = random.nextInt(12);
+			
+			for (int i = 0; i < parts; i++) {
+				int choice = random.nextInt(10);
+				
+				if (choice < 5) {
+					html.append(WORDS[random.nextInt(WORDS.length)]);
+				} else if (choice < 7) {
+					String tag = TAGS[1 + random.nextInt(TAGS.length - 1)];
+					html.append('<').append(tag).append('>');
+					open.add(tag);
+				} else if (choice < 9 && !open.isEmpty()) {
+					
+					//Usually closes the innermost tag, but sometimes not, so that Jsoup has something to repair
+					int index = (random.nextInt(8) == 0 ? random.nextInt(open.size()) : open.size() - 1);
+					html.append("</").append(open.remove(index)).append('>');
+				} else {
+					html.append(random.nextBoolean() ? "<br>" : "<br/>");
+				}
+			}
+			
+			while (!open.isEmpty() && random.nextInt(4) != 0) {
+				html.append("</").append(open.remove(open.size() - 1)).append('>');
+			}
+			
+			html.append(random.nextInt(10) == 0 ? "" : "</p>");
+		}
+		
+		return html.toString();
+	}
+	
+	/**
+	 * @return a styling tag and a replacer tag, which both write their callbacks to <code>events</code>
+	 */
+	private static CustomTag[] customTags(List<String> events) {
+		return new CustomTag[] {
+			new TestTag("speaker", null, events),
+			new TestTag("name", "Ann  Lee", events)
+		};
+	}
+	
+	private static class TestTag implements CustomTag {
+		
+		private final String name;
+		private final String replacement;
+		private final List<String> events;
+		
+		TestTag(String name, String replacement, List<String> events) {
+			this.name = name;
+			this.replacement = replacement;
+			this.events = events;
+		}
+		
+		@Override
+		public String name() {
+			return name;
+		}
+		
+		@Override
+		public void onStart(int charIndex) {
+			events.add("start " + name + " " + charIndex);
+		}
+		
+		@Override
+		public void onEnd(int charIndex) {
+			events.add("end " + name + " " + charIndex);
+		}
+		
+		@Override
+		public boolean isReplacer() {
+			return replacement != null;
+		}
+		
+		@Override
+		public String replacement() {
+			return replacement;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,206 @@
+package com.nokoriware.corkboard.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Generates Corkboard JSON exports of any size for benchmarking. The boards are random, but the same settings and seed always produce the same board.
+ */
+public class SyntheticBoardGenerator {
+	
+	private static final String[] WORDS = {
+		"the", "old", "lighthouse", "keeper", "said", "nothing", "about", "storm", "ship", "harbor",
+		"never", "again", "quiet", "north", "road", "lantern", "bread", "river", "stone", "letter"
+	};
+	
+	private int nodeCount = 1000;
+	private int edgeCount = 2000;
+	private int componentCount = 100;
+	private int jumperCount = 50;
+	private int bodyParagraphs = 2;
+	private int bodyWords = 30;
+	private long seed = 42;
+	
+	public void setNodeCount(int nodeCount) {
+		this.nodeCount = nodeCount;
+	}
+	
+	public void setEdgeCount(int edgeCount) {
+		this.edgeCount = edgeCount;
+	}
+	
+	/**
+	 * Sets how many nodes (of the total node count) are component nodes. Each one is listed as a component of a random text node.
+	 */
+	public void setComponentCount(int componentCount) {
+		this.componentCount = componentCount;
+	}
+	
+	/**
+	 * Sets how many nodes (of the total node count) are jumpers. Each one is labelled after a random text node.
+	 */
+	public void setJumperCount(int jumperCount) {
+		this.jumperCount = jumperCount;
+	}
+	
+	public void setBodyParagraphs(int bodyParagraphs) {
+		this.bodyParagraphs = bodyParagraphs;
+	}
+	
+	/**
+	 * Sets how many words are in each paragraph of each text node's body. Some words are bolded, italicized, or underlined.
+	 */
+	public void setBodyWords(int bodyWords) {
+		this.bodyWords = bodyWords;
+	}
+	
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	/*
+	 * 
+	 * Generation
+	 * 
+	 */
+	
+	public byte[] generate() {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		generate(outputStream);
+		return outputStream.toByteArray();
+	}
+	
+	public void generate(OutputStream outputStream) {
+		Random random = new Random(seed);
+		
+		int textCount = Math.max(1, nodeCount - componentCount - jumperCount);
+		
+		try (JsonGenerator generator = Json.createGenerator(outputStream)) {
+			
+			generator.writeStartObject();
+			
+			/*
+			 * Nodes
+			 */
+			
+			generator.writeStartArray("nodes");
+			
+			for (int i = 0; i < nodeCount; i++) {
+				generator.writeStartObject();
+				
+				generator.write("id", "node-" + i);
+				generator.write("type", (i < textCount ? (i % 7 == 0 ? "text-field" : "text-area") : (i < textCount + componentCount ? "component" : "jumper")));
+				
+				generator.writeStartObject("position");
+				generator.write("x", random.nextInt(50000));
+				generator.write("y", random.nextInt(50000));
+				generator.writeEnd();
+				
+				generator.writeStartObject("style");
+				generator.write("width", (200 + random.nextInt(200)) + "px");
+				generator.write("height", (100 + random.nextInt(100)) + "px");
+				generator.writeEnd();
+				
+				generator.writeStartObject("data");
+				
+				if (i < textCount) {
+					generator.write("label", "Node " + i);
+					generator.write("body", body(random));
+					
+					generator.writeStartArray("attributes");
+					generator.write("speaker:" + WORDS[random.nextInt(WORDS.length)]);
+					generator.write("quest:" + random.nextInt(20));
+					generator.writeEnd();
+					
+					//Components are spread over the text nodes, by number
+					generator.writeStartArray("components");
+					
+					for (int c = textCount + (i % Math.max(1, textCount)); c < textCount + componentCount; c += textCount) {
+						generator.write("node-" + c);
+					}
+					
+					generator.writeEnd();
+					
+					generator.write("isStartingNode", i == 0);
+				} else if (i < textCount + componentCount) {
+					generator.write("label", "Component " + i);
+					generator.write("body", body(random));
+				} else {
+					generator.write("label", "Node " + random.nextInt(textCount));
+				}
+				
+				generator.writeEnd();
+				
+				generator.writeEnd();
+			}
+			
+			generator.writeEnd();
+			
+			/*
+			 * Edges
+			 */
+			
+			generator.writeStartArray("edges");
+			
+			for (int i = 0; i < edgeCount; i++) {
+				generator.writeStartObject();
+				
+				generator.write("id", "edge-" + i);
+				generator.write("source", "node-" + random.nextInt(textCount));
+				generator.write("target", "node-" + random.nextInt(nodeCount));
+				generator.write("label", (random.nextInt(3) == 0 ? "" : "Option " + i));
+				
+				generator.writeEnd();
+			}
+			
+			generator.writeEnd();
+			
+			/*
+			 * Viewport
+			 */
+			
+			generator.writeStartObject("viewport");
+			generator.write("x", 0);
+			generator.write("y", 0);
+			generator.write("zoom", 1);
+			generator.writeEnd();
+			
+			generator.writeEnd();
+		}
+	}
+	
+	/**
+	 * @return a random HTML body in the same form Corkboard exports them.
+	 */
+	public String body(Random random) {
+		StringBuilder body = new StringBuilder();
+		
+		for (int p = 0; p < bodyParagraphs; p++) {
+			body.append("<p>");
+			
+			for (int w = 0; w < bodyWords; w++) {
+				String word = WORDS[random.nextInt(WORDS.length)];
+				
+				if (w > 0) {
+					body.append(' ');
+				}
+				
+				switch (random.nextInt(10)) {
+				case 0: body.append("<strong>").append(word).append("</strong>"); break;
+				case 1: body.append("<em>").append(word).append("</em>"); break;
+				case 2: body.append("<u>").append(word).append("</u>"); break;
+				default: body.append(word); break;
+				}
+			}
+			
+			body.append("</p>");
+		}
+		
+		return body.toString();
+	}
+	
+}